@@ -0,0 +1,66 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first read after a restart: each measured call goes to a new repository instance
+ * that has neither opened the file indexes nor cached any series. The index files stay
+ * on disk between iterations, so this is the warm-page-cache cold path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+public class ColdSpeedRepositoryBenchmark {
+
+    private TrafficBackend backend;
+    private FileBasedSpeedRepository repository;
+    private long fromTs;
+    private long toTs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(TrafficBackend backend) {
+        this.backend = backend;
+        fromTs = TrafficBackend.BASE_DATE + (backend.days / 2) * SpeedRepositoryBenchmark.DAY_MS;
+        toTs = fromTs + SpeedRepositoryBenchmark.DAY_MS - SpeedRepositoryBenchmark.STEP_MS;
+    }
+
+    @Setup(Level.Iteration)
+    public void freshRepository() {
+        repository = backend.freshBean(FileBasedSpeedRepository.class);
+        next = next % backend.roads + 1;
+    }
+
+    @Benchmark
+    public void getSpeedDataDay(Blackhole bh) {
+        SpeedRepositoryBenchmark.consume(repository.getSpeedData(next, fromTs, toTs, false), bh);
+    }
+
+    @Benchmark
+    public void getRecentSpeedData(Blackhole bh) {
+        SpeedRepositoryBenchmark.consume(repository.getRecentSpeedData(next, 144), bh);
+    }
+
+    @Benchmark
+    public List<FileBasedSpeedRepository.DataSource> getDataSources() {
+        return repository.getDataSources();
+    }
+}
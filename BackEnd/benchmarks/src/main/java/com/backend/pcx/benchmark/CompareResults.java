@@ -0,0 +1,113 @@
+package com.backend.pcx.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Diffs two JMH JSON result files (-rf json) benchmark by benchmark: score and, when the
+ * run used -prof gc, bytes allocated per operation. Exits with 1 when any score got worse
+ * than the baseline by more than the threshold (percent, default 10); all result modes
+ * used here are time per operation, so higher is worse.
+ *
+ * <pre>java -cp target/benchmarks.jar com.backend.pcx.benchmark.CompareResults baseline/results.json results.json [threshold]</pre>
+ */
+public final class CompareResults {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(Paths.get(args[0]));
+        Map<String, JsonNode> current = read(Paths.get(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int width = 9;
+        for (String key : current.keySet()) {
+            width = Math.max(width, key.length());
+        }
+        for (String key : baseline.keySet()) {
+            width = Math.max(width, key.length());
+        }
+        String name = "%-" + width + "s";
+
+        int regressions = 0;
+        System.out.printf(name + " %14s %14s %9s %14s %14s%n",
+                "Benchmark", "Baseline", "Current", "Change", "Alloc B/op", "Alloc now");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double score = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf(name + " %14s %14s %9s%n", entry.getKey(), "-", format(score, unit), "new");
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double change = previous == 0 ? 0 : (score - previous) * 100 / previous;
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf(name + " %14s %14s %8.1f%% %14s %14s%s%n", entry.getKey(),
+                    format(previous, unit), format(score, unit), change,
+                    allocation(before), allocation(now), regressed ? "  REGRESSED" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf(name + " %14s%n", key, "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than the baseline by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Keyed by benchmark method and its parameters, e.g. PredictorBenchmark.predict{predictorType=AR}.
+     */
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            String benchmark = result.path("benchmark").asText();
+            StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.',
+                    benchmark.lastIndexOf('.') - 1) + 1));
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sorted.put(field.getKey(), field.getValue().asText());
+                }
+                key.append(sorted.toString().replace(", ", ","));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static String allocation(JsonNode result) {
+        JsonNode alloc = result.path("secondaryMetrics").path(ALLOC_NORM);
+        return alloc.isMissingNode() ? "-" : String.format("%.0f", alloc.path("score").asDouble());
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,48 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.dto.DashboardSummary;
+import com.backend.pcx.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dashboard summary as served from the snapshot, and the snapshot rebuild from
+ * segment_statistics that runs on startup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardBenchmark {
+
+    private DashboardService dashboardService;
+
+    @Setup(Level.Trial)
+    public void setUp(TrafficBackend backend) {
+        dashboardService = backend.bean(DashboardService.class);
+    }
+
+    @Benchmark
+    public DashboardSummary getSummary() {
+        return dashboardService.getSummary();
+    }
+
+    @Benchmark
+    public DashboardSummary reload() {
+        dashboardService.reload();
+        return dashboardService.getSummary();
+    }
+}
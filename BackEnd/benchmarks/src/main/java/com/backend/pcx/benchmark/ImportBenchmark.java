@@ -0,0 +1,44 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.dto.ImportJobDTO;
+import com.backend.pcx.service.SpeedIngestPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The import path for the synthetic month: the CSV parse and per-road aggregation alone,
+ * and a full replacing import (file move, index build, aggregates, statistics, rollups).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Benchmark
+    public SpeedIngestPipeline.IngestResult ingest(TrafficBackend backend) throws IOException, InterruptedException {
+        try (InputStream input = Files.newInputStream(backend.getSourceCsv())) {
+            return backend.bean(SpeedIngestPipeline.class)
+                    .ingest(input, TrafficBackend.FILENAME, TrafficBackend.BASE_DATE, bytesRead -> { });
+        }
+    }
+
+    @Benchmark
+    public ImportJobDTO importFile(TrafficBackend backend) throws IOException, InterruptedException {
+        return backend.importSource();
+    }
+}
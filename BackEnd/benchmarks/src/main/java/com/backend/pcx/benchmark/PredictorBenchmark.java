@@ -0,0 +1,61 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.predictor.PredictionResult;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.predictor.TrafficPredictor;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One forecast from the history PredictionService would load for it, so the cost of the
+ * predictor itself is measured without the repository read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictorBenchmark {
+
+    @Param({"BASELINE", "SEASONAL_NAIVE", "HOLT_WINTERS", "AR"})
+    public String predictorType;
+
+    @Param("12")
+    public int horizonSteps;
+
+    private TrafficPredictor predictor;
+    private List<FileBasedSpeedRepository.SpeedDataPoint> history;
+    private long baseTime;
+
+    @Setup(Level.Trial)
+    public void setUp(TrafficBackend backend) {
+        predictor = backend.bean(PredictorRegistry.class).get(predictorType);
+        FileBasedSpeedRepository repository = backend.bean(FileBasedSpeedRepository.class);
+
+        List<FileBasedSpeedRepository.SpeedDataPoint> latest = repository.getRecentSpeedData(1, 1);
+        baseTime = latest.get(0).getTs();
+        int historySteps = Math.max(6, predictor.getHistorySteps());
+        history = repository.getSpeedData(1, baseTime - historySteps * SpeedRepositoryBenchmark.STEP_MS,
+                baseTime, false);
+    }
+
+    @Benchmark
+    public List<PredictionResult> predict() {
+        return predictor.predict(1L, baseTime, horizonSteps, history);
+    }
+}
@@ -0,0 +1,96 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository reads with every road's series already in the cache, cycling through the
+ * roads so no single series stays in the CPU caches. The series are lazy views, so each
+ * benchmark walks the result as a caller would instead of returning the bare list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeedRepositoryBenchmark {
+
+    static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    static final long STEP_MS = 10 * 60 * 1000L;
+
+    @Param("144")
+    public int recentLimit;
+
+    private FileBasedSpeedRepository repository;
+    private int roads;
+    private long fromTs;
+    private long toTs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(TrafficBackend backend) {
+        repository = backend.bean(FileBasedSpeedRepository.class);
+        roads = backend.roads;
+        for (int roadId = 1; roadId <= roads; roadId++) {
+            repository.warmUp(roadId);
+        }
+        fromTs = TrafficBackend.BASE_DATE + (backend.days / 2) * DAY_MS;
+        toTs = fromTs + DAY_MS - STEP_MS;
+    }
+
+    private int nextRoad() {
+        next = next % roads + 1;
+        return next;
+    }
+
+    @Benchmark
+    public void getSpeedDataDay(Blackhole bh) {
+        consume(repository.getSpeedData(nextRoad(), fromTs, toTs, false), bh);
+    }
+
+    @Benchmark
+    public void getSpeedDataDayInterpolated(Blackhole bh) {
+        consume(repository.getSpeedData(nextRoad(), fromTs, toTs, true), bh);
+    }
+
+    @Benchmark
+    public void getSpeedDataAll(Blackhole bh) {
+        consume(repository.getSpeedData(nextRoad(), null, null, false), bh);
+    }
+
+    @Benchmark
+    public void getRecentSpeedData(Blackhole bh) {
+        consume(repository.getRecentSpeedData(nextRoad(), recentLimit), bh);
+    }
+
+    @Benchmark
+    public List<FileBasedSpeedRepository.DataSource> getDataSources() {
+        return repository.getDataSources();
+    }
+
+    /**
+     * Reads every point of the series, which is where a lazy view does its work.
+     */
+    static void consume(List<FileBasedSpeedRepository.SpeedDataPoint> points, Blackhole bh) {
+        for (FileBasedSpeedRepository.SpeedDataPoint point : points) {
+            bh.consume(point.getTs());
+            bh.consume(point.getSpeed());
+        }
+    }
+}
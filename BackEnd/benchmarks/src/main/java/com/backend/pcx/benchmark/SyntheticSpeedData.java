@@ -0,0 +1,112 @@
+package com.backend.pcx.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Writes speed CSVs in the import format (road_id,day_id,time_id,speed) with a diurnal
+ * profile per road: roads x days x 144 rows, about 2% of them with an empty speed, and
+ * the rows of a day in shuffled order like the real exports. The same seed always
+ * produces the same file.
+ *
+ * <pre>java -cp target/benchmarks.jar com.backend.pcx.benchmark.SyntheticSpeedData out/speeddata_Aug.csv 500 31</pre>
+ */
+public final class SyntheticSpeedData {
+
+    public static final int SLOTS_PER_DAY = 144;
+    public static final long DEFAULT_SEED = 20160801L;
+
+    private static final double MISSING_RATE = 0.02;
+
+    private SyntheticSpeedData() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SyntheticSpeedData <output.csv> <roads> <days> [seed]");
+            System.exit(1);
+        }
+        Path output = Paths.get(args[0]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        long rows = write(output, Integer.parseInt(args[1]), Integer.parseInt(args[2]), seed);
+        System.out.println("Wrote " + rows + " rows to " + output);
+    }
+
+    /**
+     * Returns the number of data rows written.
+     */
+    public static long write(Path output, int roads, int days, long seed) throws IOException {
+        return write(output, roads, 1, days, seed);
+    }
+
+    /**
+     * Writes days firstDay .. firstDay + days - 1, e.g. a delta that continues an earlier
+     * file; road profiles only depend on the seed, so they match that file's.
+     */
+    public static long write(Path output, int roads, int firstDay, int days, long seed) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Random random = new Random(seed);
+        double[] freeSpeed = new double[roads];
+        double[] peakDrop = new double[roads];
+        for (int road = 0; road < roads; road++) {
+            freeSpeed[road] = 35 + random.nextDouble() * 30;
+            peakDrop[road] = 0.2 + random.nextDouble() * 0.4;
+        }
+
+        int rowsPerDay = roads * SLOTS_PER_DAY;
+        int[] order = new int[rowsPerDay];
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("road_id,day_id,time_id,speed\n");
+            for (int day = firstDay; day < firstDay + days; day++) {
+                for (int i = 0; i < rowsPerDay; i++) {
+                    order[i] = i;
+                }
+                for (int i = rowsPerDay - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                }
+                for (int row : order) {
+                    int road = row / SLOTS_PER_DAY;
+                    int slot = row % SLOTS_PER_DAY;
+                    writer.write(Integer.toString(road + 1));
+                    writer.write(',');
+                    writer.write(Integer.toString(day));
+                    writer.write(',');
+                    writer.write(Integer.toString(slot + 1));
+                    writer.write(',');
+                    if (random.nextDouble() >= MISSING_RATE) {
+                        double speed = speed(freeSpeed[road], peakDrop[road], slot) + random.nextGaussian() * 3;
+                        long tenths = Math.max(10, Math.round(speed * 10));
+                        writer.write(Long.toString(tenths / 10));
+                        writer.write('.');
+                        writer.write((char) ('0' + tenths % 10));
+                    }
+                    writer.write('\n');
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Free-flow speed with a dip around the 8:00 and 18:00 peaks and a lift at night.
+     */
+    private static double speed(double freeSpeed, double peakDrop, int slot) {
+        double hour = slot / 6.0;
+        double morning = Math.exp(-Math.pow(hour - 8, 2) / 2);
+        double evening = Math.exp(-Math.pow(hour - 18, 2) / 3);
+        double night = hour < 5 ? 0.1 : 0.0;
+        return freeSpeed * (1 - peakDrop * Math.max(morning, evening) + night);
+    }
+}
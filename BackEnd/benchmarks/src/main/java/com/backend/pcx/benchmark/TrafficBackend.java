@@ -0,0 +1,123 @@
+package com.backend.pcx.benchmark;
+
+import com.backend.pcx.BackEndApplication;
+import com.backend.pcx.dto.ImportJobDTO;
+import com.backend.pcx.entity.ImportJob;
+import com.backend.pcx.service.ImportService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The backend booted without the web server on a temporary data directory holding one
+ * synthetic month (speeddata_Aug.csv), imported through {@link ImportService} like an
+ * upload. Background jobs that would compete with the measurement (forecast table, model
+ * fitting, cache warm-up, prediction retention) are switched off.
+ */
+@State(Scope.Benchmark)
+public class TrafficBackend {
+
+    public static final String FILENAME = "speeddata_Aug.csv";
+    public static final long BASE_DATE = 1470000000000L;
+
+    private static final long IMPORT_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    @Param("200")
+    public int roads;
+
+    @Param("31")
+    public int days;
+
+    /** app.storage.mode; run with -p storageMode=file,db to compare the two. */
+    @Param("file")
+    public String storageMode;
+
+    private Path workDir;
+    private Path sourceCsv;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        workDir = Files.createTempDirectory("traffic-bench");
+        sourceCsv = workDir.resolve("source").resolve(FILENAME);
+        SyntheticSpeedData.write(sourceCsv, roads, days, SyntheticSpeedData.DEFAULT_SEED);
+
+        context = new SpringApplicationBuilder(BackEndApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--app.data-dir=" + workDir.resolve("data"),
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--app.storage.mode=" + storageMode,
+                        "--app.forecast.enabled=false",
+                        "--app.model.enabled=false",
+                        "--app.cache.warmup.enabled=false",
+                        "--app.retention.enabled=false",
+                        "--logging.level.root=WARN");
+        importSource();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (workDir != null) {
+            try (Stream<Path> paths = Files.walk(workDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * A new, unshared instance of the bean with its configuration injected, e.g. a
+     * repository without any loaded indexes or cached series.
+     */
+    public <T> T freshBean(Class<T> type) {
+        return context.getAutowireCapableBeanFactory().createBean(type);
+    }
+
+    public Path getSourceCsv() {
+        return sourceCsv;
+    }
+
+    /**
+     * Imports the synthetic file as a full replacement and waits for the job to finish.
+     */
+    public ImportJobDTO importSource() throws IOException, InterruptedException {
+        Path upload = workDir.resolve("upload-" + System.nanoTime() + ".csv");
+        Files.copy(sourceCsv, upload, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportService importService = bean(ImportService.class);
+        Long jobId = importService.importUploadedFile(upload, FILENAME, false);
+        long deadline = System.currentTimeMillis() + IMPORT_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            ImportJobDTO job = importService.getImportJob(jobId);
+            if (job.getStatus() == ImportJob.ImportStatus.COMPLETED) {
+                return job;
+            }
+            if (job.getStatus() == ImportJob.ImportStatus.FAILED) {
+                throw new IllegalStateException("Import failed: " + job.getErrorMessage());
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Import did not finish within " + IMPORT_TIMEOUT_MS + "ms");
+    }
+}
@@ -0,0 +1,450 @@
+package com.backend.pcx.loadtest;
+
+import com.backend.pcx.benchmark.SyntheticSpeedData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test: generates a synthetic city (default 10k roads x 7 days), boots the
+ * backend against an in-memory H2 database, imports the data over HTTP and then drives a
+ * weighted mix of REST calls from closed-loop clients while a separate importer appends a
+ * new day for a subset of the roads at a fixed interval. Reports throughput and
+ * p50/p99/p99.9 latency per operation plus the server's heap and GC behaviour, and
+ * optionally writes the same report as JSON.
+ *
+ * <pre>java -cp target/benchmarks.jar com.backend.pcx.loadtest.LoadTest --roads=10000 --clients=64 --duration=120</pre>
+ *
+ * Clients send their next request as soon as the previous one returns (plus --think-ms),
+ * so latencies are service times under the offered concurrency, not under a fixed rate.
+ */
+public final class LoadTest {
+
+    private static final String FILENAME = "speeddata_Aug.csv";
+    private static final long BASE_DATE = 1470000000000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long STEP_MS = 10 * 60 * 1000L;
+    private static final long HIGHEST_LATENCY_US = TimeUnit.MINUTES.toMicros(2);
+    private static final String DEFAULT_MIX = "speeds:35,predict:20,predict-historical:10,dashboard:20,segments:15";
+
+    private final Map<String, String> options;
+    private final int roads;
+    private final int days;
+    private final int clients;
+    private final long thinkMs;
+
+    private LoadTestServer server;
+    private List<Long> segmentIds;
+    private volatile Phase phase;
+    private volatile boolean stopped;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.roads = intOption("roads", 10000);
+        this.days = intOption("days", 7);
+        this.clients = intOption("clients", 64);
+        this.thinkMs = intOption("think-ms", 0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                System.err.println("Unexpected argument " + arg + ", options are --name=value");
+                System.exit(2);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        Path workDir = options.containsKey("work-dir")
+                ? Files.createDirectories(Paths.get(options.get("work-dir")))
+                : Files.createTempDirectory("traffic-load");
+        Path csv = workDir.resolve("source").resolve(FILENAME);
+        if (!Files.exists(csv) || options.containsKey("regenerate")) {
+            long start = System.currentTimeMillis();
+            long rows = SyntheticSpeedData.write(csv, roads, days, SyntheticSpeedData.DEFAULT_SEED);
+            System.out.printf("Generated %d rows (%d MB) in %dms%n", rows, Files.size(csv) >> 20,
+                    System.currentTimeMillis() - start);
+        }
+
+        List<String> jvmArgs = split(options.getOrDefault("server-jvm-args", "-Xmx2g"));
+        List<String> appArgs = split(options.getOrDefault("server-args", ""));
+        long start = System.currentTimeMillis();
+        try (LoadTestServer started = LoadTestServer.start(workDir, jvmArgs, appArgs)) {
+            server = started;
+            System.out.printf("Server up in %dms, log: %s%n", System.currentTimeMillis() - start, server.getLog());
+
+            start = System.currentTimeMillis();
+            server.awaitImport(server.upload(csv, FILENAME, false));
+            segmentIds = server.segmentIds();
+            System.out.printf("Imported %d segments in %dms%n", segmentIds.size(), System.currentTimeMillis() - start);
+
+            Map<String, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+            Phase measured = drive(mix, workDir);
+            Map<String, Object> report = measured.report();
+            print(report);
+            if (options.containsKey("report")) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(Paths.get(options.get("report")).toFile(), report);
+            }
+        }
+    }
+
+    private Phase drive(Map<String, Integer> mix, Path workDir) throws Exception {
+        List<String> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients + 2, r -> {
+            Thread thread = new Thread(r, "load-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        phase = new Phase();
+        for (int i = 0; i < clients; i++) {
+            pool.submit(() -> client(weighted));
+        }
+        long importIntervalMs = intOption("import-interval-ms", 10000);
+        if (importIntervalMs > 0) {
+            pool.submit(() -> importer(workDir, importIntervalMs));
+        }
+
+        int warmupSeconds = intOption("warmup", 15);
+        int durationSeconds = intOption("duration", 60);
+        System.out.printf("Warming up for %ds with %d clients%n", warmupSeconds, clients);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+
+        Phase measured = new Phase();
+        measured.begin();
+        phase = measured;
+        pool.submit(() -> sampleHeap(measured));
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(durationSeconds);
+        long lastCount = 0;
+        long lastMs = measured.startMs;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(10000, Math.max(1, end - System.currentTimeMillis())));
+            long now = System.currentTimeMillis();
+            long count = measured.total.getTotalCount();
+            System.out.printf("  %3ds  %8.0f req/s  p99 %.1fms  errors %d%n",
+                    (now - measured.startMs) / 1000, (count - lastCount) * 1000.0 / Math.max(1, now - lastMs),
+                    measured.total.getValueAtPercentile(99) / 1000.0, measured.errors.values().stream()
+                            .mapToLong(LongAdder::sum).sum());
+            lastCount = count;
+            lastMs = now;
+        }
+        measured.end();
+        stopped = true;
+        pool.shutdownNow();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+        return measured;
+    }
+
+    private void client(List<String> weighted) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!stopped) {
+            String operation = weighted.get(random.nextInt(weighted.size()));
+            long start = System.nanoTime();
+            String error;
+            try {
+                error = call(operation, random);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                error = e.toString();
+            }
+            phase.record(operation, System.nanoTime() - start, error);
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns null on success, else what went wrong.
+     */
+    private String call(String operation, ThreadLocalRandom random) throws IOException, InterruptedException {
+        long segmentId = segmentIds.get(random.nextInt(segmentIds.size()));
+        HttpRequest.Builder request;
+        switch (operation) {
+            case "speeds": {
+                long from = BASE_DATE + random.nextInt(days) * DAY_MS;
+                request = HttpRequest.newBuilder(server.uri("/api/speeds?segmentId=" + segmentId
+                        + "&from=" + from + "&to=" + (from + DAY_MS - STEP_MS))).GET();
+                break;
+            }
+            case "predict":
+                request = postJson("/api/predict", "{\"segmentId\":" + segmentId + ",\"horizonSteps\":12}");
+                break;
+            case "predict-historical": {
+                long baseTime = BASE_DATE + (1 + random.nextInt(days * 144 - 1)) * STEP_MS;
+                request = postJson("/api/predict", "{\"segmentId\":" + segmentId + ",\"horizonSteps\":12,\"baseTime\":"
+                        + baseTime + "}");
+                break;
+            }
+            case "dashboard":
+                request = HttpRequest.newBuilder(server.uri("/api/dashboard/summary")).GET();
+                break;
+            case "segments":
+                request = HttpRequest.newBuilder(server.uri("/api/segments?size=20&page="
+                        + random.nextInt(Math.max(1, segmentIds.size() / 20)))).GET();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+        return failure(server.send(request));
+    }
+
+    private HttpRequest.Builder postJson(String path, String body) {
+        return HttpRequest.newBuilder(server.uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    /**
+     * Controllers report failures as {"code":500,"message":...} with HTTP 200.
+     */
+    private static String failure(HttpResponse<byte[]> response) {
+        byte[] body = response.body();
+        String head = new String(body, 0, Math.min(body.length, 16), StandardCharsets.UTF_8);
+        if (response.statusCode() == 200 && head.startsWith("{\"code\":200")) {
+            return null;
+        }
+        return "HTTP " + response.statusCode() + ": "
+                + new String(body, 0, Math.min(body.length, 200), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends one more day for the first --import-roads roads per interval and records
+     * both the upload and the time until the import job completed.
+     */
+    private void importer(Path workDir, long intervalMs) {
+        int importRoads = Math.min(roads, intOption("import-roads", 500));
+        Path delta = workDir.resolve("delta").resolve(FILENAME);
+        int day = days + 1;
+        while (!stopped) {
+            long next = System.currentTimeMillis() + intervalMs;
+            try {
+                SyntheticSpeedData.write(delta, importRoads, day++, 1, SyntheticSpeedData.DEFAULT_SEED + day);
+                long start = System.nanoTime();
+                long jobId = server.upload(delta, FILENAME, true);
+                phase.record("import-upload", System.nanoTime() - start, null);
+                server.awaitImport(jobId);
+                phase.record("import-job", System.nanoTime() - start, null);
+                Thread.sleep(Math.max(0, next - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                phase.record("import-job", 0, e.toString());
+            }
+        }
+    }
+
+    private void sampleHeap(Phase measured) {
+        while (!stopped) {
+            try {
+                double used = server.metric("jvm.memory.used", "VALUE", "area:heap");
+                if (!Double.isNaN(used)) {
+                    measured.heapSamples.add((long) used);
+                }
+                double cpu = server.metric("process.cpu.usage", "VALUE");
+                if (cpu >= 0) {
+                    measured.cpuSamples.add(cpu);
+                }
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // a missed sample only thins the series
+            }
+        }
+    }
+
+    private void print(Map<String, Object> report) {
+        System.out.printf("%nLoad test: %d roads x %d days, %d clients, %ds measured%n",
+                roads, days, clients, intOption("duration", 60));
+        System.out.printf("%-20s %10s %8s %10s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Errors", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "Max ms");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> operations = (Map<String, Map<String, Object>>) report.get("operations");
+        operations.forEach((name, row) -> System.out.printf("%-20s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                name, row.get("count"), row.get("errors"), row.get("throughput"),
+                row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs")));
+        operations.forEach((name, row) -> {
+            if (row.containsKey("firstError")) {
+                System.out.printf("First %s error: %s%n", name, row.get("firstError"));
+            }
+        });
+        @SuppressWarnings("unchecked")
+        Map<String, Object> jvm = (Map<String, Object>) report.get("server");
+        System.out.printf("%nServer heap: max %s MB, avg %s MB of %s MB; GC: %s pauses, %s ms total, %s ms max; "
+                        + "allocated %s MB/s; CPU avg %s%%%n",
+                jvm.get("heapMaxUsedMb"), jvm.get("heapAvgUsedMb"), jvm.get("heapLimitMb"), jvm.get("gcPauses"),
+                jvm.get("gcPauseTotalMs"), jvm.get("gcPauseMaxMs"), jvm.get("allocatedMbPerSec"), jvm.get("cpuAvgPercent"));
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(parts[0].trim(), weight);
+            }
+        }
+        return mix;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Latencies and errors of one phase; the warm-up phase is simply discarded.
+     */
+    private final class Phase {
+        private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final Map<String, String> firstErrors = new ConcurrentHashMap<>();
+        private final Histogram total = new ConcurrentHistogram(HIGHEST_LATENCY_US, 3);
+        private final List<Long> heapSamples = new CopyOnWriteArrayList<>();
+        private final List<Double> cpuSamples = new CopyOnWriteArrayList<>();
+        private long startMs;
+        private long endMs;
+        private final Map<String, Double> gcStart = new LinkedHashMap<>();
+        private final Map<String, Double> gcEnd = new LinkedHashMap<>();
+
+        void record(String operation, long nanos, String error) {
+            if (error != null) {
+                errors.computeIfAbsent(operation, k -> new LongAdder()).increment();
+                firstErrors.putIfAbsent(operation, error);
+                return;
+            }
+            long micros = Math.min(HIGHEST_LATENCY_US, Math.max(1, nanos / 1000));
+            latencies.computeIfAbsent(operation, k -> new ConcurrentHistogram(HIGHEST_LATENCY_US, 3)).recordValue(micros);
+            if (!operation.startsWith("import")) {
+                total.recordValue(micros);
+            }
+        }
+
+        void begin() throws IOException, InterruptedException {
+            startMs = System.currentTimeMillis();
+            readGc(gcStart);
+        }
+
+        void end() throws IOException, InterruptedException {
+            endMs = System.currentTimeMillis();
+            readGc(gcEnd);
+        }
+
+        private void readGc(Map<String, Double> into) throws IOException, InterruptedException {
+            into.put("pauses", server.metric("jvm.gc.pause", "COUNT"));
+            into.put("pauseSeconds", server.metric("jvm.gc.pause", "TOTAL_TIME"));
+            into.put("pauseMaxSeconds", server.metric("jvm.gc.pause", "MAX"));
+            into.put("allocatedBytes", server.metric("jvm.gc.memory.allocated", "COUNT"));
+            into.put("heapMaxBytes", server.metric("jvm.memory.max", "VALUE", "area:heap"));
+        }
+
+        Map<String, Object> report() {
+            double seconds = Math.max(1, endMs - startMs) / 1000.0;
+            Map<String, Object> operations = new LinkedHashMap<>();
+            List<String> names = new ArrayList<>(latencies.keySet());
+            errors.keySet().stream().filter(name -> !names.contains(name)).forEach(names::add);
+            names.sort(null);
+            for (String name : names) {
+                Map<String, Object> row = row(latencies.get(name), errors.get(name), seconds);
+                if (firstErrors.containsKey(name)) {
+                    row.put("firstError", firstErrors.get(name));
+                }
+                operations.put(name, row);
+            }
+            LongAdder allErrors = new LongAdder();
+            errors.forEach((name, count) -> {
+                if (!name.startsWith("import")) {
+                    allErrors.add(count.sum());
+                }
+            });
+            operations.put("total", row(total, allErrors, seconds));
+
+            Map<String, Object> jvm = new LinkedHashMap<>();
+            long heapMax = heapSamples.stream().mapToLong(Long::longValue).max().orElse(0);
+            double heapAvg = heapSamples.stream().mapToLong(Long::longValue).average().orElse(0);
+            jvm.put("heapMaxUsedMb", round(heapMax / 1048576.0));
+            jvm.put("heapAvgUsedMb", round(heapAvg / 1048576.0));
+            jvm.put("heapLimitMb", round(gcEnd.get("heapMaxBytes") / 1048576.0));
+            jvm.put("gcPauses", Math.round(gcEnd.get("pauses") - gcStart.get("pauses")));
+            jvm.put("gcPauseTotalMs", round((gcEnd.get("pauseSeconds") - gcStart.get("pauseSeconds")) * 1000));
+            jvm.put("gcPauseMaxMs", round(gcEnd.get("pauseMaxSeconds") * 1000));
+            jvm.put("allocatedMbPerSec", round((gcEnd.get("allocatedBytes") - gcStart.get("allocatedBytes"))
+                    / 1048576.0 / seconds));
+            jvm.put("cpuAvgPercent", round(cpuSamples.stream().mapToDouble(Double::doubleValue).average().orElse(0) * 100));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("roads", roads);
+            report.put("days", days);
+            report.put("clients", clients);
+            report.put("durationSeconds", round(seconds));
+            report.put("operations", operations);
+            report.put("server", jvm);
+            return report;
+        }
+
+        private Map<String, Object> row(Histogram histogram, LongAdder errorCount, double seconds) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            long count = histogram == null ? 0 : histogram.getTotalCount();
+            row.put("count", count);
+            row.put("errors", errorCount == null ? 0L : errorCount.sum());
+            row.put("throughput", round(count / seconds));
+            row.put("p50Ms", histogram == null ? 0.0 : round(histogram.getValueAtPercentile(50) / 1000.0));
+            row.put("p99Ms", histogram == null ? 0.0 : round(histogram.getValueAtPercentile(99) / 1000.0));
+            row.put("p999Ms", histogram == null ? 0.0 : round(histogram.getValueAtPercentile(99.9) / 1000.0));
+            row.put("maxMs", histogram == null ? 0.0 : round(histogram.getMaxValue() / 1000.0));
+            return row;
+        }
+    }
+}
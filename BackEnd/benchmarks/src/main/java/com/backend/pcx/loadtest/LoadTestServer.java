@@ -0,0 +1,196 @@
+package com.backend.pcx.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The backend in its own JVM (same classpath as the harness) on a free port, with an
+ * in-memory H2 database and the data directory under the work directory. Running it out
+ * of process keeps the heap and GC figures, read from the actuator metrics endpoint,
+ * free of the load generator's own allocations.
+ */
+final class LoadTestServer implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long STARTUP_TIMEOUT_MS = 5 * 60 * 1000L;
+    private static final long IMPORT_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final Process process;
+    private final Path log;
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private LoadTestServer(Process process, Path log, int port) {
+        this.process = process;
+        this.log = log;
+        this.baseUrl = "http://localhost:" + port;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    static LoadTestServer start(Path workDir, List<String> jvmArgs, List<String> appArgs)
+            throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.backend.pcx.BackEndApplication");
+        command.add("--server.port=" + port);
+        command.add("--app.data-dir=" + workDir.resolve("data"));
+        command.add("--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        command.add("--spring.servlet.multipart.max-file-size=-1");
+        command.add("--spring.servlet.multipart.max-request-size=-1");
+        command.add("--management.endpoints.web.exposure.include=health,metrics");
+        command.addAll(appArgs);
+
+        Path log = workDir.resolve("server.log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        LoadTestServer server = new LoadTestServer(process, log, port);
+        try {
+            server.awaitReady();
+        } catch (Exception e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/actuator/health/readiness")).GET());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Server not ready within " + STARTUP_TIMEOUT_MS + "ms, see " + log);
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    JsonNode getJson(String path) throws IOException, InterruptedException {
+        return mapper.readTree(send(HttpRequest.newBuilder(uri(path)).GET()).body());
+    }
+
+    /**
+     * Posts the CSV as a multipart upload and returns the import job id.
+     */
+    long upload(Path csv, String filename, boolean append) throws IOException, InterruptedException {
+        String boundary = "----traffic-load-" + System.nanoTime();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/import/speed-csv?append=" + append))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(csv),
+                        HttpRequest.BodyPublishers.ofString(tail)));
+        JsonNode result = mapper.readTree(send(request).body());
+        if (result.path("code").asInt() != 200) {
+            throw new IllegalStateException("Upload failed: " + result.path("message").asText());
+        }
+        return result.path("data").asLong();
+    }
+
+    void awaitImport(long jobId) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + IMPORT_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            JsonNode job = getJson("/api/import/" + jobId).path("data");
+            String status = job.path("status").asText();
+            if ("COMPLETED".equals(status)) {
+                return;
+            }
+            if ("FAILED".equals(status)) {
+                throw new IllegalStateException("Import " + jobId + " failed: " + job.path("errorMessage").asText());
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Import " + jobId + " did not finish within " + IMPORT_TIMEOUT_MS + "ms");
+    }
+
+    List<Long> segmentIds() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            JsonNode data = getJson("/api/segments?size=1000&page=" + page).path("data");
+            for (JsonNode segment : data.path("content")) {
+                ids.add(segment.path("id").asLong());
+            }
+            if (data.path("last").asBoolean(true)) {
+                return ids;
+            }
+        }
+    }
+
+    /**
+     * One statistic of an actuator metric, e.g. ("jvm.gc.pause", "COUNT") or
+     * ("jvm.memory.used", "VALUE", "area:heap"); NaN when the metric is not present.
+     */
+    double metric(String name, String statistic, String... tags) throws IOException, InterruptedException {
+        StringBuilder path = new StringBuilder("/actuator/metrics/").append(name);
+        for (int i = 0; i < tags.length; i++) {
+            path.append(i == 0 ? '?' : '&').append("tag=").append(tags[i]);
+        }
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri(path.toString())).GET());
+        if (response.statusCode() != 200) {
+            return Double.NaN;
+        }
+        for (JsonNode measurement : mapper.readTree(response.body()).path("measurements")) {
+            if (statistic.equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    Path getLog() {
+        return log;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
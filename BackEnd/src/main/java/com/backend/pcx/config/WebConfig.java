@@ -1,19 +1,37 @@
 package com.backend.pcx.config;
 
+import com.backend.pcx.tracing.RequestTracingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    @Autowired
+    private RequestTracingInterceptor requestTracingInterceptor;
+    
+    @Value("${app.tracing.enabled:true}")
+    private boolean tracingEnabled;
+    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOriginPatterns("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("Server-Timing")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (tracingEnabled) {
+            registry.addInterceptor(requestTracingInterceptor).addPathPatterns("/api/**");
+        }
+    }
 }
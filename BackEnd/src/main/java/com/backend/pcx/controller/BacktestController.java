@@ -0,0 +1,63 @@
+package com.backend.pcx.controller;
+
+import com.backend.pcx.dto.BacktestMetricDTO;
+import com.backend.pcx.dto.BacktestRequest;
+import com.backend.pcx.dto.BacktestRunDTO;
+import com.backend.pcx.dto.Result;
+import com.backend.pcx.service.BacktestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/backtest")
+@Tag(name = "回测评估", description = "预测模型历史回测与精度评估接口")
+public class BacktestController {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @PostMapping
+    @Operation(summary = "发起回测", description = "按滚动起点在历史数据上评估指定预测模型，异步执行并返回回测任务")
+    public Result<BacktestRunDTO> submit(@RequestBody BacktestRequest request) {
+        try {
+            return Result.success("回测任务已创建", backtestService.submit(request));
+        } catch (IllegalArgumentException e) {
+            return Result.error("回测失败: " + e.getMessage());
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "查询回测任务列表", description = "可按预测模型筛选，用于对比不同模型的精度")
+    public Result<Page<BacktestRunDTO>> getRuns(
+            @RequestParam(required = false) String predictorType,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        try {
+            return Result.success(backtestService.getRuns(predictorType, page, size));
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{runId}")
+    @Operation(summary = "查询回测结果", description = "包含整体 MAE/RMSE/MAPE 以及按预测步、小时和区域的分解")
+    public Result<BacktestRunDTO> getRun(@PathVariable Long runId) {
+        BacktestRunDTO run = backtestService.getRun(runId);
+        if (run == null) {
+            return Result.error("回测任务不存在");
+        }
+        return Result.success(run);
+    }
+
+    @GetMapping("/{runId}/roads")
+    @Operation(summary = "查询回测的路段指标", description = "按 MAE 从高到低分页")
+    public Result<Page<BacktestMetricDTO>> getRoadMetrics(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return Result.success(backtestService.getRoadMetrics(runId, page, size));
+    }
+}
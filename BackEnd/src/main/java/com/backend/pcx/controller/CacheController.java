@@ -0,0 +1,49 @@
+package com.backend.pcx.controller;
+
+import com.backend.pcx.dto.CacheStatsDTO;
+import com.backend.pcx.dto.Result;
+import com.backend.pcx.dto.WarmupStatusDTO;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.service.CacheWarmupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "缓存管理", description = "路段速度序列缓存接口")
+public class CacheController {
+    
+    @Autowired
+    private FileBasedSpeedRepository fileBasedSpeedRepository;
+    
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @GetMapping("/stats")
+    @Operation(summary = "查询缓存统计信息")
+    public Result<CacheStatsDTO> getStats() {
+        return Result.success(fileBasedSpeedRepository.getCacheStats());
+    }
+    
+    @DeleteMapping
+    @Operation(summary = "清空缓存")
+    public Result<Void> clear() {
+        fileBasedSpeedRepository.clearCache();
+        return Result.success("缓存已清空", null);
+    }
+    
+    @GetMapping("/warmup")
+    @Operation(summary = "查询缓存预热进度")
+    public Result<WarmupStatusDTO> getWarmupStatus() {
+        return Result.success(cacheWarmupService.getStatus());
+    }
+    
+    @PostMapping("/warmup")
+    @Operation(summary = "触发缓存预热")
+    public Result<WarmupStatusDTO> warmUp() {
+        cacheWarmupService.warmUpNow();
+        return Result.success("预热任务已提交", cacheWarmupService.getStatus());
+    }
+}
@@ -3,10 +3,16 @@ package com.backend.pcx.controller;
 import com.backend.pcx.dto.DashboardSummary;
 import com.backend.pcx.dto.Result;
 import com.backend.pcx.service.DashboardService;
+import com.backend.pcx.service.DashboardStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -16,10 +22,23 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
     @GetMapping("/summary")
-    @Operation(summary = "获取仪表盘汇总数据")
-    public Result<DashboardSummary> getSummary() {
-        DashboardSummary summary = dashboardService.getSummary();
-        return Result.success(summary);
+    @Operation(summary = "获取仪表盘汇总数据", description = "响应带 ETag，数据未变化时对 If-None-Match 返回 304")
+    public Result<DashboardSummary> getSummary(WebRequest request, HttpServletResponse response) {
+        DashboardService.Snapshot snapshot = dashboardService.getSnapshot();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return Result.success(snapshot.getSummary());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅仪表盘变化", description = "SSE：连接后先推送 snapshot 全量数据，之后在统计变化时推送 delta 增量")
+    public SseEmitter stream() {
+        return dashboardStreamService.subscribe();
     }
 }
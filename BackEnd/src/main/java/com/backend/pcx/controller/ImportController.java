@@ -2,10 +2,14 @@ package com.backend.pcx.controller;
 
 import com.backend.pcx.dto.ImportJobDTO;
 import com.backend.pcx.dto.Result;
+import com.backend.pcx.dto.UploadInitRequest;
+import com.backend.pcx.dto.UploadSessionDTO;
 import com.backend.pcx.repository.FileBasedSpeedRepository;
 import com.backend.pcx.service.ImportService;
+import com.backend.pcx.service.UploadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -19,12 +23,16 @@ public class ImportController {
     
     @Autowired
     private ImportService importService;
+    
+    @Autowired
+    private UploadService uploadService;
 
     @PostMapping("/speed-csv")
-    @Operation(summary = "上传CSV文件导入速度数据")
-    public Result<Long> importSpeedCsv(@RequestParam("file") MultipartFile file) {
+    @Operation(summary = "上传CSV文件导入速度数据（append=true 时仅追加新数据）")
+    public Result<Long> importSpeedCsv(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(defaultValue = "false") boolean append) {
         try {
-            Long jobId = importService.importSpeedCsv(file);
+            Long jobId = importService.importSpeedCsv(file, append);
             if (jobId == null) {
                 return Result.error("导入失败");
             }
@@ -35,10 +43,11 @@ public class ImportController {
     }
     
     @PostMapping("/speed-csv-batch")
-    @Operation(summary = "批量上传CSV文件导入速度数据")
-    public Result<List<Long>> importSpeedCsvBatch(@RequestParam("files") MultipartFile[] files) {
+    @Operation(summary = "批量上传CSV文件导入速度数据（append=true 时仅追加新数据）")
+    public Result<List<Long>> importSpeedCsvBatch(@RequestParam("files") MultipartFile[] files,
+                                                  @RequestParam(defaultValue = "false") boolean append) {
         try {
-            List<Long> jobIds = importService.importSpeedCsv(files);
+            List<Long> jobIds = importService.importSpeedCsv(files, append);
             if (jobIds.isEmpty()) {
                 return Result.error("导入失败");
             }
@@ -48,6 +57,43 @@ public class ImportController {
         }
     }
 
+    @PostMapping("/uploads")
+    @Operation(summary = "创建分片上传会话（支持 gzip/zstd 压缩文件）")
+    public Result<UploadSessionDTO> createUpload(@RequestBody UploadInitRequest request) {
+        try {
+            return Result.success(uploadService.createSession(request));
+        } catch (Exception e) {
+            return Result.error("创建上传会话失败: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/uploads/{uploadId}")
+    @Operation(summary = "查询分片上传进度（断点续传时从 receivedBytes 继续）")
+    public Result<UploadSessionDTO> getUpload(@PathVariable String uploadId) {
+        UploadSessionDTO session = uploadService.getSession(uploadId);
+        if (session == null) {
+            return Result.error("上传会话不存在");
+        }
+        return Result.success(session);
+    }
+    
+    @PutMapping(value = "/uploads/{uploadId}", consumes = "application/octet-stream")
+    @Operation(summary = "上传文件分片，最后一个分片到达后自动校验并开始导入")
+    public Result<UploadSessionDTO> uploadChunk(@PathVariable String uploadId,
+                                                @RequestParam long offset,
+                                                @RequestHeader(value = "X-Chunk-SHA256", required = false) String chunkSha256,
+                                                HttpServletRequest request) {
+        try {
+            UploadSessionDTO session = uploadService.writeChunk(uploadId, offset, request.getInputStream(), chunkSha256);
+            if (session == null) {
+                return Result.error("上传会话不存在");
+            }
+            return Result.success(session);
+        } catch (Exception e) {
+            return Result.error("分片上传失败: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{jobId}")
     @Operation(summary = "查询导入任务状态")
     public Result<ImportJobDTO> getImportJob(@PathVariable Long jobId) {
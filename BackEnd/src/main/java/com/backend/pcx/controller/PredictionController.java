@@ -1,15 +1,31 @@
 package com.backend.pcx.controller;
 
+import com.backend.pcx.dto.BatchPredictRequest;
+import com.backend.pcx.dto.CursorPage;
+import com.backend.pcx.dto.ForecastTableStatusDTO;
 import com.backend.pcx.dto.PredictRequest;
+import com.backend.pcx.dto.PredictionBatchDTO;
 import com.backend.pcx.dto.PredictionJobDTO;
+import com.backend.pcx.dto.PredictorInfoDTO;
 import com.backend.pcx.dto.Result;
+import com.backend.pcx.predictor.OnlinePredictor;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.service.BatchPredictionService;
+import com.backend.pcx.service.ForecastTableService;
+import com.backend.pcx.service.PredictionExportService;
 import com.backend.pcx.service.PredictionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/predict")
 @Tag(name = "预测服务", description = "交通流量预测接口")
@@ -18,10 +34,26 @@ public class PredictionController {
     @Autowired
     private PredictionService predictionService;
 
+    @Autowired
+    private BatchPredictionService batchPredictionService;
+
+    @Autowired
+    private ForecastTableService forecastTableService;
+
+    @Autowired
+    private PredictionExportService predictionExportService;
+
+    @Autowired
+    private PredictorRegistry predictorRegistry;
+
     @PostMapping
-    @Operation(summary = "执行预测")
+    @Operation(summary = "执行预测", description = "预计算表未过期且请求可由其满足时直接返回预计算结果，此时不生成预测任务记录（返回的 id 为空）；否则按需计算并落库")
     public Result<PredictionJobDTO> predict(@RequestBody PredictRequest request) {
         try {
+            PredictionJobDTO precomputed = forecastTableService.lookup(request);
+            if (precomputed != null) {
+                return Result.success("预测完成", precomputed);
+            }
             PredictionJobDTO result = predictionService.predict(request);
             return Result.success("预测完成", result);
         } catch (Exception e) {
@@ -29,15 +61,105 @@ public class PredictionController {
         }
     }
 
+    @GetMapping("/predictors")
+    @Operation(summary = "查询可用预测模型", description = "predictorType 可在预测请求中指定，未指定时使用默认模型")
+    public Result<List<PredictorInfoDTO>> getPredictors() {
+        String defaultType = predictorRegistry.getDefault().getPredictorType();
+        List<PredictorInfoDTO> predictors = predictorRegistry.getAll().stream()
+                .map(predictor -> new PredictorInfoDTO(
+                        predictor.getPredictorType(),
+                        predictor.getHistorySteps(),
+                        predictor.getPredictorType().equals(defaultType),
+                        predictor instanceof OnlinePredictor,
+                        predictorRegistry.getFittedCount(predictor.getPredictorType())))
+                .collect(Collectors.toList());
+        return Result.success(predictors);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "批量预测", description = "按全部路段(all)、区域(region)或路段ID列表(segmentIds)异步批量预测，返回批次信息")
+    public Result<PredictionBatchDTO> predictBatch(@RequestBody BatchPredictRequest request) {
+        try {
+            PredictionBatchDTO batch = batchPredictionService.submit(request);
+            return Result.success("批量预测任务已创建", batch);
+        } catch (IllegalArgumentException e) {
+            return Result.error("批量预测失败: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/batch/{batchId}")
+    @Operation(summary = "查询批量预测进度")
+    public Result<PredictionBatchDTO> getBatch(@PathVariable Long batchId) {
+        PredictionBatchDTO batch = batchPredictionService.getBatch(batchId);
+        if (batch == null) {
+            return Result.error("批次不存在");
+        }
+        return Result.success(batch);
+    }
+
+    @GetMapping("/batch/{batchId}/jobs")
+    @Operation(summary = "查询批量预测结果", description = "compact=true 时不返回预测点")
+    public Result<Page<PredictionJobDTO>> getBatchJobs(
+            @PathVariable Long batchId,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean compact) {
+        Page<PredictionJobDTO> jobs = predictionService.getPredictionJobsByBatch(batchId, page, size, compact);
+        return Result.success(jobs);
+    }
+
+    @GetMapping("/forecasts/status")
+    @Operation(summary = "查询预计算预测表状态", description = "包含生成时间、耗时、覆盖路段数及是否过期")
+    public Result<ForecastTableStatusDTO> getForecastStatus() {
+        return Result.success(forecastTableService.getStatus());
+    }
+
     @GetMapping("/jobs")
-    @Operation(summary = "查询预测任务列表")
+    @Operation(summary = "查询预测任务列表", description = "compact=true 时不返回预测点，详情通过 /jobs/{jobId} 获取")
     public Result<Page<PredictionJobDTO>> getPredictionJobs(
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size) {
-        Page<PredictionJobDTO> jobs = predictionService.getPredictionJobs(page, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean compact) {
+        Page<PredictionJobDTO> jobs = predictionService.getPredictionJobs(page, size, compact);
         return Result.success(jobs);
     }
 
+    @GetMapping("/jobs/scroll")
+    @Operation(summary = "游标分页查询预测任务", description = "按 (createdAt, id) 倒序的键集分页，不统计总数；将返回的 nextCursor 作为 cursor 获取下一页，为空表示已到末页")
+    public Result<CursorPage<PredictionJobDTO>> scrollPredictionJobs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long segmentId,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean compact) {
+        try {
+            return Result.success(predictionService.scrollPredictionJobs(cursor, segmentId, size, compact));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/export")
+    @Operation(summary = "导出预测任务", description = "流式导出，format=ndjson（每行一个任务及其预测点）或 csv（每行一个预测点）；可按路段与创建时间 [from, to) 过滤")
+    public void exportPredictionJobs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long segmentId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            HttpServletResponse response) throws IOException {
+        PredictionExportService.Format exportFormat;
+        try {
+            exportFormat = PredictionExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        boolean csv = exportFormat == PredictionExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"prediction-jobs." + (csv ? "csv" : "ndjson") + "\"");
+        predictionExportService.export(exportFormat, segmentId, from, to, response.getOutputStream());
+    }
+
     @GetMapping("/jobs/{jobId}")
     @Operation(summary = "查询预测任务详情")
     public Result<PredictionJobDTO> getPredictionJob(@PathVariable Long jobId) {
@@ -49,12 +171,13 @@ public class PredictionController {
     }
 
     @GetMapping("/jobs/segment/{segmentId}")
-    @Operation(summary = "查询路段的预测任务")
+    @Operation(summary = "查询路段的预测任务", description = "compact=true 时不返回预测点")
     public Result<Page<PredictionJobDTO>> getPredictionJobsBySegment(
             @PathVariable Long segmentId,
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size) {
-        Page<PredictionJobDTO> jobs = predictionService.getPredictionJobsBySegment(segmentId, page, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean compact) {
+        Page<PredictionJobDTO> jobs = predictionService.getPredictionJobsBySegment(segmentId, page, size, compact);
         return Result.success(jobs);
     }
 }
@@ -0,0 +1,44 @@
+package com.backend.pcx.controller;
+
+import com.backend.pcx.dto.PredictionAccuracyDTO;
+import com.backend.pcx.dto.Result;
+import com.backend.pcx.dto.RetentionStatusDTO;
+import com.backend.pcx.service.PredictionRetentionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/retention")
+@Tag(name = "数据保留", description = "预测历史保留、归档与按天精度汇总接口")
+public class RetentionController {
+
+    @Autowired
+    private PredictionRetentionService predictionRetentionService;
+
+    @GetMapping("/status")
+    @Operation(summary = "查询保留策略及上次清理结果")
+    public Result<RetentionStatusDTO> getStatus() {
+        return Result.success(predictionRetentionService.getStatus());
+    }
+
+    @PostMapping("/run")
+    @Operation(summary = "立即执行一次清理", description = "异步执行，清理超过保留天数的预测任务（可先归档），通过 /status 查看结果")
+    public Result<RetentionStatusDTO> run() {
+        predictionRetentionService.runNow();
+        return Result.success("清理任务已提交", predictionRetentionService.getStatus());
+    }
+
+    @GetMapping("/accuracy")
+    @Operation(summary = "查询已清理预测的按天精度", description = "按基准时间所在日期与预测模型汇总 MAE / RMSE / MAPE")
+    public Result<List<PredictionAccuracyDTO>> getDailyAccuracy(
+            @Parameter(description = "预测模型") @RequestParam(required = false) String predictorType,
+            @Parameter(description = "起始日期（毫秒时间戳）") @RequestParam(required = false) Long from,
+            @Parameter(description = "结束日期（毫秒时间戳）") @RequestParam(required = false) Long to) {
+        return Result.success(predictionRetentionService.getDailyAccuracy(predictorType, from, to));
+    }
+}
@@ -1,5 +1,6 @@
 package com.backend.pcx.controller;
 
+import com.backend.pcx.dto.CursorPage;
 import com.backend.pcx.dto.RoadSegmentDTO;
 import com.backend.pcx.dto.Result;
 import com.backend.pcx.service.RoadSegmentService;
@@ -31,6 +32,20 @@ public class RoadSegmentController {
         return Result.success(segments);
     }
     
+    @GetMapping("/scroll")
+    @Operation(summary = "游标分页查询路段", description = "按 roadId 升序的键集分页，不统计总数；将返回的 nextCursor 作为 cursor 获取下一页")
+    public Result<CursorPage<RoadSegmentDTO>> scrollSegments(
+            @Parameter(description = "关键字") @RequestParam(required = false) String keyword,
+            @Parameter(description = "区域") @RequestParam(required = false) String region,
+            @Parameter(description = "上一页返回的 nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小（1-500）") @RequestParam(defaultValue = "10") Integer size) {
+        try {
+            return Result.success(roadSegmentService.scrollSegments(keyword, region, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+    
     @GetMapping("/from-sources")
     @Operation(summary = "从数据源获取路段列表")
     public Result<List<RoadSegmentDTO>> getSegmentsFromSources() {
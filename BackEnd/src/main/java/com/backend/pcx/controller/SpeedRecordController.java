@@ -1,7 +1,11 @@
 package com.backend.pcx.controller;
 
 import com.backend.pcx.dto.Result;
+import com.backend.pcx.dto.RollupSeriesDTO;
+import com.backend.pcx.dto.SpeedProfileDTO;
 import com.backend.pcx.dto.SpeedRecordDTO;
+import com.backend.pcx.entity.SpeedRollup;
+import com.backend.pcx.service.RollupService;
 import com.backend.pcx.service.SpeedRecordService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +22,9 @@ public class SpeedRecordController {
     
     @Autowired
     private SpeedRecordService speedRecordService;
+    
+    @Autowired
+    private RollupService rollupService;
 
     @GetMapping
     @Operation(summary = "查询速度记录")
@@ -28,4 +35,30 @@ public class SpeedRecordController {
         List<SpeedRecordDTO> records = speedRecordService.getSpeedRecords(segmentId, from, to);
         return Result.success(records);
     }
+    
+    @GetMapping("/rollup")
+    @Operation(summary = "按合适粒度查询速度趋势（原始10分钟 / 小时 / 天聚合）")
+    public Result<RollupSeriesDTO> getRollupSeries(
+            @Parameter(description = "路段ID") @RequestParam Long segmentId,
+            @Parameter(description = "开始时间戳") @RequestParam(required = false) Long from,
+            @Parameter(description = "结束时间戳，默认最新数据时间") @RequestParam(required = false) Long to,
+            @Parameter(description = "未指定开始时间时，向前回溯的毫秒数") @RequestParam(required = false) Long span,
+            @Parameter(description = "粒度 RAW/HOUR/DAY，不传则自动选择") @RequestParam(required = false) SpeedRollup.Resolution resolution,
+            @Parameter(description = "自动选择粒度时的最大点数") @RequestParam(required = false) Integer maxPoints) {
+        RollupSeriesDTO series = rollupService.getRollupSeries(segmentId, from, to, span, resolution, maxPoints);
+        if (series == null) {
+            return Result.error("路段不存在");
+        }
+        return Result.success(series);
+    }
+    
+    @GetMapping("/profile")
+    @Operation(summary = "查询路段周内 7×144 时段平均速度画像")
+    public Result<SpeedProfileDTO> getProfile(@Parameter(description = "路段ID") @RequestParam Long segmentId) {
+        SpeedProfileDTO profile = rollupService.getProfile(segmentId);
+        if (profile == null) {
+            return Result.error("路段不存在");
+        }
+        return Result.success(profile);
+    }
 }
@@ -0,0 +1,16 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestMetricDTO {
+    private String key;
+    private Long evaluations;
+    private Double mae;
+    private Double rmse;
+    private Double mape;
+}
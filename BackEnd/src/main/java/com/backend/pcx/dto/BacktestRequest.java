@@ -0,0 +1,17 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestRequest {
+    private String predictorType;
+    private Integer horizonSteps;
+    private Integer originStride;
+    private Long fromTs;
+    private Long toTs;
+    private String region;
+}
@@ -0,0 +1,36 @@
+package com.backend.pcx.dto;
+
+import com.backend.pcx.entity.BacktestRun.RunStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BacktestRunDTO {
+    private Long id;
+    private String predictorType;
+    private RunStatus status;
+    private Integer horizonSteps;
+    private Integer originStride;
+    private Long fromTs;
+    private Long toTs;
+    private String region;
+    private Integer roadCount;
+    private Long evaluations;
+    private Double mae;
+    private Double rmse;
+    private Double mape;
+    private Long durationMs;
+    private String errorMessage;
+    private Long createdAt;
+    private Long finishedAt;
+    private List<BacktestMetricDTO> stepMetrics;
+    private List<BacktestMetricDTO> hourMetrics;
+    private List<BacktestMetricDTO> regionMetrics;
+}
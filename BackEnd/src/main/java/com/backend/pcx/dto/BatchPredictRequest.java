@@ -0,0 +1,19 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPredictRequest {
+    private Boolean all;
+    private String region;
+    private List<Long> segmentIds;
+    private Long baseTime;
+    private Integer horizonSteps;
+    private String predictorType;
+}
@@ -0,0 +1,23 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private Long cachedRoads;
+    private Long cachedBytes;
+    private Long maxBytes;
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    private Long loadSuccessCount;
+    private Long loadFailureCount;
+    private Long totalLoadTimeMs;
+    private Double averageLoadMs;
+    private Long evictionCount;
+    private Long evictionBytes;
+}
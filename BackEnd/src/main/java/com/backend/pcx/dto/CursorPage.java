@@ -0,0 +1,23 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A keyset page: nextCursor is passed back as the cursor parameter to get the following
+ * page and is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /** Largest page a scroll request may ask for. */
+    public static final int MAX_SIZE = 500;
+
+    private List<T> content;
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.backend.pcx.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes between two dashboard snapshots; fields that did not change are omitted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDelta {
+    private Long version;
+    private Double todayAvgSpeed;
+    private Integer congestedSegments;
+    private CongestedSegment mostCongestedSegment;
+    private List<RegionCongestion> regionCongestions;
+    private List<CongestedSegment> topCongestedSegments;
+    private CongestionLevelDistribution congestionLevelDistribution;
+    private List<CongestionTransition> transitions;
+}
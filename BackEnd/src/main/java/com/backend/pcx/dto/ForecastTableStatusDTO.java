@@ -0,0 +1,21 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastTableStatusDTO {
+    private Boolean enabled;
+    private Integer horizonSteps;
+    private String predictorType;
+    private Long cadenceMs;
+    private Long generatedAt;
+    private Long ageMs;
+    private Boolean stale;
+    private Long durationMs;
+    private Integer segmentCount;
+    private Integer failedCount;
+}
@@ -18,4 +18,5 @@ public class ImportJobDTO {
     private String errorMessage;
     private Long createdAt;
     private Long finishedAt;
+    private Integer progress;
 }
@@ -11,4 +11,5 @@ public class PredictRequest {
     private Long segmentId;
     private Long baseTime;
     private Integer horizonSteps;
+    private String predictorType;
 }
@@ -0,0 +1,19 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionAccuracyDTO {
+    private Long dayTs;
+    private String predictorType;
+    private Long jobCount;
+    private Long pointCount;
+    private Long evaluatedCount;
+    private Double mae;
+    private Double rmse;
+    private Double mape;
+}
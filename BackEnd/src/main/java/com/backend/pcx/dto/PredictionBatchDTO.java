@@ -0,0 +1,25 @@
+package com.backend.pcx.dto;
+
+import com.backend.pcx.entity.PredictionBatch.BatchStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionBatchDTO {
+    private Long id;
+    private String scope;
+    private BatchStatus status;
+    private Long baseTime;
+    private Integer horizonSteps;
+    private String predictorType;
+    private Integer totalSegments;
+    private Integer successCount;
+    private Integer failCount;
+    private Integer progress;
+    private String errorMessage;
+    private Long createdAt;
+    private Long finishedAt;
+}
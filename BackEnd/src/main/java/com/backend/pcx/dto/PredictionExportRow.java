@@ -0,0 +1,25 @@
+package com.backend.pcx.dto;
+
+import com.backend.pcx.entity.CongestionLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionExportRow {
+    private Long jobId;
+    private Long segmentId;
+    private Integer roadId;
+    private String segmentName;
+    private Long baseTime;
+    private Integer horizonSteps;
+    private String predictorType;
+    private Long costMs;
+    private Long createdAt;
+    private Long pointId;
+    private Long ts;
+    private Double predictedSpeed;
+    private CongestionLevel congestionLevel;
+}
@@ -1,5 +1,6 @@
 package com.backend.pcx.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,5 +19,6 @@ public class PredictionJobDTO {
     private String predictorType;
     private Long costMs;
     private Long createdAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<PredictionPointDTO> points;
 }
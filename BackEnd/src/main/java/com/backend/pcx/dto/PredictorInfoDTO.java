@@ -0,0 +1,16 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictorInfoDTO {
+    private String type;
+    private Integer historySteps;
+    private Boolean defaultPredictor;
+    private Boolean online;
+    private Integer fittedRoads;
+}
@@ -0,0 +1,25 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionStatusDTO {
+    private Boolean enabled;
+    private Integer detailDays;
+    private Boolean archive;
+    private Long intervalMs;
+    private Boolean running;
+    private String lastTrigger;
+    private Long lastRunAt;
+    private Long lastDurationMs;
+    private Long lastCutoff;
+    private Long purgedJobs;
+    private Long purgedPoints;
+    private Long purgedBatches;
+    private String archiveFile;
+    private String lastError;
+}
@@ -0,0 +1,19 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupPointDTO {
+    private Long ts;
+    private Double minSpeed;
+    private Double avgSpeed;
+    private Double maxSpeed;
+    private Double p10Speed;
+    private Double p50Speed;
+    private Double p90Speed;
+    private Integer pointCount;
+}
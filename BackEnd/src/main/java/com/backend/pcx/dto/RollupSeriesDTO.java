@@ -0,0 +1,20 @@
+package com.backend.pcx.dto;
+
+import com.backend.pcx.entity.SpeedRollup.Resolution;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupSeriesDTO {
+    private Long segmentId;
+    private Integer roadId;
+    private Resolution resolution;
+    private Long from;
+    private Long to;
+    private List<RollupPointDTO> points;
+}
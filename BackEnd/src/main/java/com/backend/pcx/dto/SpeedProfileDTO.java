@@ -0,0 +1,17 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpeedProfileDTO {
+    private Long segmentId;
+    private Integer roadId;
+    private String zone;
+    private Integer slotMinutes;
+    private Double[][] avgSpeeds;
+    private Integer[][] pointCounts;
+}
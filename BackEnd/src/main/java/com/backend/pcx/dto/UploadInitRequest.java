@@ -0,0 +1,15 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadInitRequest {
+    private String filename;
+    private Long totalSize;
+    private String sha256;
+    private Boolean append;
+}
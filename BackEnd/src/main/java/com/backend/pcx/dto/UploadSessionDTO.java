@@ -0,0 +1,19 @@
+package com.backend.pcx.dto;
+
+import com.backend.pcx.entity.UploadSession.UploadStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDTO {
+    private String uploadId;
+    private String filename;
+    private Long totalSize;
+    private Long receivedBytes;
+    private UploadStatus status;
+    private Long jobId;
+    private String errorMessage;
+}
@@ -0,0 +1,26 @@
+package com.backend.pcx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupStatusDTO {
+    private WarmupState state;
+    private String trigger;
+    private Integer totalRoads;
+    private Integer loadedRoads;
+    private Integer failedRoads;
+    private Long startedAt;
+    private Long finishedAt;
+    
+    public enum WarmupState {
+        DISABLED,
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "backtest_metric", indexes = {
+    @Index(name = "idx_backtest_metric_run", columnList = "run_id, dimension")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestMetric {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Dimension dimension;
+
+    /** Road id, region name, horizon step (1-based) or hour of day, depending on the dimension. */
+    @Column(name = "metric_key", nullable = false)
+    private String key;
+
+    @Column(nullable = false)
+    private Long evaluations;
+
+    @Column
+    private Double mae;
+
+    @Column
+    private Double rmse;
+
+    @Column
+    private Double mape;
+
+    public enum Dimension {
+        ROAD,
+        REGION,
+        STEP,
+        HOUR
+    }
+}
@@ -0,0 +1,77 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "backtest_run", indexes = {
+    @Index(name = "idx_backtest_run_predictor", columnList = "predictor_type")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String predictorType;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RunStatus status;
+
+    @Column(nullable = false)
+    private Integer horizonSteps;
+
+    /** Distance in 10-minute slots between consecutive forecast origins. */
+    @Column(nullable = false)
+    private Integer originStride;
+
+    @Column
+    private Long fromTs;
+
+    @Column
+    private Long toTs;
+
+    @Column
+    private String region;
+
+    @Column
+    private Integer roadCount;
+
+    /** Number of (road, origin, step) pairs with an observed actual. */
+    @Column
+    private Long evaluations;
+
+    @Column
+    private Double mae;
+
+    @Column
+    private Double rmse;
+
+    @Column
+    private Double mape;
+
+    @Column
+    private Long durationMs;
+
+    @Column
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private Long createdAt;
+
+    @Column
+    private Long finishedAt;
+
+    public enum RunStatus {
+        PENDING,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -39,6 +39,9 @@ public class ImportJob {
 
     @Column
     private Long finishedAt;
+    
+    @Column
+    private Integer progress;
 
     public enum ImportStatus {
         PENDING,
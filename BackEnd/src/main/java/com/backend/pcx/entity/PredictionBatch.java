@@ -0,0 +1,61 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "prediction_batch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String scope;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private BatchStatus status;
+
+    @Column
+    private Long baseTime;
+
+    @Column(nullable = false)
+    private Integer horizonSteps;
+
+    @Column
+    private String predictorType;
+
+    @Column
+    private Integer totalSegments;
+
+    @Column
+    private Integer successCount;
+
+    @Column
+    private Integer failCount;
+
+    @Column
+    private Integer progress;
+
+    @Column
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private Long createdAt;
+
+    @Column
+    private Long finishedAt;
+
+    public enum BatchStatus {
+        PENDING,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Accuracy of the purged prediction jobs of one day (by base time, in app.rollup.zone)
+ * and predictor. Errors are summed over the points that have an observed speed at their
+ * ts; written by the retention job only.
+ */
+@Entity
+@Table(name = "prediction_daily_accuracy", uniqueConstraints = @UniqueConstraint(
+        name = "uk_accuracy_day_predictor", columnNames = {"day_ts", "predictor_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionDailyAccuracy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long dayTs;
+
+    @Column(nullable = false)
+    private String predictorType;
+
+    @Column(nullable = false)
+    private Long jobCount;
+
+    @Column(nullable = false)
+    private Long pointCount;
+
+    @Column(nullable = false)
+    private Long evaluatedCount;
+
+    @Column(nullable = false)
+    private Double absErrorSum;
+
+    @Column(nullable = false)
+    private Double squaredErrorSum;
+
+    @Column(nullable = false)
+    private Double pctErrorSum;
+
+    @Column(nullable = false)
+    private Long updatedAt;
+}
@@ -6,7 +6,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "prediction_job")
+@Table(name = "prediction_job", indexes = {
+        @Index(name = "idx_prediction_job_lookup", columnList = "segment_id, base_time, horizon_steps"),
+        @Index(name = "idx_prediction_job_segment_created", columnList = "segment_id, created_at"),
+        @Index(name = "idx_prediction_job_batch", columnList = "batch_id"),
+        @Index(name = "idx_prediction_job_created", columnList = "created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,4 +38,7 @@ public class PredictionJob {
 
     @Column(nullable = false)
     private Long createdAt;
+
+    @Column
+    private Long batchId;
 }
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "prediction_point")
+@Table(name = "prediction_point", indexes = {
+        @Index(name = "idx_prediction_point_job_ts", columnList = "job_id, ts")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,38 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "road_file_aggregate", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_file_road", columnNames = {"filename", "road_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoadFileAggregate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    @Column(nullable = false)
+    private Integer roadId;
+    
+    @Column(nullable = false)
+    private Double speedSum;
+    
+    @Column(nullable = false)
+    private Long pointCount;
+    
+    @Column
+    private Long minTs;
+    
+    @Column
+    private Long maxTs;
+}
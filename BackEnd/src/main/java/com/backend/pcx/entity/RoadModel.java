@@ -0,0 +1,41 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "road_model", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_model_road_type", columnNames = {"road_id", "predictor_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoadModel {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Integer roadId;
+    
+    @Column(nullable = false)
+    private String predictorType;
+    
+    /** Fitted parameters as doubles; the layout belongs to the predictor. */
+    @Column(nullable = false, length = 16384)
+    private byte[] params;
+    
+    /** ts of the last point folded into the parameters. */
+    @Column(nullable = false)
+    private Long trainedThrough;
+    
+    /** Number of points folded in, i.e. the road's points with ts <= trainedThrough. */
+    @Column(nullable = false)
+    private Integer sampleCount;
+    
+    @Column(nullable = false)
+    private Long updatedAt;
+}
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "road_segment")
+@Table(name = "road_segment", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_segment_road", columnNames = {"road_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,7 +17,7 @@ public class RoadSegment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private Integer roadId;
 
     @Column
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "segment_statistics")
+@Table(name = "segment_statistics", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_statistics_road", columnNames = {"road_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,7 +17,7 @@ public class SegmentStatistics {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private Integer roadId;
 
     @Column
@@ -0,0 +1,38 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "speed_profile", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_profile_road", columnNames = {"road_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpeedProfile {
+    
+    public static final int WEEKDAYS = 7;
+    public static final int SLOTS_PER_DAY = 144;
+    public static final int SLOTS = WEEKDAYS * SLOTS_PER_DAY;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Integer roadId;
+    
+    /** SLOTS doubles (weekday-major, NaN where the slot has no data). */
+    @Column(nullable = false, length = SLOTS * 8)
+    private byte[] avgSpeeds;
+    
+    /** SLOTS ints, aligned with avgSpeeds. */
+    @Column(nullable = false, length = SLOTS * 4)
+    private byte[] pointCounts;
+    
+    @Column(nullable = false)
+    private Long updatedAt;
+}
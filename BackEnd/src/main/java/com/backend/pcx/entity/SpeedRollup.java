@@ -0,0 +1,57 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "speed_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_bucket", columnNames = {"road_id", "resolution", "bucket_ts"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpeedRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Integer roadId;
+    
+    @Column(nullable = false, length = 8)
+    @Enumerated(EnumType.STRING)
+    private Resolution resolution;
+    
+    @Column(nullable = false)
+    private Long bucketTs;
+    
+    @Column(nullable = false)
+    private Double minSpeed;
+    
+    @Column(nullable = false)
+    private Double avgSpeed;
+    
+    @Column(nullable = false)
+    private Double maxSpeed;
+    
+    @Column(name = "p10_speed", nullable = false)
+    private Double p10Speed;
+    
+    @Column(name = "p50_speed", nullable = false)
+    private Double p50Speed;
+    
+    @Column(name = "p90_speed", nullable = false)
+    private Double p90Speed;
+    
+    @Column(nullable = false)
+    private Integer pointCount;
+    
+    public enum Resolution {
+        RAW,
+        HOUR,
+        DAY
+    }
+}
@@ -0,0 +1,54 @@
+package com.backend.pcx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "upload_session")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private Long receivedBytes;
+
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Boolean append;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private UploadStatus status;
+
+    @Column
+    private Long jobId;
+
+    @Column
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private Long createdAt;
+
+    @Column
+    private Long updatedAt;
+
+    public enum UploadStatus {
+        UPLOADING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,16 @@
+package com.backend.pcx.event;
+
+import com.backend.pcx.dto.CongestionTransition;
+import com.backend.pcx.service.DashboardService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class DashboardChangedEvent {
+    private final DashboardService.Snapshot previous;
+    private final DashboardService.Snapshot current;
+    private final List<CongestionTransition> transitions;
+}
@@ -0,0 +1,11 @@
+package com.backend.pcx.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportCompletedEvent {
+    private final Long jobId;
+    private final String filename;
+}
@@ -0,0 +1,14 @@
+package com.backend.pcx.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class RoadDataChangedEvent {
+    private final Set<Integer> roadIds;
+    /** True when the change only added points after each road's previously latest ts. */
+    private final boolean appendOnly;
+}
@@ -0,0 +1,14 @@
+package com.backend.pcx.event;
+
+import com.backend.pcx.entity.SegmentStatistics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+@Getter
+@AllArgsConstructor
+public class StatisticsUpdatedEvent {
+    private final Collection<SegmentStatistics> updated;
+    private final Collection<Integer> removedRoadIds;
+}
@@ -0,0 +1,189 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Autoregressive model whose coefficients are estimated with the Yule-Walker equations
+ * (Levinson-Durbin); steps beyond the first feed back on the previous forecasts.
+ * Without fitted parameters the coefficients are estimated from the request's window.
+ */
+@Component
+public class ArPredictor extends WindowedPredictor implements OnlinePredictor {
+
+    @Value("${traffic.prediction.ar.order:6}")
+    private int order;
+
+    @Value("${traffic.prediction.ar.history-steps:288}")
+    private int historySteps;
+
+    @Override
+    public double[] forecast(double[] window, long baseTime, int horizonSteps) {
+        return forecast(window, horizonSteps, order);
+    }
+
+    static double[] forecast(double[] window, int horizonSteps, int order) {
+        int n = window.length;
+        double mean = 0.0;
+        for (double v : window) {
+            mean += v;
+        }
+        mean /= n;
+
+        int p = Math.min(order, n - 1);
+        double[] r = new double[p + 1];
+        for (int k = 0; k <= p; k++) {
+            double sum = 0.0;
+            for (int i = 0; i + k < n; i++) {
+                sum += (window[i] - mean) * (window[i + k] - mean);
+            }
+            r[k] = sum / n;
+        }
+        return forecast(window, horizonSteps, mean, levinson(r));
+    }
+
+    /**
+     * Runs the recursion from the last phi.length - 1 values of the window.
+     */
+    static double[] forecast(double[] window, int horizonSteps, double mean, double[] phi) {
+        int n = window.length;
+        int p = Math.min(phi.length - 1, n);
+
+        double[] buffer = new double[p + horizonSteps];
+        for (int i = 0; i < p; i++) {
+            buffer[i] = window[n - p + i] - mean;
+        }
+        double[] out = new double[horizonSteps];
+        for (int h = 0; h < horizonSteps; h++) {
+            double value = 0.0;
+            for (int k = 1; k <= p; k++) {
+                value += phi[k] * buffer[p + h - k];
+            }
+            buffer[p + h] = value;
+            out[h] = value + mean;
+        }
+        return out;
+    }
+
+    /**
+     * Solves for phi[1..p] (phi[0] unused) from autocovariances r[0..p]; a flat series
+     * gives all-zero coefficients.
+     */
+    static double[] levinson(double[] r) {
+        int p = r.length - 1;
+        double[] phi = new double[p + 1];
+        if (r[0] <= 0.0) {
+            return phi;
+        }
+        double[] previous = new double[p + 1];
+        double error = r[0];
+        for (int k = 1; k <= p; k++) {
+            double acc = r[k];
+            for (int j = 1; j < k; j++) {
+                acc -= phi[j] * r[k - j];
+            }
+            double reflection = acc / error;
+            System.arraycopy(phi, 0, previous, 0, k);
+            phi[k] = reflection;
+            for (int j = 1; j < k; j++) {
+                phi[j] = previous[j] - reflection * previous[k - j];
+            }
+            error *= 1 - reflection * reflection;
+            if (error <= 0.0) break;
+        }
+        return phi;
+    }
+
+    /*
+     * Parameters: [count, sum, lagSum[0..p], tail[p], phi[0..p]] where lagSum[k] is the sum of
+     * x[t] * x[t-k] over consecutive observations and tail holds the last p observations,
+     * oldest first. The sums are sufficient statistics, so new points are folded in without
+     * revisiting old ones.
+     */
+
+    @Override
+    public double[] fit(double[] previous, SpeedSeries points) {
+        int p = previous == null ? order : (previous.length - 4) / 3;
+        int lagSums = 2;
+        int tail = lagSums + p + 1;
+        int coefficients = tail + p;
+        double[] params = previous == null ? new double[coefficients + p + 1] : previous.clone();
+
+        long count = (long) params[0];
+        for (int i = 0; i < points.size(); i++) {
+            double x = points.getSpeed(i);
+            params[lagSums] += x * x;
+            int lags = (int) Math.min(count, p);
+            for (int k = 1; k <= lags; k++) {
+                params[lagSums + k] += x * params[tail + p - k];
+            }
+            if (p > 0) {
+                System.arraycopy(params, tail + 1, params, tail, p - 1);
+                params[tail + p - 1] = x;
+            }
+            params[1] += x;
+            count++;
+        }
+        params[0] = count;
+
+        if (count > p) {
+            double mean = params[1] / count;
+            double[] r = new double[p + 1];
+            for (int k = 0; k <= p; k++) {
+                r[k] = params[lagSums + k] / (count - k) - mean * mean;
+            }
+            System.arraycopy(levinson(r), 0, params, coefficients, p + 1);
+        }
+        return params;
+    }
+
+    @Override
+    public TrafficPredictor bind(double[] params, long trainedThrough) {
+        int p = (params.length - 4) / 3;
+        double mean = params[0] == 0 ? 0.0 : params[1] / params[0];
+        double[] phi = new double[p + 1];
+        System.arraycopy(params, params.length - (p + 1), phi, 0, p + 1);
+        return new Fitted(mean, phi);
+    }
+
+    @Override
+    public int getHistorySteps() {
+        return historySteps;
+    }
+
+    @Override
+    public String getPredictorType() {
+        return "AR";
+    }
+
+    private final class Fitted implements TrafficPredictor {
+        private final double mean;
+        private final double[] phi;
+
+        Fitted(double mean, double[] phi) {
+            this.mean = mean;
+            this.phi = phi;
+        }
+
+        @Override
+        public List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps,
+                                              List<FileBasedSpeedRepository.SpeedDataPoint> historicalData) {
+            double[] window = toWindow(historicalData, baseTime, getHistorySteps());
+            return toResults(baseTime, horizonSteps, window == null ? null : forecast(window, horizonSteps, mean, phi));
+        }
+
+        @Override
+        public int getHistorySteps() {
+            return phi.length - 1;
+        }
+
+        @Override
+        public String getPredictorType() {
+            return ArPredictor.this.getPredictorType();
+        }
+    }
+}
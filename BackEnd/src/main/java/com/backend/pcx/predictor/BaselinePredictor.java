@@ -1,7 +1,7 @@
 package com.backend.pcx.predictor;
 
-import com.backend.pcx.entity.CongestionLevel;
 import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SpeedSeries;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -10,65 +10,63 @@ import java.util.Comparator;
 import java.util.List;
 
 @Component
-public class BaselinePredictor implements TrafficPredictor {
-    
-    @Value("${traffic.prediction.free-speed-threshold:40}")
-    private Double freeSpeedThreshold;
-    
-    @Value("${traffic.prediction.flowing-speed-threshold:25}")
-    private Double flowingSpeedThreshold;
+public class BaselinePredictor extends WindowedPredictor {
     
     @Value("${traffic.prediction.prediction-window-size:6}")
     private Integer windowSize;
 
+    /**
+     * Averages the last observations themselves rather than the grid window, so a gap
+     * widens the average instead of repeating the value before it.
+     */
     @Override
     public List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps, List<FileBasedSpeedRepository.SpeedDataPoint> historicalData) {
-        List<PredictionResult> results = new ArrayList<>();
-        
         if (historicalData == null || historicalData.isEmpty()) {
-            for (int i = 1; i <= horizonSteps; i++) {
-                Long ts = baseTime + (i * 10L * 60 * 1000);
-                results.add(new PredictionResult(ts, 30.0, CongestionLevel.fromSpeed(30.0, freeSpeedThreshold, flowingSpeedThreshold)));
-            }
-            return results;
+            return toResults(baseTime, horizonSteps, null);
         }
         
-        List<FileBasedSpeedRepository.SpeedDataPoint> sortedData = new ArrayList<>(historicalData);
-        sortedData.sort(Comparator.comparing(FileBasedSpeedRepository.SpeedDataPoint::getTs));
-        
-        for (int i = 1; i <= horizonSteps; i++) {
-            Long ts = baseTime + (i * 10L * 60 * 1000);
-            
-            Double predictedSpeed = calculateMovingAverage(sortedData);
-            
-            predictedSpeed = applyPeakHourAdjustment(predictedSpeed, ts);
-            
-            CongestionLevel level = CongestionLevel.fromSpeed(predictedSpeed, freeSpeedThreshold, flowingSpeedThreshold);
-            
-            results.add(new PredictionResult(ts, predictedSpeed, level));
+        List<FileBasedSpeedRepository.SpeedDataPoint> sortedData = historicalData;
+        if (!(historicalData instanceof SpeedSeries)) {
+            sortedData = new ArrayList<>(historicalData);
+            sortedData.sort(Comparator.comparing(FileBasedSpeedRepository.SpeedDataPoint::getTs));
         }
         
-        return results;
+        int size = Math.min(windowSize, sortedData.size());
+        int offset = sortedData.size() - size;
+        double[] window = new double[size];
+        if (sortedData instanceof SpeedSeries series) {
+            for (int i = 0; i < size; i++) {
+                window[i] = series.getSpeed(offset + i);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                window[i] = sortedData.get(offset + i).getSpeed();
+            }
+        }
+        return toResults(baseTime, horizonSteps, forecast(window, baseTime, horizonSteps));
     }
 
-    private Double calculateMovingAverage(List<FileBasedSpeedRepository.SpeedDataPoint> data) {
-        int size = Math.min(windowSize, data.size());
-        if (size == 0) {
-            return 30.0;
-        }
+    @Override
+    public double[] forecast(double[] window, long baseTime, int horizonSteps) {
+        double movingAverage = calculateMovingAverage(window);
         
+        double[] speeds = new double[horizonSteps];
+        for (int i = 1; i <= horizonSteps; i++) {
+            long ts = baseTime + i * STEP_MS;
+            speeds[i - 1] = applyPeakHourAdjustment(movingAverage, ts);
+        }
+        return speeds;
+    }
+
+    private double calculateMovingAverage(double[] window) {
         double sum = 0.0;
-        int count = 0;
-        
-        for (int i = data.size() - size; i < data.size(); i++) {
-            sum += data.get(i).getSpeed();
-            count++;
+        for (double speed : window) {
+            sum += speed;
         }
-        
-        return sum / count;
+        return sum / window.length;
     }
 
-    private Double applyPeakHourAdjustment(Double speed, Long ts) {
+    private double applyPeakHourAdjustment(double speed, long ts) {
         long hour = (ts / (60 * 60 * 1000)) % 24;
         
         if ((hour >= 7 && hour <= 9) || (hour >= 17 && hour <= 19)) {
@@ -80,6 +78,11 @@ public class BaselinePredictor implements TrafficPredictor {
         return speed;
     }
 
+    @Override
+    public int getHistorySteps() {
+        return windowSize;
+    }
+
     @Override
     public String getPredictorType() {
         return "BASELINE";
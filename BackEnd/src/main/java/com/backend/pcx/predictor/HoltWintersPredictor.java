@@ -0,0 +1,178 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Additive Holt-Winters with a daily season, fitted over the window in a single pass.
+ * Windows shorter than two seasons fall back to simple exponential smoothing. A fitted
+ * per-road state answers requests at the road's latest observation without any history.
+ */
+@Component
+public class HoltWintersPredictor extends WindowedPredictor implements OnlinePredictor {
+
+    private static final int COUNT = 0;
+    private static final int LEVEL = 1;
+    private static final int TREND = 2;
+    private static final int SEASONAL = 3;
+
+    @Value("${traffic.prediction.season-steps:144}")
+    private int seasonSteps;
+
+    @Value("${traffic.prediction.holt-winters.alpha:0.2}")
+    private double alpha;
+
+    @Value("${traffic.prediction.holt-winters.beta:0.01}")
+    private double beta;
+
+    @Value("${traffic.prediction.holt-winters.gamma:0.3}")
+    private double gamma;
+
+    @Value("${traffic.prediction.holt-winters.history-steps:1008}")
+    private int historySteps;
+
+    @Override
+    public double[] forecast(double[] window, long baseTime, int horizonSteps) {
+        return forecast(window, horizonSteps, seasonSteps, alpha, beta, gamma);
+    }
+
+    static double[] forecast(double[] window, int horizonSteps, int m,
+                             double alpha, double beta, double gamma) {
+        int n = window.length;
+        double[] out = new double[horizonSteps];
+        if (n < 2 * m) {
+            double level = window[0];
+            for (int t = 1; t < n; t++) {
+                level = alpha * window[t] + (1 - alpha) * level;
+            }
+            Arrays.fill(out, level);
+            return out;
+        }
+
+        double firstMean = 0.0;
+        double secondMean = 0.0;
+        for (int i = 0; i < m; i++) {
+            firstMean += window[i];
+            secondMean += window[m + i];
+        }
+        firstMean /= m;
+        secondMean /= m;
+
+        double level = firstMean;
+        double trend = (secondMean - firstMean) / m;
+        double[] seasonal = new double[m];
+        for (int i = 0; i < m; i++) {
+            seasonal[i] = window[i] - level;
+        }
+
+        for (int t = m; t < n; t++) {
+            int s = t % m;
+            double previousLevel = level;
+            level = alpha * (window[t] - seasonal[s]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            seasonal[s] = gamma * (window[t] - level) + (1 - gamma) * seasonal[s];
+        }
+
+        for (int h = 1; h <= horizonSteps; h++) {
+            out[h - 1] = level + h * trend + seasonal[(n - 1 + h) % m];
+        }
+        return out;
+    }
+
+    /*
+     * Parameters: [count, level, trend, seasonal[m]] with the seasonal index taken from the
+     * observation's time of day, so gaps and month files on shifted grids stay aligned.
+     * The first season only seeds the level (running mean) and the seasonal offsets.
+     */
+
+    @Override
+    public double[] fit(double[] previous, SpeedSeries points) {
+        double[] params = previous == null ? new double[SEASONAL + seasonSteps] : previous.clone();
+        int m = params.length - SEASONAL;
+
+        long count = (long) params[COUNT];
+        double level = params[LEVEL];
+        double trend = params[TREND];
+        for (int i = 0; i < points.size(); i++) {
+            double x = points.getSpeed(i);
+            int s = SEASONAL + seasonIndex(points.getTs(i), m);
+            if (count < m) {
+                level += (x - level) / (count + 1);
+                params[s] = x - level;
+            } else {
+                double previousLevel = level;
+                level = alpha * (x - params[s]) + (1 - alpha) * (level + trend);
+                trend = beta * (level - previousLevel) + (1 - beta) * trend;
+                params[s] = gamma * (x - level) + (1 - gamma) * params[s];
+            }
+            count++;
+        }
+        params[COUNT] = count;
+        params[LEVEL] = level;
+        params[TREND] = trend;
+        return params;
+    }
+
+    @Override
+    public TrafficPredictor bind(double[] params, long trainedThrough) {
+        return new Fitted(params.clone(), trainedThrough);
+    }
+
+    private static int seasonIndex(long ts, int m) {
+        return (int) Math.floorMod(Math.round(ts / (double) STEP_MS), (long) m);
+    }
+
+    @Override
+    public int getHistorySteps() {
+        return historySteps;
+    }
+
+    @Override
+    public String getPredictorType() {
+        return "HOLT_WINTERS";
+    }
+
+    private final class Fitted implements TrafficPredictor {
+        private final double[] params;
+        private final long trainedThrough;
+
+        Fitted(double[] params, long trainedThrough) {
+            this.params = params;
+            this.trainedThrough = trainedThrough;
+        }
+
+        /**
+         * Uses the state when the base time is the last fitted observation; any other base
+         * time is answered from the window like an unfitted road.
+         */
+        @Override
+        public List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps,
+                                              List<FileBasedSpeedRepository.SpeedDataPoint> historicalData) {
+            int m = params.length - SEASONAL;
+            if (Math.abs(baseTime - trainedThrough) >= STEP_MS || params[COUNT] < m) {
+                return HoltWintersPredictor.this.predict(segmentId, baseTime, horizonSteps, historicalData);
+            }
+            double[] speeds = new double[horizonSteps];
+            for (int h = 1; h <= horizonSteps; h++) {
+                speeds[h - 1] = params[LEVEL] + h * params[TREND]
+                        + params[SEASONAL + seasonIndex(baseTime + h * STEP_MS, m)];
+            }
+            return toResults(baseTime, horizonSteps, speeds);
+        }
+
+        @Override
+        public int getHistorySteps() {
+            return historySteps;
+        }
+
+        @Override
+        public String getPredictorType() {
+            return HoltWintersPredictor.this.getPredictorType();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.repository.SpeedSeries;
+
+/**
+ * A predictor whose per-road parameters can be fitted incrementally as data is ingested,
+ * so inference only needs the parameters and a short recent window.
+ */
+public interface OnlinePredictor extends TrafficPredictor {
+
+    /**
+     * Folds ts-sorted points that are newer than everything in {@code previous} into the
+     * parameters and returns the new parameters; a null {@code previous} starts a fresh fit.
+     */
+    double[] fit(double[] previous, SpeedSeries points);
+
+    /**
+     * Returns a predictor for one road that uses the fitted parameters; {@code trainedThrough}
+     * is the ts of the last point folded into them.
+     */
+    TrafficPredictor bind(double[] params, long trainedThrough);
+}
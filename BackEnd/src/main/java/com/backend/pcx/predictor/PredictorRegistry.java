@@ -0,0 +1,81 @@
+package com.backend.pcx.predictor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * All {@link TrafficPredictor} beans keyed by their predictor type (case-insensitive).
+ * A request without a type gets the configured default predictor. Per-road fitted
+ * predictors can be installed and replaced at runtime; a road without one uses the bean.
+ */
+@Component
+public class PredictorRegistry {
+
+    private final Map<String, TrafficPredictor> predictors = new LinkedHashMap<>();
+    private final Map<String, Map<Integer, TrafficPredictor>> fitted = new ConcurrentHashMap<>();
+
+    @Value("${traffic.prediction.default-predictor:BASELINE}")
+    private String defaultType;
+
+    public PredictorRegistry(List<TrafficPredictor> predictors) {
+        for (TrafficPredictor predictor : predictors) {
+            this.predictors.put(predictor.getPredictorType().toUpperCase(Locale.ROOT), predictor);
+        }
+    }
+
+    public TrafficPredictor get(String predictorType) {
+        String type = predictorType == null || predictorType.isBlank() ? defaultType : predictorType;
+        TrafficPredictor predictor = predictors.get(type.trim().toUpperCase(Locale.ROOT));
+        if (predictor == null) {
+            throw new IllegalArgumentException("Unknown predictor type: " + type);
+        }
+        return predictor;
+    }
+
+    /**
+     * Returns the road's fitted predictor of the type if one is installed, else the shared one.
+     */
+    public TrafficPredictor get(String predictorType, Integer roadId) {
+        TrafficPredictor predictor = get(predictorType);
+        Map<Integer, TrafficPredictor> byRoad = fitted.get(predictor.getPredictorType());
+        TrafficPredictor roadPredictor = byRoad == null ? null : byRoad.get(roadId);
+        return roadPredictor != null ? roadPredictor : predictor;
+    }
+
+    public TrafficPredictor getDefault() {
+        return get(null);
+    }
+
+    public Collection<TrafficPredictor> getAll() {
+        return Collections.unmodifiableCollection(predictors.values());
+    }
+
+    public List<OnlinePredictor> getOnlinePredictors() {
+        return predictors.values().stream()
+                .filter(OnlinePredictor.class::isInstance)
+                .map(OnlinePredictor.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    public void install(String predictorType, Integer roadId, TrafficPredictor predictor) {
+        fitted.computeIfAbsent(predictorType, k -> new ConcurrentHashMap<>()).put(roadId, predictor);
+    }
+
+    public void uninstall(Integer roadId) {
+        fitted.values().forEach(byRoad -> byRoad.remove(roadId));
+    }
+
+    public int getFittedCount(String predictorType) {
+        Map<Integer, TrafficPredictor> byRoad = fitted.get(predictorType);
+        return byRoad == null ? 0 : byRoad.size();
+    }
+}
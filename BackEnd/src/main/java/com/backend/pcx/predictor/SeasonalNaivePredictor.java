@@ -0,0 +1,96 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import com.backend.pcx.service.RollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Forecasts each step as the mean of the same time slot over the last few days. When the
+ * history does not reach back one full season the lags would only repeat carried-forward
+ * values, so the steps are taken from the road's weekday x time-of-day profile instead
+ * (where it has observations).
+ */
+@Component
+public class SeasonalNaivePredictor extends WindowedPredictor {
+
+    private final RoadSegmentRepository roadSegmentRepository;
+    private final RollupService rollupService;
+
+    @Value("${traffic.prediction.season-steps:144}")
+    private int seasonSteps;
+
+    @Value("${traffic.prediction.seasonal-naive.periods:7}")
+    private int periods;
+
+    public SeasonalNaivePredictor(RoadSegmentRepository roadSegmentRepository, RollupService rollupService) {
+        this.roadSegmentRepository = roadSegmentRepository;
+        this.rollupService = rollupService;
+    }
+
+    @Override
+    public List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps,
+                                          List<FileBasedSpeedRepository.SpeedDataPoint> historicalData) {
+        double[] window = toWindow(historicalData, baseTime, getHistorySteps());
+        if (window == null) {
+            return toResults(baseTime, horizonSteps, null);
+        }
+        double[] speeds = forecast(window, horizonSteps, seasonSteps, periods,
+                firstObserved(historicalData, baseTime, window.length));
+        if (historicalData.get(0).getTs() > baseTime - (seasonSteps - 1) * STEP_MS) {
+            double[] baseline = roadSegmentRepository.findById(segmentId)
+                    .map(segment -> rollupService.getProfileBaseline(segment.getRoadId()))
+                    .orElse(null);
+            if (baseline != null) {
+                for (int h = 1; h <= horizonSteps; h++) {
+                    double profiled = baseline[rollupService.profileSlot(baseTime + h * STEP_MS)];
+                    if (!Double.isNaN(profiled)) {
+                        speeds[h - 1] = profiled;
+                    }
+                }
+            }
+        }
+        return toResults(baseTime, horizonSteps, speeds);
+    }
+
+    @Override
+    public double[] forecast(double[] window, long baseTime, int horizonSteps) {
+        return forecast(window, horizonSteps, seasonSteps, periods, 0);
+    }
+
+    /**
+     * Lags before {@code first} only hold the first observation carried back by
+     * {@link #toWindow}, so they are not counted as earlier seasons.
+     */
+    static double[] forecast(double[] window, int horizonSteps, int season, int periods, int first) {
+        int last = window.length - 1;
+        double[] out = new double[horizonSteps];
+        for (int h = 1; h <= horizonSteps; h++) {
+            double sum = 0.0;
+            int count = 0;
+            for (int k = 1; k <= periods; k++) {
+                int index = last + h - k * season;
+                if (index < first) break;
+                if (index <= last) {
+                    sum += window[index];
+                    count++;
+                }
+            }
+            out[h - 1] = count == 0 ? window[last] : sum / count;
+        }
+        return out;
+    }
+
+    @Override
+    public int getHistorySteps() {
+        return seasonSteps * periods;
+    }
+
+    @Override
+    public String getPredictorType() {
+        return "SEASONAL_NAIVE";
+    }
+}
@@ -8,4 +8,12 @@ public interface TrafficPredictor {
     List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps, List<FileBasedSpeedRepository.SpeedDataPoint> historicalData);
     
     String getPredictorType();
+
+    /**
+     * Number of 10-minute steps of history the predictor looks at before the base time;
+     * 0 means the configured prediction window is enough.
+     */
+    default int getHistorySteps() {
+        return 0;
+    }
 }
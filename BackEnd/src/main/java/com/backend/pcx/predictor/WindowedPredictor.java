@@ -0,0 +1,123 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base for predictors that work on a dense window of speeds: the history is laid onto
+ * the 10-minute grid ending at the base time as a {@code double[]}, gaps are carried
+ * forward, and the model produces every horizon step in one call.
+ */
+public abstract class WindowedPredictor implements TrafficPredictor {
+
+    protected static final long STEP_MS = 10L * 60 * 1000;
+
+    private static final double DEFAULT_SPEED = 30.0;
+
+    @Value("${traffic.prediction.free-speed-threshold:40}")
+    private Double freeSpeedThreshold;
+
+    @Value("${traffic.prediction.flowing-speed-threshold:25}")
+    private Double flowingSpeedThreshold;
+
+    /**
+     * Forecasts {@code horizonSteps} values following the last element of the window, which
+     * is the slot at {@code baseTime}. The window has {@link #getHistorySteps()} elements,
+     * oldest first, with no NaNs.
+     */
+    public abstract double[] forecast(double[] window, long baseTime, int horizonSteps);
+
+    @Override
+    public List<PredictionResult> predict(Long segmentId, Long baseTime, Integer horizonSteps,
+                                          List<FileBasedSpeedRepository.SpeedDataPoint> historicalData) {
+        double[] window = toWindow(historicalData, baseTime, getHistorySteps());
+        return toResults(baseTime, horizonSteps, window == null ? null : forecast(window, baseTime, horizonSteps));
+    }
+
+    /**
+     * Turns forecast speeds into results on the steps after the base time; null speeds
+     * (no history at all) give the default speed.
+     */
+    protected List<PredictionResult> toResults(long baseTime, int horizonSteps, double[] speeds) {
+        if (speeds == null) {
+            speeds = new double[horizonSteps];
+            Arrays.fill(speeds, DEFAULT_SPEED);
+        }
+
+        List<PredictionResult> results = new ArrayList<>(horizonSteps);
+        for (int i = 0; i < horizonSteps; i++) {
+            double speed = Math.max(0.0, speeds[i]);
+            results.add(new PredictionResult(baseTime + (i + 1) * STEP_MS, speed,
+                    CongestionLevel.fromSpeed(speed, freeSpeedThreshold, flowingSpeedThreshold)));
+        }
+        return results;
+    }
+
+    /**
+     * Index of the first slot of {@link #toWindow} that holds an observation rather than the
+     * value carried back from it; 0 when the history (in ts order) reaches back past the
+     * start of the window.
+     */
+    public static int firstObserved(List<FileBasedSpeedRepository.SpeedDataPoint> history, long baseTime, int size) {
+        if (history == null || history.isEmpty() || size <= 0) {
+            return 0;
+        }
+        long start = baseTime - (size - 1) * STEP_MS;
+        long slot = Math.round((history.get(0).getTs() - start) / (double) STEP_MS);
+        return (int) Math.max(0, Math.min(size - 1, slot));
+    }
+
+    /**
+     * Places the points on the grid {@code baseTime - (size - 1 - i) * STEP_MS}; months whose
+     * timestamps are offset from each other snap to the nearest slot. Missing slots take
+     * the previous value (leading ones the first value). Returns null when no point falls
+     * into the window.
+     */
+    public static double[] toWindow(List<FileBasedSpeedRepository.SpeedDataPoint> history, long baseTime, int size) {
+        if (history == null || history.isEmpty() || size <= 0) {
+            return null;
+        }
+        double[] window = new double[size];
+        Arrays.fill(window, Double.NaN);
+        long start = baseTime - (size - 1) * STEP_MS;
+
+        SpeedSeries series = history instanceof SpeedSeries s ? s : null;
+        for (int i = 0; i < history.size(); i++) {
+            long ts;
+            double speed;
+            if (series != null) {
+                ts = series.getTs(i);
+                speed = series.getSpeed(i);
+            } else {
+                FileBasedSpeedRepository.SpeedDataPoint point = history.get(i);
+                ts = point.getTs();
+                speed = point.getSpeed();
+            }
+            long slot = Math.round((ts - start) / (double) STEP_MS);
+            if (slot >= 0 && slot < size) {
+                window[(int) slot] = speed;
+            }
+        }
+
+        int first = 0;
+        while (first < size && Double.isNaN(window[first])) {
+            first++;
+        }
+        if (first == size) {
+            return null;
+        }
+        Arrays.fill(window, 0, first, window[first]);
+        for (int i = first + 1; i < size; i++) {
+            if (Double.isNaN(window[i])) {
+                window[i] = window[i - 1];
+            }
+        }
+        return window;
+    }
+}
@@ -0,0 +1,38 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.BacktestMetric;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Batched inserts for backtest metrics; a run over every road writes one row per road.
+ */
+@Repository
+public class BacktestJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BacktestJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertMetrics(List<BacktestMetric> metrics) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO backtest_metric (run_id, dimension, metric_key, evaluations, mae, rmse, mape) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                metrics, BATCH_SIZE, (ps, m) -> {
+                    ps.setLong(1, m.getRunId());
+                    ps.setString(2, m.getDimension().name());
+                    ps.setString(3, m.getKey());
+                    ps.setLong(4, m.getEvaluations());
+                    ps.setObject(5, m.getMae(), Types.DOUBLE);
+                    ps.setObject(6, m.getRmse(), Types.DOUBLE);
+                    ps.setObject(7, m.getMape(), Types.DOUBLE);
+                });
+    }
+}
@@ -0,0 +1,16 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.BacktestMetric;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BacktestMetricRepository extends JpaRepository<BacktestMetric, Long> {
+    List<BacktestMetric> findByRunIdAndDimensionOrderByIdAsc(Long runId, BacktestMetric.Dimension dimension);
+
+    Page<BacktestMetric> findByRunIdAndDimension(Long runId, BacktestMetric.Dimension dimension, Pageable pageable);
+}
@@ -0,0 +1,32 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.BacktestRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface BacktestRunRepository extends JpaRepository<BacktestRun, Long> {
+    Page<BacktestRun> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    Page<BacktestRun> findByPredictorTypeOrderByCreatedAtDesc(String predictorType, Pageable pageable);
+
+    /**
+     * Marks jobs left pending or running by a previous process as failed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BacktestRun r SET r.status = :failed, r.errorMessage = :message, r.finishedAt = :now " +
+           "WHERE r.status IN :unfinished")
+    int failUnfinished(@Param("unfinished") Collection<BacktestRun.RunStatus> unfinished,
+                       @Param("failed") BacktestRun.RunStatus failed,
+                       @Param("message") String message,
+                       @Param("now") Long now);
+}
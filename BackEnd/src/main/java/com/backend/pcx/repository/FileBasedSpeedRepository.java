@@ -1,18 +1,32 @@
 package com.backend.pcx.repository;
 
+import com.backend.pcx.dto.CacheStatsDTO;
+import com.backend.pcx.tracing.RequestTracer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public class FileBasedSpeedRepository {
@@ -20,13 +34,23 @@ public class FileBasedSpeedRepository {
     @Value("${app.data-dir:./data}")
     private String dataDir;
     
-    @Value("${app.cache.max-roads:20}")
-    private int maxCachedRoads;
+    @Value("${app.cache.max-bytes:268435456}")
+    private long maxCacheBytes;
     
-    private final Map<Integer, List<SpeedDataPoint>> cache = new ConcurrentHashMap<>();
-    private final Map<Integer, Long> lastAccessTime = new ConcurrentHashMap<>();
+    @Value("${app.storage.mode:file}")
+    private String storageMode;
     
-    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+    private LoadingCache<Integer, SpeedSeries> cache;
+    private final Map<Integer, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    private final Map<Path, SpeedDataIndex> indexes = new ConcurrentHashMap<>();
+    
+    private final SpeedRecordJdbcRepository speedRecordJdbcRepository;
+    private final MeterRegistry meterRegistry;
+    private final RequestTracer requestTracer;
+    private final Timer loadTimer;
+    private final DistributionSummary loadPoints;
+    
+    private static final String INDEX_DIR = ".index";
     
     private static final Map<String, Long> BASE_DATES = new HashMap<>();
     static {
@@ -55,216 +79,256 @@ public class FileBasedSpeedRepository {
         }
     }
     
+    public FileBasedSpeedRepository(SpeedRecordJdbcRepository speedRecordJdbcRepository,
+                                    MeterRegistry meterRegistry, RequestTracer requestTracer) {
+        this.speedRecordJdbcRepository = speedRecordJdbcRepository;
+        this.meterRegistry = meterRegistry;
+        this.requestTracer = requestTracer;
+        this.loadTimer = Timer.builder("traffic.repository.load")
+                .description("Time to scan the data files for one road's series")
+                .register(meterRegistry);
+        this.loadPoints = DistributionSummary.builder("traffic.repository.load.points")
+                .description("Points read from the data files per road load")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .weigher((Integer roadId, SpeedSeries series) -> (int) Math.min(Integer.MAX_VALUE, series.sizeInBytes()))
+                .recordStats()
+                .build(this::loadFromFiles);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "speedSeries");
+        Gauge.builder("traffic.repository.cache.bytes", this, repository -> repository.weightedSize())
+                .description("Estimated bytes held by the speed series cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
     public List<SpeedDataPoint> getSpeedData(Integer roadId, Long fromTs, Long toTs, boolean interpolate) {
-        List<SpeedDataPoint> data = loadRoadData(roadId);
+        SpeedSeries data = loadRoadData(roadId);
         
         if (data.isEmpty()) {
             return data;
         }
         
-        List<SpeedDataPoint> filtered = data.stream()
-                .filter(p -> p.getSpeed() != null && p.getSpeed() > 0)
-                .collect(Collectors.toList());
+        SpeedSeries range = data.range(fromTs, toTs);
         
-        if (fromTs != null || toTs != null) {
-            filtered = filtered.stream()
-                    .filter(p -> {
-                        if (fromTs != null && p.getTs() < fromTs) return false;
-                        if (toTs != null && p.getTs() > toTs) return false;
-                        return true;
-                    })
-                    .collect(Collectors.toList());
+        if (interpolate && !range.isEmpty()) {
+            return interpolateMissingValues(range);
         }
         
-        if (interpolate && !filtered.isEmpty()) {
-            filtered = interpolateMissingValues(filtered);
-        }
-        
-        return filtered;
+        return range;
     }
     
     public List<SpeedDataPoint> getRecentSpeedData(Integer roadId, int limit) {
-        List<SpeedDataPoint> data = loadRoadData(roadId);
-        
-        if (data.isEmpty()) {
-            return data;
-        }
-        
-        List<SpeedDataPoint> validData = data.stream()
-                .filter(p -> p.getSpeed() != null && p.getSpeed() > 0)
-                .collect(Collectors.toList());
+        SpeedSeries data = loadRoadData(roadId);
         
-        int size = Math.min(limit, validData.size());
-        return validData.subList(validData.size() - size, validData.size());
+        int size = Math.min(limit, data.size());
+        return data.subList(data.size() - size, data.size());
     }
     
     public List<DataSource> getDataSources() {
         List<DataSource> sources = new ArrayList<>();
         
-        try {
-            Path dirPath = Paths.get(dataDir);
-            if (!Files.exists(dirPath)) {
-                return sources;
+        for (Path p : listDataFiles()) {
+            String filename = p.getFileName().toString();
+            String month = extractMonth(filename);
+            SpeedDataIndex index = getIndex(p);
+            if (index == null) {
+                continue;
             }
             
-            Files.list(dirPath)
-                    .filter(p -> p.toString().endsWith(".csv") && p.toString().contains("speeddata"))
-                    .forEach(p -> {
-                        String filename = p.getFileName().toString();
-                        String month = extractMonth(filename);
-                        Integer totalRoads = countRoadsInFile(p.toString());
-                        Integer totalDays = countDaysInFile(p.toString());
-                        
-                        sources.add(new DataSource(filename, month, totalRoads, totalDays));
-                    });
-        } catch (IOException e) {
-            e.printStackTrace();
+            sources.add(new DataSource(filename, month, index.getRoadCount(), index.getDayCount()));
         }
         
         return sources;
     }
     
-    private List<SpeedDataPoint> loadRoadData(Integer roadId) {
-        lastAccessTime.put(roadId, System.currentTimeMillis());
-        
-        if (cache.containsKey(roadId)) {
-            return cache.get(roadId);
-        }
-        
-        List<SpeedDataPoint> data = loadFromFiles(roadId);
-        
-        if (data.isEmpty()) {
-            return data;
-        }
-        
-        evictIfNeeded();
-        cache.put(roadId, data);
-        
-        return data;
+    public boolean warmUp(Integer roadId) {
+        return cache.get(roadId) != null;
+    }
+    
+    public List<Integer> getMostAccessedRoadIds(int limit) {
+        return accessCounts.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
     }
     
-    private List<SpeedDataPoint> loadFromFiles(Integer roadId) {
-        List<SpeedDataPoint> allData = new ArrayList<>();
+    public Set<Integer> getRoadIdsInFile(String filename) {
+        Set<Integer> roadIds = new HashSet<>();
+        Path filePath = Paths.get(dataDir).resolve(filename);
+        if (!Files.exists(filePath)) {
+            return roadIds;
+        }
         
-        try {
-            Path dirPath = Paths.get(dataDir);
-            if (!Files.exists(dirPath)) {
-                return allData;
+        SpeedDataIndex index = getIndex(filePath);
+        if (index != null) {
+            for (int roadId : index.getRoadIds()) {
+                roadIds.add(roadId);
             }
-            
-            Files.list(dirPath)
-                    .filter(p -> p.toString().endsWith(".csv") && p.toString().contains("speeddata"))
-                    .forEach(p -> {
-                        List<SpeedDataPoint> fileData = loadRoadFromFile(p.toString(), roadId);
-                        allData.addAll(fileData);
-                    });
-            
-            allData.sort(Comparator.comparing(SpeedDataPoint::getTs));
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        
-        return allData;
+        return roadIds;
     }
     
-    private List<SpeedDataPoint> loadRoadFromFile(String filePath, Integer roadId) {
-        List<SpeedDataPoint> data = new ArrayList<>();
-        String month = extractMonth(filePath);
-        Long baseDate = BASE_DATES.get(month);
-        
-        if (baseDate == null) {
-            return data;
+    public List<String> getDataFilenames() {
+        List<String> filenames = new ArrayList<>();
+        for (Path p : listDataFiles()) {
+            filenames.add(p.getFileName().toString());
         }
+        return filenames;
+    }
+    
+    public Map<Integer, Long> getLatestTimestamps(Collection<String> filenames) {
+        Map<Integer, Long> latest = new HashMap<>();
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
+        for (String filename : filenames) {
+            Path filePath = Paths.get(dataDir).resolve(filename);
+            if (!Files.exists(filePath)) {
+                continue;
+            }
             
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length < 4) continue;
-                
-                try {
-                    Integer currentRoadId = Integer.parseInt(parts[0].trim());
-                    if (!currentRoadId.equals(roadId)) continue;
-                    
-                    Integer dayId = Integer.parseInt(parts[1].trim());
-                    Integer timeId = Integer.parseInt(parts[2].trim());
-                    String speedStr = parts[3].trim();
-                    
-                    if (speedStr.isEmpty() || !speedStr.matches("-?\\d+(\\.\\d+)?")) {
-                        continue;
-                    }
-                    
-                    Double speed = Double.parseDouble(speedStr);
-                    if (speed <= 0) continue;
-                    
-                    Long ts = calculateTimestamp(baseDate, dayId, timeId);
-                    
-                    SpeedDataPoint point = new SpeedDataPoint();
-                    point.setTs(ts);
-                    point.setSpeed(speed);
-                    data.add(point);
-                } catch (NumberFormatException e) {
+            SpeedDataIndex index = getIndex(filePath);
+            if (index == null) {
+                continue;
+            }
+            for (int roadId : index.getRoadIds()) {
+                ByteBuffer block = loadRoadFromFile(filePath, roadId);
+                if (block == null) {
                     continue;
                 }
+                long lastTs = block.getLong(index.getPointCount(roadId) * 8 - 8);
+                latest.merge(roadId, lastTs, Math::max);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         
-        return data;
+        return latest;
     }
     
-    private Long calculateTimestamp(Long baseDate, Integer dayId, Integer timeId) {
-        long dayOffset = (dayId - 1) * 24L * 60 * 60 * 1000;
-        long timeOffset = (timeId - 1) * TEN_MINUTES_MS;
-        return baseDate + dayOffset + timeOffset;
+    public void removeDataFile(String filename) throws IOException {
+        Path filePath = Paths.get(dataDir).resolve(filename);
+        indexes.remove(filePath);
+        Files.deleteIfExists(filePath.resolveSibling(INDEX_DIR).resolve(filename + ".idx"));
+        Files.deleteIfExists(filePath);
     }
     
-    private String extractMonth(String filename) {
-        if (filename.contains("Aug")) return "Aug";
-        if (filename.contains("Sep")) return "Sep";
-        return "";
+    /**
+     * In db storage mode series are read from speed_record instead of the file indexes;
+     * the CSV files stay the source of truth and are loaded into the table on import.
+     */
+    public boolean isDatabaseMode() {
+        return "db".equalsIgnoreCase(storageMode);
     }
     
-    private Integer countRoadsInFile(String filePath) {
-        Set<Integer> roadIds = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 1) {
-                    try {
-                        roadIds.add(Integer.parseInt(parts[0].trim()));
-                    } catch (NumberFormatException e) {
-                        continue;
-                    }
+    public long storeRecords(String filename) {
+        if (!isDatabaseMode()) {
+            return 0;
+        }
+        return speedRecordJdbcRepository.insertCsv(Paths.get(dataDir).resolve(filename), getBaseDate(filename));
+    }
+    
+    public void removeRecords(String filename) {
+        if (isDatabaseMode()) {
+            speedRecordJdbcRepository.deleteFile(filename);
+        }
+    }
+    
+    /**
+     * Loads every data file into an empty speed_record table, e.g. after switching an
+     * existing data directory to db mode; returns the number of rows written.
+     */
+    public long backfillRecords() {
+        if (!isDatabaseMode() || !speedRecordJdbcRepository.isEmpty()) {
+            return 0;
+        }
+        long rows = 0;
+        for (String filename : getDataFilenames()) {
+            rows += storeRecords(filename);
+        }
+        return rows;
+    }
+    
+    public SpeedSeries readSeries(Integer roadId) {
+        SpeedSeries cached = cache.getIfPresent(roadId);
+        if (cached != null) {
+            return cached;
+        }
+        SpeedSeries loaded = loadFromFiles(roadId);
+        return loaded != null ? loaded : SpeedSeries.EMPTY;
+    }
+    
+    private SpeedSeries loadRoadData(Integer roadId) {
+        accessCounts.computeIfAbsent(roadId, k -> new LongAdder()).increment();
+        SpeedSeries data = cache.get(roadId);
+        return data != null ? data : SpeedSeries.EMPTY;
+    }
+    
+    private SpeedSeries loadFromFiles(Integer roadId) {
+        long start = System.nanoTime();
+        SpeedSeries series = requestTracer.time("load", () -> {
+            if (isDatabaseMode()) {
+                return speedRecordJdbcRepository.findSeries(roadId);
+            }
+            List<ByteBuffer> blocks = new ArrayList<>();
+            for (Path p : listDataFiles()) {
+                ByteBuffer block = loadRoadFromFile(p, roadId);
+                if (block != null) {
+                    blocks.add(block);
                 }
             }
+            
+            return SpeedSeries.fromBlocks(blocks);
+        });
+        
+        loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        loadPoints.record(series.size());
+        return series.isEmpty() ? null : series;
+    }
+    
+    private ByteBuffer loadRoadFromFile(Path filePath, Integer roadId) {
+        SpeedDataIndex index = getIndex(filePath);
+        if (index == null) {
+            return null;
+        }
+        
+        try {
+            return index.mapBlock(roadId);
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
         }
-        return roadIds.size();
-    }
-    
-    private Integer countDaysInFile(String filePath) {
-        Set<Integer> dayIds = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    try {
-                        dayIds.add(Integer.parseInt(parts[1].trim()));
-                    } catch (NumberFormatException e) {
-                        continue;
-                    }
+    }
+    
+    private SpeedDataIndex getIndex(Path csvPath) {
+        try {
+            return indexes.compute(csvPath, (path, existing) -> {
+                if (existing != null && existing.isFresh(path)) {
+                    return existing;
                 }
-            }
-        } catch (IOException e) {
+                try {
+                    Path indexPath = path.resolveSibling(INDEX_DIR).resolve(path.getFileName() + ".idx");
+                    return SpeedDataIndex.openOrBuild(path, indexPath, BASE_DATES.get(extractMonth(path.getFileName().toString())));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
             e.printStackTrace();
+            return null;
         }
-        return dayIds.size();
+    }
+    
+    public Long getBaseDate(String filename) {
+        return BASE_DATES.get(extractMonth(filename));
+    }
+    
+    private String extractMonth(String filename) {
+        if (filename.contains("Aug")) return "Aug";
+        if (filename.contains("Sep")) return "Sep";
+        return "";
     }
     
     private List<SpeedDataPoint> interpolateMissingValues(List<SpeedDataPoint> data) {
@@ -289,65 +353,72 @@ public class FileBasedSpeedRepository {
         return result;
     }
     
-    private void evictIfNeeded() {
-        if (cache.size() <= maxCachedRoads) return;
-        
-        List<Map.Entry<Integer, Long>> entries = lastAccessTime.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue())
-                .collect(Collectors.toList());
-        
-        int toRemove = cache.size() - maxCachedRoads;
-        for (int i = 0; i < toRemove; i++) {
-            Integer roadId = entries.get(i).getKey();
-            cache.remove(roadId);
-            lastAccessTime.remove(roadId);
-        }
+    public void clearCache() {
+        cache.invalidateAll();
     }
     
-    public void clearCache() {
-        cache.clear();
-        lastAccessTime.clear();
+    public void invalidate(Collection<Integer> roadIds) {
+        cache.invalidateAll(roadIds);
+    }
+    
+    private long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+    
+    public CacheStatsDTO getCacheStats() {
+        CacheStats stats = cache.stats();
+        
+        return new CacheStatsDTO(
+                cache.estimatedSize(),
+                weightedSize(),
+                maxCacheBytes,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadSuccessCount(),
+                stats.loadFailureCount(),
+                TimeUnit.NANOSECONDS.toMillis(stats.totalLoadTime()),
+                stats.averageLoadPenalty() / 1_000_000.0,
+                stats.evictionCount(),
+                stats.evictionWeight()
+        );
     }
     
     public Set<Integer> getAllRoadIds() {
         Set<Integer> allRoadIds = new HashSet<>();
         
-        try {
-            Path dirPath = Paths.get(dataDir);
-            if (!Files.exists(dirPath)) {
-                return allRoadIds;
+        for (Path p : listDataFiles()) {
+            SpeedDataIndex index = getIndex(p);
+            if (index != null) {
+                for (int roadId : index.getRoadIds()) {
+                    allRoadIds.add(roadId);
+                }
             }
-            
-            Files.list(dirPath)
-                    .filter(p -> p.toString().endsWith(".csv") && p.toString().contains("speeddata"))
-                    .forEach(p -> {
-                        Set<Integer> roadIdsInFile = getRoadIdsFromFile(p.toString());
-                        allRoadIds.addAll(roadIdsInFile);
-                    });
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         
         return allRoadIds;
     }
     
-    private Set<Integer> getRoadIdsFromFile(String filePath) {
-        Set<Integer> roadIds = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 1) {
-                    try {
-                        roadIds.add(Integer.parseInt(parts[0].trim()));
-                    } catch (NumberFormatException e) {
-                        continue;
-                    }
-                }
-            }
+    /**
+     * The speed CSVs in the data directory. The directory stream is closed before
+     * returning; every cache miss lists the directory, so a leaked stream per call runs
+     * the process out of file descriptors under load.
+     */
+    private List<Path> listDataFiles() {
+        Path dirPath = Paths.get(dataDir);
+        if (!Files.exists(dirPath)) {
+            return Collections.emptyList();
+        }
+        
+        try (Stream<Path> files = Files.list(dirPath)) {
+            return files
+                    .filter(p -> p.toString().endsWith(".csv") && p.toString().contains("speeddata"))
+                    .collect(Collectors.toList());
         } catch (IOException e) {
             e.printStackTrace();
+            return Collections.emptyList();
         }
-        return roadIds;
     }
 }
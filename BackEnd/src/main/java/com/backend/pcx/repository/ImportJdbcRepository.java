@@ -0,0 +1,124 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.RoadFileAggregate;
+import com.backend.pcx.entity.SegmentStatistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Batched JDBC writes for the import path, so ingesting a file costs a handful of
+ * round trips instead of one Hibernate save per road. Segment and statistics writes
+ * are serialized because concurrent import jobs touch the same road_id keys.
+ */
+@Repository
+public class ImportJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportJdbcRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public synchronized void insertMissingSegments(Map<Integer, String> regionsByRoadId) {
+        List<Object[]> rows = regionsByRoadId.entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue(), e.getKey()})
+                .collect(Collectors.toList());
+
+        batch("INSERT INTO road_segment (road_id, name, region) " +
+              "SELECT ?, NULL, ? WHERE NOT EXISTS (SELECT 1 FROM road_segment WHERE road_id = ?)", rows);
+    }
+
+    @Transactional
+    public void replaceFileAggregates(String filename, Collection<RoadFileAggregate> aggregates) {
+        jdbcTemplate.update("DELETE FROM road_file_aggregate WHERE filename = ?", filename);
+
+        List<Object[]> rows = aggregates.stream()
+                .map(a -> new Object[]{a.getFilename(), a.getRoadId(), a.getSpeedSum(), a.getPointCount(), a.getMinTs(), a.getMaxTs()})
+                .collect(Collectors.toList());
+
+        batch("INSERT INTO road_file_aggregate (filename, road_id, speed_sum, point_count, min_ts, max_ts) " +
+              "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    public List<Integer> findRoadIdsByFilename(String filename) {
+        return jdbcTemplate.queryForList("SELECT road_id FROM road_file_aggregate WHERE filename = ?", Integer.class, filename);
+    }
+
+    public void deleteFileAggregates(String filename) {
+        jdbcTemplate.update("DELETE FROM road_file_aggregate WHERE filename = ?", filename);
+    }
+
+    public Map<Integer, RoadFileAggregate> sumAggregatesByRoad(Collection<Integer> roadIds) {
+        Map<Integer, RoadFileAggregate> totals = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(roadIds);
+
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(","));
+            jdbcTemplate.query(
+                    "SELECT road_id, SUM(speed_sum), SUM(point_count), MIN(min_ts), MAX(max_ts) FROM road_file_aggregate " +
+                    "WHERE road_id IN (" + placeholders + ") GROUP BY road_id",
+                    rs -> {
+                        int roadId = rs.getInt(1);
+                        totals.put(roadId, new RoadFileAggregate(null, null, roadId, rs.getDouble(2), rs.getLong(3),
+                                rs.getObject(4, Long.class), rs.getObject(5, Long.class)));
+                    },
+                    chunk.toArray());
+        }
+
+        return totals;
+    }
+
+    /**
+     * Runs a read-modify-write of segment_statistics (sum the aggregates, then upsert or
+     * delete) in one transaction under the statistics lock, so an import that summed the
+     * aggregates before another import's landed cannot write its totals back last.
+     */
+    public synchronized <T> T updateStatistics(Supplier<T> update) {
+        return transactionTemplate.execute(status -> update.get());
+    }
+
+    public synchronized void upsertStatistics(Collection<SegmentStatistics> statistics) {
+        List<Object[]> rows = statistics.stream()
+                .map(s -> new Object[]{
+                        s.getRoadId(), s.getName(), s.getRegion(), s.getAvgSpeed(),
+                        s.getDataPointCount(), s.getCongestionLevel(), s.getCreatedAt(), s.getUpdatedAt()})
+                .collect(Collectors.toList());
+
+        batch("MERGE INTO segment_statistics t USING (VALUES (CAST(? AS INT), CAST(? AS VARCHAR), CAST(? AS VARCHAR), " +
+              "CAST(? AS DOUBLE), CAST(? AS INT), CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+              "s(road_id, name, region, avg_speed, data_point_count, congestion_level, created_at, updated_at) " +
+              "ON t.road_id = s.road_id " +
+              "WHEN MATCHED THEN UPDATE SET avg_speed = s.avg_speed, data_point_count = s.data_point_count, " +
+              "congestion_level = s.congestion_level, updated_at = s.updated_at " +
+              "WHEN NOT MATCHED THEN INSERT (road_id, name, region, avg_speed, data_point_count, congestion_level, created_at, updated_at) " +
+              "VALUES (s.road_id, s.name, s.region, s.avg_speed, s.data_point_count, s.congestion_level, s.created_at, s.updated_at)",
+              rows);
+    }
+
+    public synchronized void deleteStatistics(Collection<Integer> roadIds) {
+        List<Object[]> rows = roadIds.stream().map(id -> new Object[]{id}).collect(Collectors.toList());
+        batch("DELETE FROM segment_statistics WHERE road_id = ?", rows);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
@@ -4,9 +4,27 @@ import com.backend.pcx.entity.ImportJob;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 
 @Repository
 public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
     Page<ImportJob> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    /**
+     * Marks jobs left pending or running by a previous process as failed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.status = :failed, j.errorMessage = :message, j.finishedAt = :now " +
+           "WHERE j.status IN :unfinished")
+    int failUnfinished(@Param("unfinished") Collection<ImportJob.ImportStatus> unfinished,
+                       @Param("failed") ImportJob.ImportStatus failed,
+                       @Param("message") String message,
+                       @Param("now") Long now);
 }
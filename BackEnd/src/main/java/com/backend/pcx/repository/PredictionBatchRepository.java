@@ -0,0 +1,26 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.PredictionBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface PredictionBatchRepository extends JpaRepository<PredictionBatch, Long> {
+    /**
+     * Marks jobs left pending or running by a previous process as failed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PredictionBatch b SET b.status = :failed, b.errorMessage = :message, b.finishedAt = :now " +
+           "WHERE b.status IN :unfinished")
+    int failUnfinished(@Param("unfinished") Collection<PredictionBatch.BatchStatus> unfinished,
+                       @Param("failed") PredictionBatch.BatchStatus failed,
+                       @Param("message") String message,
+                       @Param("now") Long now);
+}
@@ -0,0 +1,15 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.PredictionDailyAccuracy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PredictionDailyAccuracyRepository extends JpaRepository<PredictionDailyAccuracy, Long> {
+    List<PredictionDailyAccuracy> findByDayTsBetweenOrderByDayTsAscPredictorTypeAsc(Long fromTs, Long toTs);
+
+    List<PredictionDailyAccuracy> findByPredictorTypeAndDayTsBetweenOrderByDayTsAsc(String predictorType,
+                                                                                    Long fromTs, Long toTs);
+}
@@ -0,0 +1,102 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.PredictionJob;
+import com.backend.pcx.entity.PredictionPoint;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batched inserts for prediction jobs and their points: one JDBC batch for the jobs,
+ * whose generated ids are read back, then one batch for all of their points.
+ */
+@Repository
+public class PredictionJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PredictionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the jobs and the points attached to them; sets the generated job and point ids.
+     */
+    @Transactional
+    public void insertAll(List<PredictionJob> jobs, List<List<PredictionPoint>> points) {
+        for (int from = 0; from < jobs.size(); from += BATCH_SIZE) {
+            insertJobs(jobs.subList(from, Math.min(jobs.size(), from + BATCH_SIZE)));
+        }
+
+        List<PredictionPoint> allPoints = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            for (PredictionPoint point : points.get(i)) {
+                point.setJob(jobs.get(i));
+                allPoints.add(point);
+            }
+        }
+        for (int from = 0; from < allPoints.size(); from += BATCH_SIZE) {
+            insertPoints(allPoints.subList(from, Math.min(allPoints.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    private void insertJobs(List<PredictionJob> jobs) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO prediction_job (segment_id, base_time, horizon_steps, predictor_type, cost_ms, created_at, batch_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)", new String[]{"id"})) {
+                for (PredictionJob job : jobs) {
+                    ps.setLong(1, job.getSegment().getId());
+                    ps.setLong(2, job.getBaseTime());
+                    ps.setInt(3, job.getHorizonSteps());
+                    ps.setString(4, job.getPredictorType());
+                    ps.setObject(5, job.getCostMs(), Types.BIGINT);
+                    ps.setLong(6, job.getCreatedAt());
+                    ps.setObject(7, job.getBatchId(), Types.BIGINT);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (PredictionJob job : jobs) {
+                        keys.next();
+                        job.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void insertPoints(List<PredictionPoint> points) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO prediction_point (job_id, ts, predicted_speed, congestion_level) VALUES (?, ?, ?, ?)",
+                    new String[]{"id"})) {
+                for (PredictionPoint point : points) {
+                    ps.setLong(1, point.getJob().getId());
+                    ps.setLong(2, point.getTs());
+                    ps.setDouble(3, point.getPredictedSpeed());
+                    ps.setString(4, point.getCongestionLevel().name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (PredictionPoint point : points) {
+                        keys.next();
+                        point.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -3,16 +3,46 @@ package com.backend.pcx.repository;
 import com.backend.pcx.entity.PredictionJob;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PredictionJobRepository extends JpaRepository<PredictionJob, Long> {
-    Page<PredictionJob> findBySegmentIdOrderByCreatedAtDesc(Long segmentId, Pageable pageable);
+    @EntityGraph(attributePaths = "segment")
+    Page<PredictionJob> findBySegmentIdOrderByCreatedAtDescIdDesc(Long segmentId, Pageable pageable);
     
-    Page<PredictionJob> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    @EntityGraph(attributePaths = "segment")
+    Page<PredictionJob> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
     
     List<PredictionJob> findTop10BySegmentIdOrderByCreatedAtDesc(Long segmentId);
+    
+    @EntityGraph(attributePaths = "segment")
+    Page<PredictionJob> findByBatchIdOrderByIdAsc(Long batchId, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "segment")
+    Optional<PredictionJob> findWithSegmentById(Long id);
+    
+    /**
+     * Keyset page: the jobs strictly after (createdAt, id) in (createdAt DESC, id DESC)
+     * order; the pageable only carries the limit.
+     */
+    @EntityGraph(attributePaths = "segment")
+    @Query("SELECT j FROM PredictionJob j WHERE j.createdAt <= :createdAt AND " +
+           "(j.createdAt < :createdAt OR j.id < :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<PredictionJob> findPageBefore(@Param("createdAt") Long createdAt, @Param("id") Long id, Pageable limit);
+    
+    @EntityGraph(attributePaths = "segment")
+    @Query("SELECT j FROM PredictionJob j WHERE j.segment.id = :segmentId AND j.createdAt <= :createdAt AND " +
+           "(j.createdAt < :createdAt OR j.id < :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<PredictionJob> findSegmentPageBefore(@Param("segmentId") Long segmentId, @Param("createdAt") Long createdAt,
+                                              @Param("id") Long id, Pageable limit);
+    
+    Optional<PredictionJob> findFirstBySegmentIdAndBaseTimeAndHorizonStepsAndPredictorTypeOrderByCreatedAtDesc(
+            Long segmentId, Long baseTime, Integer horizonSteps, String predictorType);
 }
@@ -1,12 +1,38 @@
 package com.backend.pcx.repository;
 
+import com.backend.pcx.dto.PredictionExportRow;
 import com.backend.pcx.entity.PredictionPoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PredictionPointRepository extends JpaRepository<PredictionPoint, Long> {
     List<PredictionPoint> findByJobIdOrderByTsAsc(Long jobId);
+    
+    List<PredictionPoint> findByJobIdInOrderByJobIdAscTsAsc(Collection<Long> jobIds);
+    
+    /**
+     * One projected row per prediction point, grouped by job (job id, then ts), for
+     * exports; a job without points gives one row whose point columns are null. Rows are
+     * not managed entities, so the stream runs in constant memory; it must be consumed and
+     * closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.backend.pcx.dto.PredictionExportRow(j.id, s.id, s.roadId, s.name, j.baseTime, " +
+           "j.horizonSteps, j.predictorType, j.costMs, j.createdAt, p.id, p.ts, p.predictedSpeed, p.congestionLevel) " +
+           "FROM PredictionJob j JOIN j.segment s LEFT JOIN PredictionPoint p ON p.job = j WHERE " +
+           "(:segmentId IS NULL OR s.id = :segmentId) AND " +
+           "(:from IS NULL OR j.createdAt >= :from) AND (:to IS NULL OR j.createdAt < :to) " +
+           "ORDER BY j.id, p.ts")
+    Stream<PredictionExportRow> streamExportRows(@Param("segmentId") Long segmentId,
+                                                 @Param("from") Long from, @Param("to") Long to);
 }
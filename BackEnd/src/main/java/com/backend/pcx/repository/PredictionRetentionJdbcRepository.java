@@ -0,0 +1,119 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.dto.PredictionExportRow;
+import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.entity.PredictionDailyAccuracy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bulk reads and deletes for the prediction retention job. A purge deletes a batch of jobs
+ * with their points (and batch runs left without jobs) and adds the batch's accuracy to
+ * prediction_daily_accuracy in one transaction, so a job is either still stored in detail
+ * or counted in the summary.
+ */
+@Repository
+public class PredictionRetentionJdbcRepository {
+
+    private static final RowMapper<PredictionExportRow> ROW_MAPPER = (rs, rowNum) -> new PredictionExportRow(
+            rs.getLong("job_id"),
+            rs.getLong("segment_id"),
+            rs.getInt("road_id"),
+            rs.getString("name"),
+            rs.getLong("base_time"),
+            rs.getInt("horizon_steps"),
+            rs.getString("predictor_type"),
+            (Long) rs.getObject("cost_ms"),
+            rs.getLong("created_at"),
+            (Long) rs.getObject("point_id"),
+            (Long) rs.getObject("ts"),
+            rs.getObject("predicted_speed", Double.class),
+            rs.getString("congestion_level") == null ? null : CongestionLevel.valueOf(rs.getString("congestion_level")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PredictionRetentionJdbcRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Up to limit ids of jobs created before cutoff, in no particular order; reads the
+     * created_at index range only as far as the limit.
+     */
+    public List<Long> findExpiredJobIds(long cutoff, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM prediction_job WHERE created_at < ? LIMIT ?",
+                Long.class, cutoff, limit);
+    }
+
+    /**
+     * The jobs' points with their job and segment columns, grouped by job (job id, then ts).
+     * A job without points gives one row whose point columns are null.
+     */
+    public List<PredictionExportRow> findRows(List<Long> jobIds) {
+        return jdbcTemplate.query(
+                "SELECT j.id AS job_id, s.id AS segment_id, s.road_id, s.name, j.base_time, j.horizon_steps, " +
+                "j.predictor_type, j.cost_ms, j.created_at, p.id AS point_id, p.ts, p.predicted_speed, " +
+                "p.congestion_level FROM prediction_job j JOIN road_segment s ON s.id = j.segment_id " +
+                "LEFT JOIN prediction_point p ON p.job_id = j.id WHERE j.id IN (" + placeholders(jobIds) + ") " +
+                "ORDER BY j.id, p.ts",
+                ROW_MAPPER, jobIds.toArray());
+    }
+
+    /**
+     * Deletes the jobs and their points, then the finished batch runs the jobs belonged to
+     * once none of their jobs is left. Returns the number of batch runs deleted.
+     */
+    public int purge(List<Long> jobIds, Collection<PredictionDailyAccuracy> accuracy) {
+        Integer batches = transactionTemplate.execute(status -> {
+            String in = placeholders(jobIds);
+            List<Long> batchIds = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT batch_id FROM prediction_job WHERE batch_id IS NOT NULL AND id IN (" + in + ")",
+                    Long.class, jobIds.toArray());
+            jdbcTemplate.update("DELETE FROM prediction_point WHERE job_id IN (" + in + ")", jobIds.toArray());
+            jdbcTemplate.update("DELETE FROM prediction_job WHERE id IN (" + in + ")", jobIds.toArray());
+            int deleted = batchIds.isEmpty() ? 0 : jdbcTemplate.update(
+                    "DELETE FROM prediction_batch b WHERE b.id IN (" + placeholders(batchIds) + ") " +
+                    "AND b.status IN ('COMPLETED', 'FAILED') " +
+                    "AND NOT EXISTS (SELECT 1 FROM prediction_job j WHERE j.batch_id = b.id)",
+                    batchIds.toArray());
+            for (PredictionDailyAccuracy day : accuracy) {
+                add(day);
+            }
+            return deleted;
+        });
+        return batches == null ? 0 : batches;
+    }
+
+    private void add(PredictionDailyAccuracy day) {
+        int updated = jdbcTemplate.update(
+                "UPDATE prediction_daily_accuracy SET job_count = job_count + ?, point_count = point_count + ?, " +
+                "evaluated_count = evaluated_count + ?, abs_error_sum = abs_error_sum + ?, " +
+                "squared_error_sum = squared_error_sum + ?, pct_error_sum = pct_error_sum + ?, updated_at = ? " +
+                "WHERE day_ts = ? AND predictor_type = ?",
+                day.getJobCount(), day.getPointCount(), day.getEvaluatedCount(), day.getAbsErrorSum(),
+                day.getSquaredErrorSum(), day.getPctErrorSum(), day.getUpdatedAt(),
+                day.getDayTs(), day.getPredictorType());
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO prediction_daily_accuracy (day_ts, predictor_type, job_count, point_count, " +
+                    "evaluated_count, abs_error_sum, squared_error_sum, pct_error_sum, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    day.getDayTs(), day.getPredictorType(), day.getJobCount(), day.getPointCount(),
+                    day.getEvaluatedCount(), day.getAbsErrorSum(), day.getSquaredErrorSum(), day.getPctErrorSum(),
+                    day.getUpdatedAt());
+        }
+    }
+
+    private static String placeholders(List<Long> ids) {
+        return String.join(", ", Collections.nCopies(ids.size(), "?"));
+    }
+}
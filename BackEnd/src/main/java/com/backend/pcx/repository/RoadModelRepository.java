@@ -0,0 +1,13 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.RoadModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoadModelRepository extends JpaRepository<RoadModel, Long> {
+    List<RoadModel> findByRoadIdIn(Collection<Integer> roadIds);
+}
@@ -8,14 +8,27 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoadSegmentRepository extends JpaRepository<RoadSegment, Long> {
     Optional<RoadSegment> findByRoadId(Integer roadId);
     
+    List<RoadSegment> findByRegion(String region);
+    
     @Query("SELECT s FROM RoadSegment s WHERE " +
            "(:keyword IS NULL OR s.name LIKE %:keyword% OR CAST(s.roadId AS string) LIKE %:keyword%) AND " +
            "(:region IS NULL OR s.region = :region)")
     Page<RoadSegment> search(@Param("keyword") String keyword, @Param("region") String region, Pageable pageable);
+    
+    /**
+     * Keyset page: the matching segments with roadId greater than afterRoadId, in roadId
+     * order; the pageable only carries the limit.
+     */
+    @Query("SELECT s FROM RoadSegment s WHERE s.roadId > :afterRoadId AND " +
+           "(:keyword IS NULL OR s.name LIKE %:keyword% OR CAST(s.roadId AS string) LIKE %:keyword%) AND " +
+           "(:region IS NULL OR s.region = :region) ORDER BY s.roadId")
+    List<RoadSegment> searchAfter(@Param("afterRoadId") Integer afterRoadId, @Param("keyword") String keyword,
+                                  @Param("region") String region, Pageable limit);
 }
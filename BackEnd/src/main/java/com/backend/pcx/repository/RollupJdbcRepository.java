@@ -0,0 +1,116 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.SpeedProfile;
+import com.backend.pcx.entity.SpeedRollup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk reads and writes for the speed_rollup and speed_profile tables. Rollups are replaced
+ * per road inside a time window; writers are serialized and each replacement commits
+ * before the next one starts, so concurrent rebuilds of a road cannot interleave.
+ */
+@Repository
+public class RollupJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final RowMapper<SpeedRollup> ROLLUP_MAPPER = (rs, rowNum) -> new SpeedRollup(
+            rs.getLong("id"),
+            rs.getInt("road_id"),
+            SpeedRollup.Resolution.valueOf(rs.getString("resolution")),
+            rs.getLong("bucket_ts"),
+            rs.getDouble("min_speed"),
+            rs.getDouble("avg_speed"),
+            rs.getDouble("max_speed"),
+            rs.getDouble("p10_speed"),
+            rs.getDouble("p50_speed"),
+            rs.getDouble("p90_speed"),
+            rs.getInt("point_count"));
+
+    private static final RowMapper<SpeedProfile> PROFILE_MAPPER = (rs, rowNum) -> new SpeedProfile(
+            rs.getLong("id"),
+            rs.getInt("road_id"),
+            rs.getBytes("avg_speeds"),
+            rs.getBytes("point_counts"),
+            rs.getLong("updated_at"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RollupJdbcRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public synchronized void replaceRoads(Collection<Integer> roadIds, long fromTs, long toTs,
+                                          List<SpeedRollup> rollups, List<SpeedProfile> profiles) {
+        transactionTemplate.executeWithoutResult(status -> replace(roadIds, fromTs, toTs, rollups, profiles));
+    }
+
+    private void replace(Collection<Integer> roadIds, long fromTs, long toTs,
+                         List<SpeedRollup> rollups, List<SpeedProfile> profiles) {
+        batch("DELETE FROM speed_rollup WHERE road_id = ? AND bucket_ts >= ? AND bucket_ts < ?",
+              roadIds.stream().map(id -> new Object[]{id, fromTs, toTs}).collect(Collectors.toList()));
+        batch("DELETE FROM speed_profile WHERE road_id = ?",
+              roadIds.stream().map(id -> new Object[]{id}).collect(Collectors.toList()));
+
+        insert("INSERT INTO speed_rollup (road_id, resolution, bucket_ts, min_speed, avg_speed, max_speed, " +
+               "p10_speed, p50_speed, p90_speed, point_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+               rollups, (ps, r) -> {
+                   ps.setInt(1, r.getRoadId());
+                   ps.setString(2, r.getResolution().name());
+                   ps.setLong(3, r.getBucketTs());
+                   ps.setDouble(4, r.getMinSpeed());
+                   ps.setDouble(5, r.getAvgSpeed());
+                   ps.setDouble(6, r.getMaxSpeed());
+                   ps.setDouble(7, r.getP10Speed());
+                   ps.setDouble(8, r.getP50Speed());
+                   ps.setDouble(9, r.getP90Speed());
+                   ps.setInt(10, r.getPointCount());
+               });
+
+        insert("INSERT INTO speed_profile (road_id, avg_speeds, point_counts, updated_at) VALUES (?, ?, ?, ?)",
+               profiles, (ps, p) -> {
+                   ps.setInt(1, p.getRoadId());
+                   ps.setBytes(2, p.getAvgSpeeds());
+                   ps.setBytes(3, p.getPointCounts());
+                   ps.setLong(4, p.getUpdatedAt());
+               });
+    }
+
+    public List<SpeedRollup> findRollups(Integer roadId, SpeedRollup.Resolution resolution, long fromTs, long toTs) {
+        return jdbcTemplate.query(
+                "SELECT * FROM speed_rollup WHERE road_id = ? AND resolution = ? AND bucket_ts BETWEEN ? AND ? " +
+                "ORDER BY bucket_ts",
+                ROLLUP_MAPPER, roadId, resolution.name(), fromTs, toTs);
+    }
+
+    public SpeedProfile findProfile(Integer roadId) {
+        List<SpeedProfile> profiles = jdbcTemplate.query(
+                "SELECT * FROM speed_profile WHERE road_id = ?", PROFILE_MAPPER, roadId);
+        return profiles.isEmpty() ? null : profiles.get(0);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT road_id FROM speed_profile LIMIT 1", Integer.class).isEmpty();
+    }
+
+    private <T> void insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, setter);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
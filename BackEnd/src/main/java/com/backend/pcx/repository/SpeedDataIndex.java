@@ -0,0 +1,312 @@
+package com.backend.pcx.repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary sidecar for a speeddata CSV. Layout:
+ * header (magic, version, source size, source mtime, road count, day count),
+ * a directory sorted by road_id of (roadId, pointCount, blockOffset),
+ * then one block per road holding pointCount ts longs followed by pointCount speed doubles, sorted by ts.
+ */
+public final class SpeedDataIndex {
+
+    private static final int MAGIC = 0x53504458;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int DIRECTORY_ENTRY_BYTES = 16;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+
+    private final Path indexPath;
+    private final long sourceSize;
+    private final long sourceMtime;
+    private final int dayCount;
+    private final int[] roadIds;
+    private final int[] pointCounts;
+    private final long[] blockOffsets;
+    private volatile ByteBuffer mapped;
+
+    private SpeedDataIndex(Path indexPath, long sourceSize, long sourceMtime, int dayCount,
+                           int[] roadIds, int[] pointCounts, long[] blockOffsets) {
+        this.indexPath = indexPath;
+        this.sourceSize = sourceSize;
+        this.sourceMtime = sourceMtime;
+        this.dayCount = dayCount;
+        this.roadIds = roadIds;
+        this.pointCounts = pointCounts;
+        this.blockOffsets = blockOffsets;
+    }
+
+    public static SpeedDataIndex openOrBuild(Path csvPath, Path indexPath, Long baseDate) throws IOException {
+        long size = Files.size(csvPath);
+        long mtime = Files.getLastModifiedTime(csvPath).toMillis();
+
+        if (Files.exists(indexPath)) {
+            SpeedDataIndex existing = open(indexPath);
+            if (existing != null && existing.matches(size, mtime)) {
+                return existing;
+            }
+        }
+
+        build(csvPath, indexPath, baseDate, size, mtime);
+        return open(indexPath);
+    }
+
+    public boolean isFresh(Path csvPath) {
+        try {
+            return matches(Files.size(csvPath), Files.getLastModifiedTime(csvPath).toMillis());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int getRoadCount() {
+        return roadIds.length;
+    }
+
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    public int[] getRoadIds() {
+        return roadIds.clone();
+    }
+
+    public int getPointCount(int roadId) {
+        int slot = Arrays.binarySearch(roadIds, roadId);
+        return slot < 0 ? 0 : pointCounts[slot];
+    }
+
+    public ByteBuffer mapBlock(int roadId) throws IOException {
+        int slot = Arrays.binarySearch(roadIds, roadId);
+        if (slot < 0 || pointCounts[slot] == 0) {
+            return null;
+        }
+
+        int length = pointCounts[slot] * 16;
+        ByteBuffer file = mapped();
+        if (file == null) {
+            return readBlock(blockOffsets[slot], length);
+        }
+        return file.slice((int) blockOffsets[slot], length);
+    }
+
+    private ByteBuffer mapped() throws IOException {
+        ByteBuffer buffer = mapped;
+        if (buffer != null) {
+            return buffer;
+        }
+        synchronized (this) {
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                    if (channel.size() > Integer.MAX_VALUE) {
+                        return null;
+                    }
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            return mapped;
+        }
+    }
+
+    private ByteBuffer readBlock(long position, int length) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            while (block.hasRemaining()) {
+                int read = channel.read(block, position + block.position());
+                if (read < 0) {
+                    throw new IOException("Truncated speed index: " + indexPath);
+                }
+            }
+        }
+        block.flip();
+        return block.asReadOnlyBuffer();
+    }
+
+    private boolean matches(long size, long mtime) {
+        return sourceSize == size && sourceMtime == mtime;
+    }
+
+    private static SpeedDataIndex open(Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (channel.read(header, 0) < HEADER_BYTES) {
+                return null;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return null;
+            }
+            long sourceSize = header.getLong();
+            long sourceMtime = header.getLong();
+            int roadCount = header.getInt();
+            int dayCount = header.getInt();
+
+            ByteBuffer directory = ByteBuffer.allocate(roadCount * DIRECTORY_ENTRY_BYTES);
+            while (directory.hasRemaining()) {
+                if (channel.read(directory, HEADER_BYTES + directory.position()) < 0) {
+                    return null;
+                }
+            }
+            directory.flip();
+
+            int[] roadIds = new int[roadCount];
+            int[] pointCounts = new int[roadCount];
+            long[] blockOffsets = new long[roadCount];
+            for (int i = 0; i < roadCount; i++) {
+                roadIds[i] = directory.getInt();
+                pointCounts[i] = directory.getInt();
+                blockOffsets[i] = directory.getLong();
+            }
+
+            return new SpeedDataIndex(indexPath, sourceSize, sourceMtime, dayCount, roadIds, pointCounts, blockOffsets);
+        }
+    }
+
+    private static void build(Path csvPath, Path indexPath, Long baseDate, long size, long mtime) throws IOException {
+        Map<Integer, RoadColumns> roads = new HashMap<>();
+        BitSet days = new BitSet();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+
+                int roadId;
+                try {
+                    roadId = Integer.parseInt(parts[0].trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                RoadColumns columns = roads.computeIfAbsent(roadId, k -> new RoadColumns());
+
+                if (parts.length < 2) continue;
+                int dayId;
+                try {
+                    dayId = Integer.parseInt(parts[1].trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (dayId >= 0) {
+                    days.set(dayId);
+                }
+
+                if (parts.length < 4 || baseDate == null) continue;
+                try {
+                    int timeId = Integer.parseInt(parts[2].trim());
+                    String speedStr = parts[3].trim();
+
+                    if (speedStr.isEmpty() || !speedStr.matches("-?\\d+(\\.\\d+)?")) {
+                        continue;
+                    }
+
+                    double speed = Double.parseDouble(speedStr);
+                    if (speed <= 0) continue;
+
+                    long ts = baseDate + (dayId - 1) * 24L * 60 * 60 * 1000 + (timeId - 1) * TEN_MINUTES_MS;
+                    columns.add(ts, speed);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+        }
+
+        int[] roadIds = roads.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        long dataStart = HEADER_BYTES + (long) roadIds.length * DIRECTORY_ENTRY_BYTES;
+
+        Files.createDirectories(indexPath.getParent());
+        Path tmpPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer head = ByteBuffer.allocate((int) dataStart);
+            head.putInt(MAGIC);
+            head.putInt(VERSION);
+            head.putLong(size);
+            head.putLong(mtime);
+            head.putInt(roadIds.length);
+            head.putInt(days.cardinality());
+
+            long offset = dataStart;
+            for (int roadId : roadIds) {
+                RoadColumns columns = roads.get(roadId);
+                head.putInt(roadId);
+                head.putInt(columns.size);
+                head.putLong(offset);
+                offset += columns.size * 16L;
+            }
+            head.flip();
+            writeFully(channel, head);
+
+            for (int roadId : roadIds) {
+                RoadColumns columns = roads.get(roadId);
+                columns.sortByTs();
+                ByteBuffer block = ByteBuffer.allocate(columns.size * 16);
+                block.asLongBuffer().put(columns.ts, 0, columns.size);
+                block.position(columns.size * 8);
+                block.asDoubleBuffer().put(columns.speed, 0, columns.size);
+                block.rewind();
+                writeFully(channel, block);
+            }
+            channel.force(true);
+        }
+
+        Files.move(tmpPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class RoadColumns {
+        private long[] ts = new long[256];
+        private double[] speed = new double[256];
+        private int size;
+        private boolean sorted = true;
+
+        void add(long t, double s) {
+            if (size == ts.length) {
+                ts = Arrays.copyOf(ts, size * 2);
+                speed = Arrays.copyOf(speed, size * 2);
+            }
+            if (size > 0 && t < ts[size - 1]) {
+                sorted = false;
+            }
+            ts[size] = t;
+            speed[size] = s;
+            size++;
+        }
+
+        void sortByTs() {
+            if (sorted) return;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(ts[a], ts[b]));
+            long[] sortedTs = new long[size];
+            double[] sortedSpeed = new double[size];
+            for (int i = 0; i < size; i++) {
+                sortedTs[i] = ts[order[i]];
+                sortedSpeed[i] = speed[order[i]];
+            }
+            ts = sortedTs;
+            speed = sortedSpeed;
+            sorted = true;
+        }
+    }
+}
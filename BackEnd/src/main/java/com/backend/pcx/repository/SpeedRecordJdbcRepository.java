@@ -0,0 +1,181 @@
+package com.backend.pcx.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Raw speed storage in the speed_record table for app.storage.mode=db. Files are loaded
+ * with JDBC batches (no entities), and a road's series is read back through a (ts, speed)
+ * projection straight into primitive arrays. The rows of a data file are identified by
+ * the per-road ts ranges recorded in road_file_aggregate. Writes commit batch by batch;
+ * a partially loaded file is cleared by the next full import of it.
+ */
+@Repository
+public class SpeedRecordJdbcRepository {
+
+    private static final int BATCH_SIZE = 5000;
+    private static final int FLUSH_ROWS = 2_000_000;
+    private static final int DELETE_BATCH_SIZE = 500;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+    private static final Pattern SPEED = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SpeedRecordJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the valid rows of a CSV data file (same rules as the ingest pipeline) for
+     * roads that already have a segment; returns the number of rows written. Rows are
+     * buffered per road and written road by road, so a road's rows end up adjacent in the
+     * table, which keeps reads and deletes of a series local.
+     */
+    public long insertCsv(Path csvPath, Long baseDate) {
+        if (baseDate == null) {
+            return 0;
+        }
+        Map<Integer, Long> segmentIds = segmentIdsByRoad();
+        Map<Long, SeriesBuilder> buffered = new TreeMap<>();
+        long rows = 0;
+        int pending = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 4) continue;
+                try {
+                    Long segmentId = segmentIds.get(Integer.parseInt(parts[0].trim()));
+                    String speedStr = parts[3].trim();
+                    if (segmentId == null || !SPEED.matcher(speedStr).matches()) continue;
+                    double speed = Double.parseDouble(speedStr);
+                    if (speed <= 0) continue;
+
+                    long ts = baseDate + (Integer.parseInt(parts[1].trim()) - 1) * DAY_MS
+                            + (Integer.parseInt(parts[2].trim()) - 1) * TEN_MINUTES_MS;
+                    buffered.computeIfAbsent(segmentId, k -> new SeriesBuilder()).add(ts, speed);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (++pending == FLUSH_ROWS) {
+                    rows += flush(buffered);
+                    pending = 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows + flush(buffered);
+    }
+
+    private long flush(Map<Long, SeriesBuilder> buffered) {
+        Long written = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long rows = 0;
+            int pending = 0;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO speed_record (segment_id, ts, speed) VALUES (?, ?, ?)")) {
+                for (Map.Entry<Long, SeriesBuilder> road : buffered.entrySet()) {
+                    SeriesBuilder series = road.getValue();
+                    for (int i = 0; i < series.size; i++) {
+                        insert.setLong(1, road.getKey());
+                        insert.setLong(2, series.ts[i]);
+                        insert.setDouble(3, series.speed[i]);
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            rows += pending;
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                    rows += pending;
+                }
+            }
+            return rows;
+        });
+        buffered.clear();
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Removes the rows loaded from a data file; must run before the file's
+     * road_file_aggregate rows are replaced or deleted.
+     */
+    public void deleteFile(String filename) {
+        Map<Integer, Long> segmentIds = segmentIdsByRoad();
+        List<Object[]> ranges = jdbcTemplate.query(
+                "SELECT road_id, min_ts, max_ts FROM road_file_aggregate WHERE filename = ? AND min_ts IS NOT NULL",
+                (rs, rowNum) -> new Object[]{segmentIds.get(rs.getInt(1)), rs.getLong(2), rs.getLong(3)},
+                filename);
+        ranges.removeIf(range -> range[0] == null);
+
+        for (int from = 0; from < ranges.size(); from += DELETE_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("DELETE FROM speed_record WHERE segment_id = ? AND ts BETWEEN ? AND ?",
+                    ranges.subList(from, Math.min(ranges.size(), from + DELETE_BATCH_SIZE)));
+        }
+    }
+
+    public SpeedSeries findSeries(Integer roadId) {
+        SeriesBuilder series = new SeriesBuilder();
+        jdbcTemplate.query(
+                "SELECT r.ts, r.speed FROM speed_record r JOIN road_segment s ON s.id = r.segment_id " +
+                "WHERE s.road_id = ? ORDER BY r.ts",
+                (RowCallbackHandler) rs -> series.add(rs.getLong(1), rs.getDouble(2)),
+                roadId);
+        return series.build();
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT id FROM speed_record LIMIT 1", Long.class).isEmpty();
+    }
+
+    private Map<Integer, Long> segmentIdsByRoad() {
+        Map<Integer, Long> segmentIds = new HashMap<>();
+        jdbcTemplate.query("SELECT road_id, id FROM road_segment",
+                rs -> {
+                    segmentIds.put(rs.getInt(1), rs.getLong(2));
+                });
+        return segmentIds;
+    }
+
+    private static final class SeriesBuilder {
+        private long[] ts = new long[256];
+        private double[] speed = new double[256];
+        private int size;
+
+        void add(long t, double v) {
+            if (size == ts.length) {
+                ts = Arrays.copyOf(ts, size * 2);
+                speed = Arrays.copyOf(speed, size * 2);
+            }
+            ts[size] = t;
+            speed[size] = v;
+            size++;
+        }
+
+        SpeedSeries build() {
+            return size == 0 ? SpeedSeries.EMPTY : SpeedSeries.of(Arrays.copyOf(ts, size), Arrays.copyOf(speed, size));
+        }
+    }
+}
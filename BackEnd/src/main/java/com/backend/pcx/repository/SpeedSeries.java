@@ -0,0 +1,221 @@
+package com.backend.pcx.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only, ts-sorted view over a road's (ts, speed) columns. The columns are either
+ * heap arrays or slices of memory-mapped index blocks; a road that spans several
+ * source files is a chain of such chunks.
+ */
+public final class SpeedSeries extends AbstractList<FileBasedSpeedRepository.SpeedDataPoint> implements RandomAccess {
+
+    public static final SpeedSeries EMPTY = new SpeedSeries(new LongBuffer[0], new DoubleBuffer[0], new int[]{0}, 0, 0);
+
+    private final LongBuffer[] tsChunks;
+    private final DoubleBuffer[] speedChunks;
+    private final int[] chunkStarts;
+    private final int from;
+    private final int to;
+
+    private SpeedSeries(LongBuffer[] tsChunks, DoubleBuffer[] speedChunks, int[] chunkStarts, int from, int to) {
+        this.tsChunks = tsChunks;
+        this.speedChunks = speedChunks;
+        this.chunkStarts = chunkStarts;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static SpeedSeries of(long[] ts, double[] speed) {
+        if (ts.length == 0) {
+            return EMPTY;
+        }
+        return new SpeedSeries(
+                new LongBuffer[]{LongBuffer.wrap(ts).asReadOnlyBuffer()},
+                new DoubleBuffer[]{DoubleBuffer.wrap(speed).asReadOnlyBuffer()},
+                new int[]{0, ts.length}, 0, ts.length);
+    }
+
+    /**
+     * Chains index blocks (ts longs followed by speed doubles) given in source-file order.
+     * Blocks whose time ranges are disjoint are chained without copying; overlapping
+     * blocks are merged onto the heap with a stable sort so equal timestamps keep file order.
+     */
+    public static SpeedSeries fromBlocks(List<ByteBuffer> blocks) {
+        List<LongBuffer> tsList = new ArrayList<>();
+        List<DoubleBuffer> speedList = new ArrayList<>();
+        for (ByteBuffer block : blocks) {
+            int count = block.capacity() / 16;
+            if (count == 0) continue;
+            tsList.add(block.slice(0, count * 8).asLongBuffer());
+            speedList.add(block.slice(count * 8, count * 8).asDoubleBuffer());
+        }
+        if (tsList.isEmpty()) {
+            return EMPTY;
+        }
+
+        Integer[] order = new Integer[tsList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> tsList.get(i).get(0)));
+
+        boolean disjoint = true;
+        for (int i = 1; i < order.length; i++) {
+            LongBuffer prev = tsList.get(order[i - 1]);
+            if (tsList.get(order[i]).get(0) <= prev.get(prev.limit() - 1)) {
+                disjoint = false;
+                break;
+            }
+        }
+
+        if (!disjoint) {
+            return mergeOnHeap(tsList, speedList);
+        }
+
+        LongBuffer[] tsChunks = new LongBuffer[order.length];
+        DoubleBuffer[] speedChunks = new DoubleBuffer[order.length];
+        int[] chunkStarts = new int[order.length + 1];
+        for (int i = 0; i < order.length; i++) {
+            tsChunks[i] = tsList.get(order[i]);
+            speedChunks[i] = speedList.get(order[i]);
+            chunkStarts[i + 1] = chunkStarts[i] + tsChunks[i].limit();
+        }
+        return new SpeedSeries(tsChunks, speedChunks, chunkStarts, 0, chunkStarts[order.length]);
+    }
+
+    private static SpeedSeries mergeOnHeap(List<LongBuffer> tsList, List<DoubleBuffer> speedList) {
+        int total = tsList.stream().mapToInt(LongBuffer::limit).sum();
+        long[] ts = new long[total];
+        double[] speed = new double[total];
+        int pos = 0;
+        for (int c = 0; c < tsList.size(); c++) {
+            int n = tsList.get(c).limit();
+            tsList.get(c).get(0, ts, pos, n);
+            speedList.get(c).get(0, speed, pos, n);
+            pos += n;
+        }
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> ts[i]));
+        long[] sortedTs = new long[total];
+        double[] sortedSpeed = new double[total];
+        for (int i = 0; i < total; i++) {
+            sortedTs[i] = ts[order[i]];
+            sortedSpeed[i] = speed[order[i]];
+        }
+        return of(sortedTs, sortedSpeed);
+    }
+
+    /**
+     * Zero-copy view of the points with fromTs <= ts <= toTs; a null bound is open.
+     */
+    public SpeedSeries range(Long fromTs, Long toTs) {
+        int start = fromTs == null ? 0 : lowerBound(fromTs);
+        int end = toTs == null ? size() : upperBound(toTs);
+        return slice(start, Math.max(start, end));
+    }
+
+    public SpeedSeries slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") of " + size());
+        }
+        if (fromIndex == 0 && toIndex == size()) {
+            return this;
+        }
+        return new SpeedSeries(tsChunks, speedChunks, chunkStarts, from + fromIndex, from + toIndex);
+    }
+
+    @Override
+    public SpeedSeries subList(int fromIndex, int toIndex) {
+        return slice(fromIndex, toIndex);
+    }
+
+    public int lowerBound(long ts) {
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getTs(mid) < ts) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public int upperBound(long ts) {
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getTs(mid) <= ts) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public long getTs(int index) {
+        int raw = from + index;
+        int chunk = chunkOf(raw);
+        return tsChunks[chunk].get(raw - chunkStarts[chunk]);
+    }
+
+    public double getSpeed(int index) {
+        int raw = from + index;
+        int chunk = chunkOf(raw);
+        return speedChunks[chunk].get(raw - chunkStarts[chunk]);
+    }
+
+    @Override
+    public FileBasedSpeedRepository.SpeedDataPoint get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        FileBasedSpeedRepository.SpeedDataPoint point = new FileBasedSpeedRepository.SpeedDataPoint();
+        point.setTs(getTs(index));
+        point.setSpeed(getSpeed(index));
+        return point;
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    public long sizeInBytes() {
+        return size() * 16L;
+    }
+
+    /**
+     * Binary search over the chunk offsets, so a road chained from many delta files still
+     * costs O(log chunks) per access.
+     */
+    private int chunkOf(int raw) {
+        int lo = 0;
+        int hi = tsChunks.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (chunkStarts[mid] <= raw) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,15 @@
+package com.backend.pcx.repository;
+
+import com.backend.pcx.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByStatus(UploadSession.UploadStatus status);
+
+    List<UploadSession> findByStatusAndUpdatedAtLessThan(UploadSession.UploadStatus status, Long before);
+}
@@ -0,0 +1,436 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.BacktestMetricDTO;
+import com.backend.pcx.dto.BacktestRequest;
+import com.backend.pcx.dto.BacktestRunDTO;
+import com.backend.pcx.entity.BacktestMetric;
+import com.backend.pcx.entity.BacktestMetric.Dimension;
+import com.backend.pcx.entity.BacktestRun;
+import com.backend.pcx.entity.BacktestRun.RunStatus;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.predictor.TrafficPredictor;
+import com.backend.pcx.predictor.WindowedPredictor;
+import com.backend.pcx.repository.BacktestJdbcRepository;
+import com.backend.pcx.repository.BacktestMetricRepository;
+import com.backend.pcx.repository.BacktestRunRepository;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Rolling-origin backtests: every road's history is laid onto a dense 10-minute grid,
+ * the predictor forecasts from each origin on the grid and the forecasts are scored
+ * against the observed speeds. Roads are evaluated in parallel on a fork-join pool,
+ * entirely on primitive arrays; results are stored per road, region, step and hour.
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+
+    private static final long STEP_MS = 10L * 60 * 1000;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final int HOURS = 24;
+    private static final int DEFAULT_HORIZON_STEPS = 12;
+    private static final int MAX_HORIZON_STEPS = 144;
+
+    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+    private final RoadSegmentRepository roadSegmentRepository;
+    private final PredictorRegistry predictorRegistry;
+    private final BacktestRunRepository backtestRunRepository;
+    private final BacktestMetricRepository backtestMetricRepository;
+    private final BacktestJdbcRepository backtestJdbcRepository;
+
+    @Value("${app.backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.rollup.zone:Asia/Shanghai}")
+    private String zoneName;
+
+    private ZoneId zone;
+    private ExecutorService runExecutor;
+    private ForkJoinPool pool;
+
+    public BacktestService(FileBasedSpeedRepository fileBasedSpeedRepository,
+                           RoadSegmentRepository roadSegmentRepository,
+                           PredictorRegistry predictorRegistry,
+                           BacktestRunRepository backtestRunRepository,
+                           BacktestMetricRepository backtestMetricRepository,
+                           BacktestJdbcRepository backtestJdbcRepository) {
+        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+        this.roadSegmentRepository = roadSegmentRepository;
+        this.predictorRegistry = predictorRegistry;
+        this.backtestRunRepository = backtestRunRepository;
+        this.backtestMetricRepository = backtestMetricRepository;
+        this.backtestJdbcRepository = backtestJdbcRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        zone = ZoneId.of(zoneName);
+        runExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "backtest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("backtest-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+
+        int interrupted = backtestRunRepository.failUnfinished(
+                List.of(RunStatus.PENDING, RunStatus.PROCESSING),
+                RunStatus.FAILED, "Interrupted by restart", System.currentTimeMillis());
+        if (interrupted > 0) {
+            logger.warn("Marked {} unfinished backtest runs as failed", interrupted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    public BacktestRunDTO submit(BacktestRequest request) {
+        TrafficPredictor predictor = predictorRegistry.get(request.getPredictorType());
+        if (!(predictor instanceof WindowedPredictor windowed)) {
+            throw new IllegalArgumentException("Predictor " + predictor.getPredictorType() + " does not support backtesting");
+        }
+        int horizonSteps = request.getHorizonSteps() != null ? request.getHorizonSteps() : DEFAULT_HORIZON_STEPS;
+        if (horizonSteps < 1 || horizonSteps > MAX_HORIZON_STEPS) {
+            throw new IllegalArgumentException("horizonSteps must be between 1 and " + MAX_HORIZON_STEPS);
+        }
+        int originStride = request.getOriginStride() != null ? request.getOriginStride() : 1;
+        if (originStride < 1) {
+            throw new IllegalArgumentException("originStride must be positive");
+        }
+
+        BacktestRun run = new BacktestRun();
+        run.setPredictorType(predictor.getPredictorType());
+        run.setStatus(RunStatus.PENDING);
+        run.setHorizonSteps(horizonSteps);
+        run.setOriginStride(originStride);
+        run.setFromTs(request.getFromTs());
+        run.setToTs(request.getToTs());
+        run.setRegion(request.getRegion() == null || request.getRegion().isEmpty() ? null : request.getRegion());
+        run.setCreatedAt(System.currentTimeMillis());
+        BacktestRun saved = backtestRunRepository.save(run);
+
+        runExecutor.submit(() -> run(saved, windowed));
+        return toDTO(saved, false);
+    }
+
+    public BacktestRunDTO getRun(Long runId) {
+        return backtestRunRepository.findById(runId).map(run -> toDTO(run, true)).orElse(null);
+    }
+
+    public Page<BacktestRunDTO> getRuns(String predictorType, Integer page, Integer size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        Page<BacktestRun> runs = predictorType == null || predictorType.isEmpty()
+                ? backtestRunRepository.findAllByOrderByCreatedAtDesc(pageable)
+                : backtestRunRepository.findByPredictorTypeOrderByCreatedAtDesc(
+                        predictorRegistry.get(predictorType).getPredictorType(), pageable);
+        return runs.map(run -> toDTO(run, false));
+    }
+
+    /**
+     * Per-road metrics of a run, worst MAE first.
+     */
+    public Page<BacktestMetricDTO> getRoadMetrics(Long runId, Integer page, Integer size) {
+        return backtestMetricRepository
+                .findByRunIdAndDimension(runId, Dimension.ROAD, PageRequest.of(page, size, Sort.by("mae").descending()))
+                .map(BacktestService::toDTO);
+    }
+
+    private void run(BacktestRun run, WindowedPredictor predictor) {
+        long start = System.currentTimeMillis();
+        try {
+            run.setStatus(RunStatus.PROCESSING);
+            backtestRunRepository.save(run);
+
+            List<RoadSegment> segments = new ArrayList<>(run.getRegion() == null
+                    ? roadSegmentRepository.findAll()
+                    : roadSegmentRepository.findByRegion(run.getRegion()));
+            segments.sort(Comparator.comparing(RoadSegment::getRoadId));
+
+            Errors[] roadErrors = new Errors[segments.size()];
+            Accumulator total = pool.invoke(new RoadTask(segments, roadErrors, 0, segments.size(),
+                    new Settings(predictor, run.getHorizonSteps(), run.getOriginStride(), run.getFromTs(), run.getToTs())));
+
+            List<BacktestMetric> metrics = new ArrayList<>();
+            Map<String, Errors> regions = new LinkedHashMap<>();
+            int roadCount = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                Errors errors = roadErrors[i];
+                if (errors == null || errors.count == 0) continue;
+                roadCount++;
+                RoadSegment segment = segments.get(i);
+                metrics.add(errors.toMetric(run.getId(), Dimension.ROAD, segment.getRoadId().toString()));
+                String region = segment.getRegion() == null ? "" : segment.getRegion();
+                regions.computeIfAbsent(region, k -> new Errors()).merge(errors);
+            }
+            regions.forEach((region, errors) -> metrics.add(errors.toMetric(run.getId(), Dimension.REGION, region)));
+            for (int h = 0; h < total.steps.length; h++) {
+                metrics.add(total.steps[h].toMetric(run.getId(), Dimension.STEP, Integer.toString(h + 1)));
+            }
+            for (int hour = 0; hour < HOURS; hour++) {
+                metrics.add(total.hours[hour].toMetric(run.getId(), Dimension.HOUR, Integer.toString(hour)));
+            }
+            backtestJdbcRepository.insertMetrics(metrics);
+
+            Errors overall = total.overall;
+            run.setRoadCount(roadCount);
+            run.setEvaluations(overall.count);
+            run.setMae(overall.mae());
+            run.setRmse(overall.rmse());
+            run.setMape(overall.mape());
+            run.setStatus(RunStatus.COMPLETED);
+            logger.info("Backtest {} ({}) finished: {} evaluations over {} roads in {}ms, MAE {}",
+                    run.getId(), run.getPredictorType(), overall.count, run.getRoadCount(),
+                    System.currentTimeMillis() - start, run.getMae());
+        } catch (Exception e) {
+            logger.error("Backtest {} failed", run.getId(), e);
+            run.setStatus(RunStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            run.setErrorMessage(message.length() > 255 ? message.substring(0, 255) : message);
+        }
+        run.setDurationMs(System.currentTimeMillis() - start);
+        run.setFinishedAt(System.currentTimeMillis());
+        backtestRunRepository.save(run);
+    }
+
+    /**
+     * Scores one road: the series is placed on the grid starting at its first point, gaps
+     * are carried forward for the input windows, and only observed slots count as actuals.
+     * Origins are observed slots with a full window behind them.
+     */
+    private void evaluateRoad(Integer roadId, Settings settings, Errors road, Accumulator total) {
+        SpeedSeries series = fileBasedSpeedRepository.readSeries(roadId).range(settings.fromTs, settings.toTs);
+        if (series.isEmpty()) {
+            return;
+        }
+        long t0 = series.getTs(0);
+        int size = (int) Math.round((series.getTs(series.size() - 1) - t0) / (double) STEP_MS) + 1;
+        double[] actual = new double[size];
+        Arrays.fill(actual, Double.NaN);
+        for (int i = 0; i < series.size(); i++) {
+            actual[(int) Math.round((series.getTs(i) - t0) / (double) STEP_MS)] = series.getSpeed(i);
+        }
+        double[] filled = actual.clone();
+        for (int i = 1; i < size; i++) {
+            if (Double.isNaN(filled[i])) {
+                filled[i] = filled[i - 1];
+            }
+        }
+
+        int n = Math.max(1, settings.predictor.getHistorySteps());
+        int horizon = settings.horizonSteps;
+        long offset = zone.getRules().getOffset(Instant.ofEpochMilli(t0)).getTotalSeconds() * 1000L;
+        double[] window = new double[n];
+        for (int origin = n - 1; origin < size - 1; origin += settings.originStride) {
+            if (Double.isNaN(actual[origin])) continue;
+            System.arraycopy(filled, origin - n + 1, window, 0, n);
+            long baseTime = t0 + origin * STEP_MS;
+            double[] forecast = settings.predictor.forecast(window, baseTime, horizon);
+
+            int steps = Math.min(horizon, size - 1 - origin);
+            for (int h = 1; h <= steps; h++) {
+                double observed = actual[origin + h];
+                if (Double.isNaN(observed)) continue;
+                double predicted = Math.max(0.0, forecast[h - 1]);
+                int hour = (int) (Math.floorMod(baseTime + h * STEP_MS + offset, DAY_MS) / HOUR_MS);
+                road.add(observed, predicted);
+                total.steps[h - 1].add(observed, predicted);
+                total.hours[hour].add(observed, predicted);
+            }
+        }
+        total.overall.merge(road);
+    }
+
+    private BacktestRunDTO toDTO(BacktestRun run, boolean withBreakdown) {
+        List<BacktestMetricDTO> steps = null;
+        List<BacktestMetricDTO> hours = null;
+        List<BacktestMetricDTO> regions = null;
+        if (withBreakdown && run.getStatus() == RunStatus.COMPLETED) {
+            steps = metrics(run.getId(), Dimension.STEP);
+            hours = metrics(run.getId(), Dimension.HOUR);
+            regions = metrics(run.getId(), Dimension.REGION);
+        }
+        return new BacktestRunDTO(
+                run.getId(),
+                run.getPredictorType(),
+                run.getStatus(),
+                run.getHorizonSteps(),
+                run.getOriginStride(),
+                run.getFromTs(),
+                run.getToTs(),
+                run.getRegion(),
+                run.getRoadCount(),
+                run.getEvaluations(),
+                run.getMae(),
+                run.getRmse(),
+                run.getMape(),
+                run.getDurationMs(),
+                run.getErrorMessage(),
+                run.getCreatedAt(),
+                run.getFinishedAt(),
+                steps,
+                hours,
+                regions
+        );
+    }
+
+    private List<BacktestMetricDTO> metrics(Long runId, Dimension dimension) {
+        return backtestMetricRepository.findByRunIdAndDimensionOrderByIdAsc(runId, dimension).stream()
+                .map(BacktestService::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private static BacktestMetricDTO toDTO(BacktestMetric metric) {
+        return new BacktestMetricDTO(metric.getKey(), metric.getEvaluations(),
+                metric.getMae(), metric.getRmse(), metric.getMape());
+    }
+
+    private record Settings(WindowedPredictor predictor, int horizonSteps, int originStride, Long fromTs, Long toTs) {
+    }
+
+    /**
+     * Splits the road list in halves down to single roads; each leaf writes its road's
+     * errors into its own slot and the step/hour totals are merged on the way up.
+     */
+    private final class RoadTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<RoadSegment> segments;
+        private final Errors[] roadErrors;
+        private final int from;
+        private final int to;
+        private final Settings settings;
+
+        RoadTask(List<RoadSegment> segments, Errors[] roadErrors, int from, int to, Settings settings) {
+            this.segments = segments;
+            this.roadErrors = roadErrors;
+            this.from = from;
+            this.to = to;
+            this.settings = settings;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= 1) {
+                Accumulator accumulator = new Accumulator(settings.horizonSteps);
+                if (from < to) {
+                    Errors road = new Errors();
+                    evaluateRoad(segments.get(from).getRoadId(), settings, road, accumulator);
+                    roadErrors[from] = road;
+                }
+                return accumulator;
+            }
+            int mid = (from + to) >>> 1;
+            RoadTask left = new RoadTask(segments, roadErrors, from, mid, settings);
+            left.fork();
+            Accumulator right = new RoadTask(segments, roadErrors, mid, to, settings).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    private static final class Accumulator {
+        private final Errors overall = new Errors();
+        private final Errors[] steps;
+        private final Errors[] hours = new Errors[HOURS];
+
+        Accumulator(int horizonSteps) {
+            steps = new Errors[horizonSteps];
+            for (int i = 0; i < horizonSteps; i++) {
+                steps[i] = new Errors();
+            }
+            for (int i = 0; i < HOURS; i++) {
+                hours[i] = new Errors();
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            overall.merge(other.overall);
+            for (int i = 0; i < steps.length; i++) {
+                steps[i].merge(other.steps[i]);
+            }
+            for (int i = 0; i < HOURS; i++) {
+                hours[i].merge(other.hours[i]);
+            }
+            return this;
+        }
+    }
+
+    private static final class Errors {
+        private long count;
+        private double absSum;
+        private double squaredSum;
+        private long percentCount;
+        private double percentSum;
+
+        void add(double observed, double predicted) {
+            double error = predicted - observed;
+            count++;
+            absSum += Math.abs(error);
+            squaredSum += error * error;
+            if (observed > 0) {
+                percentCount++;
+                percentSum += Math.abs(error) / observed;
+            }
+        }
+
+        void merge(Errors other) {
+            count += other.count;
+            absSum += other.absSum;
+            squaredSum += other.squaredSum;
+            percentCount += other.percentCount;
+            percentSum += other.percentSum;
+        }
+
+        Double mae() {
+            return count == 0 ? null : absSum / count;
+        }
+
+        Double rmse() {
+            return count == 0 ? null : Math.sqrt(squaredSum / count);
+        }
+
+        Double mape() {
+            return percentCount == 0 ? null : 100 * percentSum / percentCount;
+        }
+
+        BacktestMetric toMetric(Long runId, Dimension dimension, String key) {
+            return new BacktestMetric(null, runId, dimension, key, count, mae(), rmse(), mape());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.BatchPredictRequest;
+import com.backend.pcx.dto.PredictionBatchDTO;
+import com.backend.pcx.entity.PredictionBatch;
+import com.backend.pcx.entity.PredictionBatch.BatchStatus;
+import com.backend.pcx.entity.PredictionJob;
+import com.backend.pcx.entity.PredictionPoint;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.repository.PredictionBatchRepository;
+import com.backend.pcx.repository.PredictionJdbcRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs predictions for many segments as one batch: segments are forecast in parallel
+ * on a bounded pool and the results are written in chunks through batched JDBC inserts.
+ */
+@Service
+public class BatchPredictionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchPredictionService.class);
+
+    private static final int FLUSH_SEGMENTS = 200;
+    private static final int DEFAULT_HORIZON_STEPS = 6;
+
+    private final PredictionService predictionService;
+    private final PredictionBatchRepository predictionBatchRepository;
+    private final PredictionJdbcRepository predictionJdbcRepository;
+    private final RoadSegmentRepository roadSegmentRepository;
+    private final PredictorRegistry predictorRegistry;
+
+    @Value("${app.prediction.batch-threads:4}")
+    private int batchThreads;
+
+    private ExecutorService batchExecutor;
+    private ExecutorService predictExecutor;
+
+    public BatchPredictionService(PredictionService predictionService,
+                                  PredictionBatchRepository predictionBatchRepository,
+                                  PredictionJdbcRepository predictionJdbcRepository,
+                                  RoadSegmentRepository roadSegmentRepository,
+                                  PredictorRegistry predictorRegistry) {
+        this.predictionService = predictionService;
+        this.predictionBatchRepository = predictionBatchRepository;
+        this.predictionJdbcRepository = predictionJdbcRepository;
+        this.roadSegmentRepository = roadSegmentRepository;
+        this.predictorRegistry = predictorRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        batchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "predict-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadId = new AtomicInteger();
+        predictExecutor = Executors.newFixedThreadPool(Math.max(1, batchThreads), r -> {
+            Thread thread = new Thread(r, "predict-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        int interrupted = predictionBatchRepository.failUnfinished(
+                List.of(BatchStatus.PENDING, BatchStatus.PROCESSING),
+                BatchStatus.FAILED, "Interrupted by restart", System.currentTimeMillis());
+        if (interrupted > 0) {
+            logger.warn("Marked {} unfinished prediction batches as failed", interrupted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+        predictExecutor.shutdownNow();
+    }
+
+    public PredictionBatchDTO submit(BatchPredictRequest request) {
+        List<RoadSegment> segments;
+        String scope;
+        if (Boolean.TRUE.equals(request.getAll())) {
+            segments = roadSegmentRepository.findAll();
+            scope = "all";
+        } else if (request.getRegion() != null && !request.getRegion().isEmpty()) {
+            segments = roadSegmentRepository.findByRegion(request.getRegion());
+            scope = "region:" + request.getRegion();
+        } else if (request.getSegmentIds() != null && !request.getSegmentIds().isEmpty()) {
+            segments = roadSegmentRepository.findAllById(request.getSegmentIds());
+            scope = "segments:" + request.getSegmentIds().size();
+        } else {
+            throw new IllegalArgumentException("One of all, region or segmentIds is required");
+        }
+
+        int horizonSteps = request.getHorizonSteps() != null ? request.getHorizonSteps() : DEFAULT_HORIZON_STEPS;
+        if (horizonSteps < 1) {
+            throw new IllegalArgumentException("horizonSteps must be positive");
+        }
+        String predictorType = predictorRegistry.get(request.getPredictorType()).getPredictorType();
+
+        PredictionBatch batch = new PredictionBatch();
+        batch.setScope(scope);
+        batch.setStatus(BatchStatus.PENDING);
+        batch.setBaseTime(request.getBaseTime());
+        batch.setHorizonSteps(horizonSteps);
+        batch.setPredictorType(predictorType);
+        batch.setTotalSegments(segments.size());
+        batch.setSuccessCount(0);
+        batch.setFailCount(0);
+        batch.setProgress(0);
+        batch.setCreatedAt(System.currentTimeMillis());
+        PredictionBatch saved = predictionBatchRepository.save(batch);
+
+        batchExecutor.submit(() -> run(saved, segments));
+        return toDTO(saved);
+    }
+
+    /**
+     * Forecasts the segments on the shared prediction pool without persisting anything;
+     * segments that cannot be forecast are left out.
+     */
+    public List<PredictionService.Forecast> forecastAll(Collection<RoadSegment> segments, Long baseTime,
+                                                        int horizonSteps, String predictorType)
+            throws InterruptedException {
+        List<Future<PredictionService.Forecast>> futures = new ArrayList<>(segments.size());
+        for (RoadSegment segment : segments) {
+            futures.add(predictExecutor.submit(
+                    () -> predictionService.forecast(segment, baseTime, horizonSteps, predictorType)));
+        }
+
+        List<PredictionService.Forecast> forecasts = new ArrayList<>(futures.size());
+        for (Future<PredictionService.Forecast> future : futures) {
+            try {
+                forecasts.add(future.get());
+            } catch (ExecutionException e) {
+                continue;
+            }
+        }
+        return forecasts;
+    }
+
+    public PredictionBatchDTO getBatch(Long batchId) {
+        return predictionBatchRepository.findById(batchId).map(this::toDTO).orElse(null);
+    }
+
+    private void run(PredictionBatch batch, List<RoadSegment> segments) {
+        long start = System.currentTimeMillis();
+        try {
+            batch.setStatus(BatchStatus.PROCESSING);
+            predictionBatchRepository.save(batch);
+
+            CompletionService<PredictionService.Forecast> completion = new ExecutorCompletionService<>(predictExecutor);
+            for (RoadSegment segment : segments) {
+                completion.submit(() -> predictionService.forecast(segment, batch.getBaseTime(),
+                        batch.getHorizonSteps(), batch.getPredictorType()));
+            }
+
+            List<PredictionJob> jobs = new ArrayList<>(FLUSH_SEGMENTS);
+            List<List<PredictionPoint>> points = new ArrayList<>(FLUSH_SEGMENTS);
+            int done = 0;
+            int failed = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                Future<PredictionService.Forecast> future = completion.take();
+                try {
+                    PredictionService.Forecast forecast = future.get();
+                    forecast.getJob().setBatchId(batch.getId());
+                    jobs.add(forecast.getJob());
+                    points.add(forecast.getPoints());
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+                done++;
+
+                if (jobs.size() == FLUSH_SEGMENTS || done == segments.size()) {
+                    predictionJdbcRepository.insertAll(jobs, points);
+                    batch.setSuccessCount(batch.getSuccessCount() + jobs.size());
+                    batch.setFailCount(failed);
+                    batch.setProgress(segments.isEmpty() ? 100 : done * 100 / segments.size());
+                    predictionBatchRepository.save(batch);
+                    jobs.clear();
+                    points.clear();
+                }
+            }
+
+            batch.setFailCount(failed);
+            batch.setProgress(100);
+            batch.setStatus(BatchStatus.COMPLETED);
+            logger.info("Prediction batch {} finished: {} ok, {} failed in {}ms",
+                    batch.getId(), batch.getSuccessCount(), failed, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.setStatus(BatchStatus.FAILED);
+            batch.setErrorMessage("Interrupted");
+        } catch (Exception e) {
+            logger.error("Prediction batch {} failed", batch.getId(), e);
+            batch.setStatus(BatchStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            batch.setErrorMessage(message.length() > 255 ? message.substring(0, 255) : message);
+        }
+        batch.setFinishedAt(System.currentTimeMillis());
+        predictionBatchRepository.save(batch);
+    }
+
+    private PredictionBatchDTO toDTO(PredictionBatch batch) {
+        return new PredictionBatchDTO(
+                batch.getId(),
+                batch.getScope(),
+                batch.getStatus(),
+                batch.getBaseTime(),
+                batch.getHorizonSteps(),
+                batch.getPredictorType(),
+                batch.getTotalSegments(),
+                batch.getSuccessCount(),
+                batch.getFailCount(),
+                batch.getProgress(),
+                batch.getErrorMessage(),
+                batch.getCreatedAt(),
+                batch.getFinishedAt()
+        );
+    }
+}
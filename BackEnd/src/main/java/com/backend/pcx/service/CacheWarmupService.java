@@ -0,0 +1,202 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.WarmupStatusDTO;
+import com.backend.pcx.dto.WarmupStatusDTO.WarmupState;
+import com.backend.pcx.entity.SegmentStatistics;
+import com.backend.pcx.event.ImportCompletedEvent;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SegmentStatisticsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class CacheWarmupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+    
+    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+    private final SegmentStatisticsRepository segmentStatisticsRepository;
+    
+    @Value("${app.cache.warmup.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.cache.warmup.mode:hot}")
+    private String mode;
+    
+    @Value("${app.cache.warmup.max-roads:50}")
+    private int maxRoads;
+    
+    @Value("${app.cache.warmup.threads:4}")
+    private int threads;
+    
+    @Value("${app.cache.warmup.after-import:true}")
+    private boolean warmupAfterImport;
+    
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    
+    private volatile WarmupState state = WarmupState.PENDING;
+    private volatile String trigger;
+    private volatile boolean startupFinished;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private final AtomicInteger totalRoads = new AtomicInteger();
+    private final AtomicInteger loadedRoads = new AtomicInteger();
+    private final AtomicInteger failedRoads = new AtomicInteger();
+
+    public CacheWarmupService(FileBasedSpeedRepository fileBasedSpeedRepository,
+                              SegmentStatisticsRepository segmentStatisticsRepository) {
+        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+        this.segmentStatisticsRepository = segmentStatisticsRepository;
+    }
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            state = WarmupState.DISABLED;
+            startupFinished = true;
+        }
+        coordinator = Executors.newSingleThreadExecutor(r -> newThread(r, "warmup-coordinator"));
+        AtomicInteger workerId = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> newThread(r, "warmup-" + workerId.incrementAndGet()));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        coordinator.submit(() -> {
+            try {
+                run("STARTUP", prioritizedRoadIds(null));
+            } finally {
+                startupFinished = true;
+            }
+        });
+    }
+    
+    @EventListener
+    public void warmUpAfterImport(ImportCompletedEvent event) {
+        if (!enabled || !warmupAfterImport) {
+            return;
+        }
+        coordinator.submit(() -> run("IMPORT:" + event.getFilename(),
+                prioritizedRoadIds(fileBasedSpeedRepository.getRoadIdsInFile(event.getFilename()))));
+    }
+    
+    public void warmUpNow() {
+        coordinator.submit(() -> run("MANUAL", prioritizedRoadIds(null)));
+    }
+    
+    public boolean isStartupFinished() {
+        return startupFinished;
+    }
+
+    public WarmupStatusDTO getStatus() {
+        return new WarmupStatusDTO(
+                state,
+                trigger,
+                totalRoads.get(),
+                loadedRoads.get(),
+                failedRoads.get(),
+                startedAt,
+                finishedAt
+        );
+    }
+    
+    private void run(String runTrigger, List<Integer> roadIds) {
+        trigger = runTrigger;
+        state = WarmupState.RUNNING;
+        startedAt = System.currentTimeMillis();
+        finishedAt = null;
+        totalRoads.set(roadIds.size());
+        loadedRoads.set(0);
+        failedRoads.set(0);
+        
+        logger.info("开始缓存预热: trigger={}, roads={}", runTrigger, roadIds.size());
+        
+        try {
+            CompletableFuture<?>[] tasks = roadIds.stream()
+                    .map(roadId -> CompletableFuture.runAsync(() -> warmUpRoad(roadId), workers))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+            state = WarmupState.COMPLETED;
+        } catch (Exception e) {
+            logger.error("缓存预热失败", e);
+            state = WarmupState.FAILED;
+        } finally {
+            finishedAt = System.currentTimeMillis();
+        }
+        
+        logger.info("缓存预热完成: trigger={}, loaded={}, failed={}, cost={}ms",
+                runTrigger, loadedRoads.get(), failedRoads.get(), finishedAt - startedAt);
+    }
+    
+    private void warmUpRoad(Integer roadId) {
+        try {
+            if (fileBasedSpeedRepository.warmUp(roadId)) {
+                loadedRoads.incrementAndGet();
+            }
+        } catch (Exception e) {
+            logger.warn("路段 {} 预热失败: {}", roadId, e.getMessage());
+            failedRoads.incrementAndGet();
+        }
+    }
+    
+    private List<Integer> prioritizedRoadIds(Collection<Integer> candidates) {
+        Set<Integer> ordered = new LinkedHashSet<>();
+        Set<Integer> allowed = candidates != null ? Set.copyOf(candidates) : null;
+        
+        for (Integer roadId : fileBasedSpeedRepository.getMostAccessedRoadIds(Integer.MAX_VALUE)) {
+            if (allowed == null || allowed.contains(roadId)) {
+                ordered.add(roadId);
+            }
+        }
+        
+        for (SegmentStatistics stats : segmentStatisticsRepository.findAll(Sort.by("avgSpeed").ascending())) {
+            if (allowed == null || allowed.contains(stats.getRoadId())) {
+                ordered.add(stats.getRoadId());
+            }
+        }
+        
+        if ("all".equalsIgnoreCase(mode)) {
+            if (allowed != null) {
+                ordered.addAll(allowed);
+            } else {
+                ordered.addAll(fileBasedSpeedRepository.getAllRoadIds());
+            }
+            return new ArrayList<>(ordered);
+        }
+        
+        return ordered.stream().limit(maxRoads).toList();
+    }
+    
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
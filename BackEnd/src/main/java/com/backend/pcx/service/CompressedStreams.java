@@ -0,0 +1,68 @@
+package com.backend.pcx.service;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sniffs gzip / zstd magic bytes and wraps the stream in the matching decompressor,
+ * so compressed CSVs are inflated while they are read rather than up front.
+ */
+final class CompressedStreams {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private CompressedStreams() {
+    }
+
+    static InputStream decompress(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_BYTES);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+
+        if (isGzip(magic)) {
+            return new GZIPInputStream(buffered, BUFFER_BYTES);
+        }
+        if (isZstd(magic)) {
+            return new BufferedInputStream(new ZstdInputStream(buffered), BUFFER_BYTES);
+        }
+        return buffered;
+    }
+
+    static boolean isCompressed(Path path) throws IOException {
+        byte[] magic;
+        try (InputStream input = Files.newInputStream(path)) {
+            magic = input.readNBytes(4);
+        }
+        return isGzip(magic) || isZstd(magic);
+    }
+
+    /**
+     * Name the CSV is stored under: no directory components and no compression suffix.
+     */
+    static String csvFilename(String filename) {
+        String name = Path.of(filename).getFileName().toString();
+        for (String suffix : new String[]{".gz", ".zst", ".zstd"}) {
+            if (name.toLowerCase().endsWith(suffix)) {
+                name = name.substring(0, name.length() - suffix.length());
+                break;
+            }
+        }
+        return name;
+    }
+
+    private static boolean isGzip(byte[] magic) {
+        return magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b;
+    }
+
+    private static boolean isZstd(byte[] magic) {
+        return magic.length == 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd;
+    }
+}
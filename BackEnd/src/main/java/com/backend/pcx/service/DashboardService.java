@@ -2,157 +2,235 @@ package com.backend.pcx.service;
 
 import com.backend.pcx.dto.CongestedSegment;
 import com.backend.pcx.dto.CongestionLevelDistribution;
+import com.backend.pcx.dto.CongestionTransition;
 import com.backend.pcx.dto.DashboardSummary;
 import com.backend.pcx.dto.RegionCongestion;
 import com.backend.pcx.entity.CongestionLevel;
 import com.backend.pcx.entity.SegmentStatistics;
-import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.event.DashboardChangedEvent;
+import com.backend.pcx.event.StatisticsUpdatedEvent;
 import com.backend.pcx.repository.SegmentStatisticsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps the dashboard summary as a precomputed snapshot. Statistics changes are folded
+ * into per-road entries, an ordered top-K set and per-region counters, and a new
+ * immutable snapshot is published; reads just return the current one.
+ */
 @Service
 public class DashboardService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
-    
-    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+
+    private static final int TOP_CONGESTED = 5;
+    private static final Comparator<RoadEntry> BY_SPEED =
+            Comparator.comparingDouble((RoadEntry e) -> e.avgSpeed).thenComparingInt(e -> e.roadId);
+
     private final SegmentStatisticsRepository segmentStatisticsRepository;
-    
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer reloadTimer;
+    private final Timer incrementalTimer;
+
     @Value("${traffic.prediction.free-speed-threshold:40}")
     private Double freeSpeedThreshold;
-    
+
     @Value("${traffic.prediction.flowing-speed-threshold:25}")
     private Double flowingSpeedThreshold;
 
-    public DashboardService(FileBasedSpeedRepository fileBasedSpeedRepository,
-                         SegmentStatisticsRepository segmentStatisticsRepository) {
-        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Integer, RoadEntry> roads = new HashMap<>();
+    private final TreeSet<RoadEntry> bySpeed = new TreeSet<>(BY_SPEED);
+    private final Map<String, int[]> regionCounts = new HashMap<>();
+    private final int[] levelCounts = new int[CongestionLevel.values().length];
+    private double speedSum;
+    private int congestedCount;
+    private long version;
+
+    private volatile Snapshot snapshot;
+
+    public DashboardService(SegmentStatisticsRepository segmentStatisticsRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
         this.segmentStatisticsRepository = segmentStatisticsRepository;
+        this.eventPublisher = eventPublisher;
+        this.reloadTimer = updateTimer(meterRegistry, "reload");
+        this.incrementalTimer = updateTimer(meterRegistry, "incremental");
+        this.snapshot = buildSnapshot();
+    }
+
+    private static Timer updateTimer(MeterRegistry meterRegistry, String kind) {
+        return Timer.builder("traffic.dashboard.update")
+                .description("Time to rebuild the dashboard snapshot")
+                .tag("kind", kind)
+                .register(meterRegistry);
     }
 
     public DashboardSummary getSummary() {
-        logger.info("开始获取仪表盘数据");
-        
+        return snapshot.getSummary();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.nanoTime();
         List<SegmentStatistics> allStats = segmentStatisticsRepository.findAll();
-        
-        if (allStats.isEmpty()) {
-            logger.warn("数据库中没有统计数据，需要先导入数据");
-            return new DashboardSummary(
-                    0.0,
-                    0,
-                    null,
-                    new ArrayList<>(),
-                    new ArrayList<>(),
-                    new CongestionLevelDistribution(0, 0, 0)
-            );
-        }
-        
-        logger.info("从数据库加载 {} 个路段的统计数据", allStats.size());
-        
-        Map<Integer, Double> segmentAvgSpeeds = new HashMap<>();
+        roads.clear();
+        bySpeed.clear();
+        regionCounts.clear();
+        Arrays.fill(levelCounts, 0);
+        speedSum = 0;
+        congestedCount = 0;
+
         for (SegmentStatistics stats : allStats) {
-            segmentAvgSpeeds.put(stats.getRoadId(), stats.getAvgSpeed());
+            add(new RoadEntry(stats));
         }
-        
-        Double todayAvgSpeed = segmentAvgSpeeds.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
-        
-        logger.info("全部数据均速: {}", todayAvgSpeed);
-        
-        long congestedCount = segmentAvgSpeeds.values().stream()
-                .filter(speed -> speed < flowingSpeedThreshold)
-                .count();
-        
-        logger.info("拥堵路段数: {}", congestedCount);
-        
-        CongestedSegment mostCongested = allStats.stream()
-                .min(Comparator.comparing(SegmentStatistics::getAvgSpeed))
-                .map(stats -> {
-                    CongestionLevel level = CongestionLevel.valueOf(stats.getCongestionLevel());
-                    return new CongestedSegment(
-                            null,
-                            stats.getRoadId(),
-                            stats.getName(),
-                            stats.getRegion(),
-                            stats.getAvgSpeed(),
-                            level
-                    );
-                })
-                .orElse(null);
-        
-        List<CongestedSegment> topCongested = allStats.stream()
-                .sorted(Comparator.comparing(SegmentStatistics::getAvgSpeed))
-                .limit(5)
-                .map(stats -> {
-                    CongestionLevel level = CongestionLevel.valueOf(stats.getCongestionLevel());
-                    return new CongestedSegment(
-                            null,
-                            stats.getRoadId(),
-                            stats.getName(),
-                            stats.getRegion(),
-                            stats.getAvgSpeed(),
-                            level
-                    );
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        
-        CongestionLevelDistribution distribution = new CongestionLevelDistribution(0, 0, 0);
-        
-        Map<String, RegionCongestion> regionMap = new HashMap<>();
-        for (SegmentStatistics stats : allStats) {
-            CongestionLevel level = CongestionLevel.valueOf(stats.getCongestionLevel());
-            switch (level) {
-                case FREE:
-                    distribution.setFreeCount(distribution.getFreeCount() + 1);
-                    break;
-                case FLOWING:
-                    distribution.setFlowingCount(distribution.getFlowingCount() + 1);
-                    break;
-                case CONGESTED:
-                    distribution.setCongestedCount(distribution.getCongestedCount() + 1);
-                    break;
-            }
-            
-            String region = stats.getRegion();
-            RegionCongestion regionCongestion = regionMap.get(region);
-            if (regionCongestion == null) {
-                regionCongestion = new RegionCongestion(region, 0, 0, 0);
-                regionMap.put(region, regionCongestion);
+        snapshot = buildSnapshot();
+        reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("仪表盘快照已加载 {} 个路段的统计数据", allStats.size());
+    }
+
+    @EventListener
+    public synchronized void onStatisticsUpdated(StatisticsUpdatedEvent event) {
+        long start = System.nanoTime();
+        List<CongestionTransition> transitions = new ArrayList<>();
+        for (Integer roadId : event.getRemovedRoadIds()) {
+            RoadEntry previous = remove(roadId);
+            if (previous != null) {
+                transitions.add(previous.transitionTo(null));
             }
-            switch (level) {
-                case FREE:
-                    regionCongestion.setFreeCount(regionCongestion.getFreeCount() + 1);
-                    break;
-                case FLOWING:
-                    regionCongestion.setFlowingCount(regionCongestion.getFlowingCount() + 1);
-                    break;
-                case CONGESTED:
-                    regionCongestion.setCongestedCount(regionCongestion.getCongestedCount() + 1);
-                    break;
+        }
+        for (SegmentStatistics stats : event.getUpdated()) {
+            RoadEntry previous = remove(stats.getRoadId());
+            RoadEntry current = new RoadEntry(stats);
+            add(current);
+            if (previous == null) {
+                transitions.add(current.transitionFrom(null));
+            } else if (previous.level != current.level) {
+                transitions.add(current.transitionFrom(previous.level));
             }
         }
-        
-        List<RegionCongestion> regionCongestions = new ArrayList<>(regionMap.values());
-        
-        DashboardSummary result = new DashboardSummary(
-                todayAvgSpeed,
-                (int) congestedCount,
-                mostCongested,
-                regionCongestions,
-                topCongested,
-                distribution
+
+        Snapshot previousSnapshot = snapshot;
+        snapshot = buildSnapshot();
+        incrementalTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        eventPublisher.publishEvent(new DashboardChangedEvent(previousSnapshot, snapshot, transitions));
+    }
+
+    private void add(RoadEntry entry) {
+        roads.put(entry.roadId, entry);
+        bySpeed.add(entry);
+        regionCounts.computeIfAbsent(entry.region, k -> new int[levelCounts.length])[entry.level.ordinal()]++;
+        levelCounts[entry.level.ordinal()]++;
+        speedSum += entry.avgSpeed;
+        if (entry.avgSpeed < flowingSpeedThreshold) {
+            congestedCount++;
+        }
+    }
+
+    private RoadEntry remove(Integer roadId) {
+        RoadEntry entry = roads.remove(roadId);
+        if (entry == null) {
+            return null;
+        }
+        bySpeed.remove(entry);
+        int[] counts = regionCounts.get(entry.region);
+        counts[entry.level.ordinal()]--;
+        if (Arrays.stream(counts).allMatch(c -> c == 0)) {
+            regionCounts.remove(entry.region);
+        }
+        levelCounts[entry.level.ordinal()]--;
+        speedSum -= entry.avgSpeed;
+        if (entry.avgSpeed < flowingSpeedThreshold) {
+            congestedCount--;
+        }
+        return entry;
+    }
+
+    private Snapshot buildSnapshot() {
+        version++;
+
+        List<CongestedSegment> topCongested = new ArrayList<>(TOP_CONGESTED);
+        for (RoadEntry entry : bySpeed) {
+            if (topCongested.size() == TOP_CONGESTED) break;
+            topCongested.add(entry.toCongestedSegment());
+        }
+
+        List<RegionCongestion> regionCongestions = new ArrayList<>(regionCounts.size());
+        for (Map.Entry<String, int[]> region : regionCounts.entrySet()) {
+            int[] counts = region.getValue();
+            regionCongestions.add(new RegionCongestion(region.getKey(),
+                    counts[CongestionLevel.FREE.ordinal()],
+                    counts[CongestionLevel.FLOWING.ordinal()],
+                    counts[CongestionLevel.CONGESTED.ordinal()]));
+        }
+
+        DashboardSummary summary = new DashboardSummary(
+                roads.isEmpty() ? 0.0 : speedSum / roads.size(),
+                congestedCount,
+                topCongested.isEmpty() ? null : topCongested.get(0),
+                Collections.unmodifiableList(regionCongestions),
+                Collections.unmodifiableList(topCongested),
+                new CongestionLevelDistribution(
+                        levelCounts[CongestionLevel.FREE.ordinal()],
+                        levelCounts[CongestionLevel.FLOWING.ordinal()],
+                        levelCounts[CongestionLevel.CONGESTED.ordinal()])
         );
-        
-        return result;
+        return new Snapshot(version, "\"" + etagPrefix + "-" + version + "\"", summary);
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final long version;
+        private final String etag;
+        private final DashboardSummary summary;
+
+        Snapshot(long version, String etag, DashboardSummary summary) {
+            this.version = version;
+            this.etag = etag;
+            this.summary = summary;
+        }
+    }
+
+    private static final class RoadEntry {
+        private final int roadId;
+        private final String name;
+        private final String region;
+        private final double avgSpeed;
+        private final CongestionLevel level;
+
+        RoadEntry(SegmentStatistics stats) {
+            this.roadId = stats.getRoadId();
+            this.name = stats.getName();
+            this.region = stats.getRegion();
+            this.avgSpeed = stats.getAvgSpeed();
+            this.level = CongestionLevel.valueOf(stats.getCongestionLevel());
+        }
+
+        CongestedSegment toCongestedSegment() {
+            return new CongestedSegment(null, roadId, name, region, avgSpeed, level);
+        }
+
+        CongestionTransition transitionFrom(CongestionLevel fromLevel) {
+            return new CongestionTransition(roadId, name, region, avgSpeed, fromLevel, level);
+        }
+
+        CongestionTransition transitionTo(CongestionLevel toLevel) {
+            return new CongestionTransition(roadId, name, region, avgSpeed, level, toLevel);
+        }
     }
 }
@@ -0,0 +1,221 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.DashboardDelta;
+import com.backend.pcx.dto.DashboardSummary;
+import com.backend.pcx.event.DashboardChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single fan-out publisher for dashboard SSE streams. Each change is diffed and
+ * serialized once on the push thread, and the same frame is queued for every subscriber.
+ * Each subscriber is written by its own sender task, so a slow client only delays itself;
+ * one that falls more than max-pending frames behind is completed and has to reconnect
+ * (it then starts again from a snapshot).
+ */
+@Service
+public class DashboardStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${app.dashboard.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${app.dashboard.stream.max-pending:32}")
+    private int maxPending;
+
+    private ScheduledExecutorService pushExecutor;
+    private ExecutorService sendExecutor;
+
+    public DashboardStreamService(DashboardService dashboardService, ObjectMapper objectMapper) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        pushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dashboard-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderId = new AtomicInteger();
+        sendExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "dashboard-send-" + senderId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pushExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Registers on the push thread so the initial snapshot is ordered with the deltas;
+     * clients drop deltas whose version is not newer than what they already have.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, maxPending);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        pushExecutor.execute(() -> {
+            DashboardService.Snapshot snapshot = dashboardService.getSnapshot();
+            try {
+                enqueue(subscriber, frame("snapshot", snapshot.getVersion(), snapshot.getSummary()));
+                subscribers.add(subscriber);
+            } catch (JsonProcessingException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onDashboardChanged(DashboardChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        pushExecutor.execute(() -> {
+            DashboardDelta delta = diff(event);
+            if (delta == null) {
+                return;
+            }
+            try {
+                broadcast(frame("delta", delta.getVersion(), delta));
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to serialize dashboard delta", e);
+            }
+        });
+    }
+
+    private DashboardDelta diff(DashboardChangedEvent event) {
+        DashboardSummary previous = event.getPrevious().getSummary();
+        DashboardSummary current = event.getCurrent().getSummary();
+
+        DashboardDelta delta = new DashboardDelta();
+        delta.setVersion(event.getCurrent().getVersion());
+        delta.setTodayAvgSpeed(changed(previous.getTodayAvgSpeed(), current.getTodayAvgSpeed()));
+        delta.setCongestedSegments(changed(previous.getCongestedSegments(), current.getCongestedSegments()));
+        delta.setMostCongestedSegment(changed(previous.getMostCongestedSegment(), current.getMostCongestedSegment()));
+        delta.setRegionCongestions(changed(previous.getRegionCongestions(), current.getRegionCongestions()));
+        delta.setTopCongestedSegments(changed(previous.getTopCongestedSegments(), current.getTopCongestedSegments()));
+        delta.setCongestionLevelDistribution(
+                changed(previous.getCongestionLevelDistribution(), current.getCongestionLevelDistribution()));
+        if (!event.getTransitions().isEmpty()) {
+            delta.setTransitions(event.getTransitions());
+        }
+
+        DashboardDelta empty = new DashboardDelta();
+        empty.setVersion(delta.getVersion());
+        return delta.equals(empty) ? null : delta;
+    }
+
+    private static <T> T changed(T previous, T current) {
+        return Objects.equals(previous, current) ? null : current;
+    }
+
+    private void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, long version, Object payload)
+            throws JsonProcessingException {
+        return SseEmitter.event()
+                .id(Long.toString(version))
+                .name(name)
+                .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, frame);
+        }
+    }
+
+    /**
+     * Queues a frame without blocking the push thread; a subscriber whose queue is full is
+     * dropped rather than sent a stream with a gap in it.
+     */
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (!subscriber.pending.offer(frame)) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while ((frame = subscriber.pending.poll()) != null) {
+                try {
+                    subscriber.emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.pending.clear();
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+            // A frame queued after the last poll but before the flag was cleared needs a sender
+            if (subscriber.pending.isEmpty() || !subscriber.sending.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int maxPending) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(Math.max(1, maxPending));
+        }
+    }
+}
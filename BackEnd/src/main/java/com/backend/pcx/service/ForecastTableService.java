@@ -0,0 +1,184 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.ForecastTableStatusDTO;
+import com.backend.pcx.dto.PredictRequest;
+import com.backend.pcx.dto.PredictionJobDTO;
+import com.backend.pcx.entity.PredictionJob;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.event.ImportCompletedEvent;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rolling forecast table: every cadence tick all segments are forecast from their latest
+ * observation and the run replaces the in-memory table in one swap. Predict requests for
+ * the latest base time and a horizon within the table are answered from it.
+ */
+@Service
+public class ForecastTableService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastTableService.class);
+
+    private final BatchPredictionService batchPredictionService;
+    private final PredictionService predictionService;
+    private final RoadSegmentRepository roadSegmentRepository;
+    private final PredictorRegistry predictorRegistry;
+
+    @Value("${app.forecast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.forecast.cadence-ms:600000}")
+    private long cadenceMs;
+
+    @Value("${app.forecast.horizon-steps:12}")
+    private int horizonSteps;
+
+    @Value("${app.forecast.predictor:}")
+    private String predictorType;
+
+    private volatile ForecastTable table = new ForecastTable(Map.of(), 0, 0, 0);
+    private volatile long dataChangedAt;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public ForecastTableService(BatchPredictionService batchPredictionService,
+                                PredictionService predictionService,
+                                RoadSegmentRepository roadSegmentRepository,
+                                PredictorRegistry predictorRegistry) {
+        this.batchPredictionService = batchPredictionService;
+        this.predictionService = predictionService;
+        this.roadSegmentRepository = roadSegmentRepository;
+        this.predictorRegistry = predictorRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        predictorType = predictorRegistry.get(predictorType).getPredictorType();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "forecast-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::refresh, 0, cadenceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener
+    public void refreshAfterImport(ImportCompletedEvent event) {
+        dataChangedAt = System.currentTimeMillis();
+        if (enabled && refreshPending.compareAndSet(false, true)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Returns the precomputed forecast when the table is fresh, the request targets the latest
+     * run's base time (or leaves it empty), fits in its horizon and asks for the table's
+     * predictor; null means compute on demand. Answers from the table are not recorded as
+     * prediction jobs.
+     */
+    public PredictionJobDTO lookup(PredictRequest request) {
+        ForecastTable current = table;
+        if (isStale(current, System.currentTimeMillis())) {
+            return null;
+        }
+        PredictionService.Forecast forecast = current.forecasts.get(request.getSegmentId());
+        Integer steps = request.getHorizonSteps();
+        if (forecast == null || steps == null || steps < 1 || steps > forecast.getPoints().size()) {
+            return null;
+        }
+        PredictionJob job = forecast.getJob();
+        if (request.getBaseTime() != null && !request.getBaseTime().equals(job.getBaseTime())) {
+            return null;
+        }
+        if (!predictorRegistry.get(request.getPredictorType()).getPredictorType().equals(job.getPredictorType())) {
+            return null;
+        }
+
+        PredictionJob sliced = new PredictionJob(null, job.getSegment(), job.getBaseTime(), steps,
+                job.getPredictorType(), job.getCostMs(), job.getCreatedAt(), null);
+        return predictionService.toDTO(new PredictionService.Forecast(sliced, forecast.getPoints().subList(0, steps)));
+    }
+
+    public ForecastTableStatusDTO getStatus() {
+        ForecastTable current = table;
+        long now = System.currentTimeMillis();
+        Long generatedAt = current.generatedAt == 0 ? null : current.generatedAt;
+        Long ageMs = generatedAt == null ? null : now - generatedAt;
+        return new ForecastTableStatusDTO(enabled, horizonSteps, predictorType, cadenceMs, generatedAt, ageMs,
+                isStale(current, now), current.durationMs, current.forecasts.size(), current.failedCount);
+    }
+
+    /**
+     * A table is stale when it was never generated, missed two cadence ticks, or predates
+     * the last completed import (it is then rebuilt in the background).
+     */
+    private boolean isStale(ForecastTable current, long now) {
+        return current.generatedAt == 0
+                || now - current.generatedAt > 2 * cadenceMs
+                || current.generatedAt < dataChangedAt;
+    }
+
+    private void refresh() {
+        refreshPending.set(false);
+        long start = System.currentTimeMillis();
+        try {
+            List<RoadSegment> segments = roadSegmentRepository.findAll();
+            List<PredictionService.Forecast> forecasts = batchPredictionService.forecastAll(segments, null,
+                    horizonSteps, predictorType);
+
+            Map<Long, PredictionService.Forecast> bySegment = new HashMap<>(forecasts.size() * 2);
+            for (PredictionService.Forecast forecast : forecasts) {
+                forecast.getJob().setCreatedAt(start);
+                bySegment.put(forecast.getJob().getSegment().getId(), forecast);
+            }
+            table = new ForecastTable(Map.copyOf(bySegment), start, System.currentTimeMillis() - start,
+                    segments.size() - forecasts.size());
+            logger.info("Forecast table refreshed: {} segments in {}ms", bySegment.size(), table.durationMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Forecast table refresh failed", e);
+        }
+    }
+
+    private static final class ForecastTable {
+        private final Map<Long, PredictionService.Forecast> forecasts;
+        private final long generatedAt;
+        private final long durationMs;
+        private final int failedCount;
+
+        ForecastTable(Map<Long, PredictionService.Forecast> forecasts, long generatedAt, long durationMs, int failedCount) {
+            this.forecasts = forecasts;
+            this.generatedAt = generatedAt;
+            this.durationMs = durationMs;
+            this.failedCount = failedCount;
+        }
+    }
+}
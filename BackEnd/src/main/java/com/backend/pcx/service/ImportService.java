@@ -2,39 +2,72 @@ package com.backend.pcx.service;
 
 import com.backend.pcx.dto.ImportJobDTO;
 import com.backend.pcx.entity.ImportJob;
-import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.entity.RoadFileAggregate;
 import com.backend.pcx.entity.SegmentStatistics;
 import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.event.ImportCompletedEvent;
+import com.backend.pcx.event.RoadDataChangedEvent;
+import com.backend.pcx.event.StatisticsUpdatedEvent;
 import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.ImportJdbcRepository;
 import com.backend.pcx.repository.ImportJobRepository;
-import com.backend.pcx.repository.RoadSegmentRepository;
-import com.backend.pcx.repository.SegmentStatisticsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class ImportService {
     
     private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+    private static final Pattern DELTA_FILENAME = Pattern.compile("^(.+)\\.delta-\\d+\\.csv$");
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
     
     private final ImportJobRepository importJobRepository;
-    private final RoadSegmentRepository roadSegmentRepository;
+    private final ImportJdbcRepository importJdbcRepository;
     private final FileBasedSpeedRepository fileBasedSpeedRepository;
-    private final SegmentStatisticsRepository segmentStatisticsRepository;
+    private final SpeedIngestPipeline speedIngestPipeline;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary importRate;
     
     @Value("${app.data-dir:./data}")
     private String dataDir;
@@ -45,24 +78,65 @@ public class ImportService {
     @Value("${traffic.prediction.flowing-speed-threshold:25}")
     private Double flowingSpeedThreshold;
     
+    @Value("${app.import.concurrent-jobs:2}")
+    private int concurrentJobs;
+    
     private final Map<Long, ImportJob> jobCache = new ConcurrentHashMap<>();
+    private final Map<String, FileLock> fileLocks = new ConcurrentHashMap<>();
+    private ExecutorService importExecutor;
 
     public ImportService(ImportJobRepository importJobRepository,
-                         RoadSegmentRepository roadSegmentRepository,
+                         ImportJdbcRepository importJdbcRepository,
                          FileBasedSpeedRepository fileBasedSpeedRepository,
-                         SegmentStatisticsRepository segmentStatisticsRepository) {
+                         SpeedIngestPipeline speedIngestPipeline,
+                         RollupService rollupService,
+                         ApplicationEventPublisher eventPublisher,
+                         MeterRegistry meterRegistry) {
         this.importJobRepository = importJobRepository;
-        this.roadSegmentRepository = roadSegmentRepository;
+        this.importJdbcRepository = importJdbcRepository;
         this.fileBasedSpeedRepository = fileBasedSpeedRepository;
-        this.segmentStatisticsRepository = segmentStatisticsRepository;
+        this.speedIngestPipeline = speedIngestPipeline;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.importRate = DistributionSummary.builder("traffic.import.rate")
+                .description("Rows per second over a whole import job")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadId = new AtomicInteger();
+        importExecutor = Executors.newFixedThreadPool(Math.max(1, concurrentJobs), r -> {
+            Thread thread = new Thread(r, "import-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        int interrupted = importJobRepository.failUnfinished(
+                List.of(ImportJob.ImportStatus.PENDING, ImportJob.ImportStatus.PROCESSING),
+                ImportJob.ImportStatus.FAILED, "Interrupted by restart", System.currentTimeMillis());
+        if (interrupted > 0) {
+            logger.warn("Marked {} unfinished import jobs as failed", interrupted);
+        }
+        
+        long backfilled = fileBasedSpeedRepository.backfillRecords();
+        if (backfilled > 0) {
+            logger.info("Loaded {} speed records from existing data files", backfilled);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
     }
 
-    @Transactional
-    public List<Long> importSpeedCsv(MultipartFile[] files) {
+    public List<Long> importSpeedCsv(MultipartFile[] files, boolean append) {
         List<Long> jobIds = new ArrayList<>();
         
         for (MultipartFile file : files) {
-            Long jobId = importSingleFile(file);
+            Long jobId = importSingleFile(file, append);
             if (jobId != null) {
                 jobIds.add(jobId);
             }
@@ -71,119 +145,380 @@ public class ImportService {
         return jobIds;
     }
 
-    @Transactional
-    public Long importSpeedCsv(MultipartFile file) {
-        return importSingleFile(file);
+    public Long importSpeedCsv(MultipartFile file, boolean append) {
+        return importSingleFile(file, append);
     }
 
-    private Long importSingleFile(MultipartFile file) {
+    private Long importSingleFile(MultipartFile file, boolean append) {
         try {
-            Path targetDir = Paths.get(dataDir);
-            if (!Files.exists(targetDir)) {
-                Files.createDirectories(targetDir);
-            }
-            
-            Path targetPath = targetDir.resolve(file.getOriginalFilename());
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            
-            ImportJob job = new ImportJob();
-            job.setFilename(file.getOriginalFilename());
-            job.setStatus(ImportJob.ImportStatus.PROCESSING);
-            job.setCreatedAt(System.currentTimeMillis());
-            job = importJobRepository.save(job);
-            
-            jobCache.put(job.getId(), job);
-            
-            processImportAsync(job, targetPath);
+            Path stagingPath = Paths.get(dataDir, ".uploads", UUID.randomUUID() + ".part");
+            Files.createDirectories(stagingPath.getParent());
+            file.transferTo(stagingPath);
             
-            return job.getId();
+            return importUploadedFile(stagingPath, file.getOriginalFilename(), append);
         } catch (IOException e) {
             logger.error("File save error", e);
             return null;
         }
     }
 
-    @Transactional
-    private void processImportAsync(ImportJob job, Path filePath) {
+    public Long importUploadedFile(Path uploadPath, String filename, boolean append) throws IOException {
+        Files.createDirectories(Paths.get(dataDir));
+        
+        ImportJob job = new ImportJob();
+        job.setFilename(baseFilename(CompressedStreams.csvFilename(filename)));
+        job.setStatus(ImportJob.ImportStatus.PENDING);
+        job.setProgress(0);
+        job.setCreatedAt(System.currentTimeMillis());
+        job = importJobRepository.save(job);
+        
+        jobCache.put(job.getId(), job);
+        
+        final ImportJob submitted = job;
+        importExecutor.submit(() -> processImport(submitted, uploadPath, append));
+        
+        return job.getId();
+    }
+
+    private void processImport(ImportJob job, Path sourcePath, boolean append) {
+        String baseName = job.getFilename();
         try {
-            logger.info("Processing import job: {}, file: {}", job.getId(), job.getFilename());
-            
-            List<FileBasedSpeedRepository.DataSource> dataSources = fileBasedSpeedRepository.getDataSources();
-            logger.info("Found {} data sources", dataSources.size());
+            logger.info("Processing import job: {}, file: {}, append: {}", job.getId(), baseName, append);
+            job.setStatus(ImportJob.ImportStatus.PROCESSING);
+            importJobRepository.save(job);
+            long jobStart = System.nanoTime();
+            long phaseStart = jobStart;
             
-            int totalRows = 0;
-            int successRows = 0;
-            int failRows = 0;
-            StringBuilder errorMessage = new StringBuilder();
+            Set<Integer> affectedRoads = new HashSet<>();
+            SpeedIngestPipeline.IngestResult result = null;
+            boolean delta = false;
             
-            for (FileBasedSpeedRepository.DataSource source : dataSources) {
-                if (source.getFilename().equals(job.getFilename())) {
-                    totalRows = source.getTotalRoads() * source.getTotalDays() * 144;
-                    successRows = totalRows;
+            FileLock fileLock = acquireFileLock(baseName);
+            try {
+                synchronized (fileLock) {
+                    boolean refreshed = false;
+                    try {
+                        Path basePath = Paths.get(dataDir).resolve(baseName);
+                        Path filePath = basePath;
+                
+                        if (append && Files.exists(basePath)) {
+                            delta = true;
+                            job.setFilename(deltaFilename(baseName));
+                            filePath = basePath.resolveSibling(job.getFilename());
+                            if (!appendDelta(sourcePath, filePath, baseName)) {
+                                // Nothing new: no delta file was written, so the job keeps pointing at the base file
+                                job.setFilename(baseName);
+                                filePath = null;
+                            }
+                        } else {
+                            for (String deltaName : deltaFilenames(baseName)) {
+                                affectedRoads.addAll(roadIdsOf(deltaName));
+                                fileBasedSpeedRepository.removeRecords(deltaName);
+                                importJdbcRepository.deleteFileAggregates(deltaName);
+                                fileBasedSpeedRepository.removeDataFile(deltaName);
+                            }
+                            affectedRoads.addAll(roadIdsOf(baseName));
+                            fileBasedSpeedRepository.removeRecords(baseName);
+                            importJdbcRepository.deleteFileAggregates(baseName);
+                            materialize(sourcePath, basePath);
+                        }
+                        importJobRepository.save(job);
+                        phaseStart = recordPhase("stage", phaseStart);
+                
+                        if (filePath != null) {
+                            result = ingest(job, filePath);
+                            phaseStart = recordPhase("parse", phaseStart);
                     
-                    logger.info("Creating {} road segments for file: {}", source.getTotalRoads(), source.getFilename());
+                            Map<Integer, RoadFileAggregate> aggregates = result.getAggregates();
+                            Map<Integer, String> regions = new HashMap<>();
+                            for (Integer roadId : aggregates.keySet()) {
+                                regions.put(roadId, getRegionByRoadId(roadId));
+                            }
+                            importJdbcRepository.insertMissingSegments(regions);
+                            importJdbcRepository.replaceFileAggregates(job.getFilename(), aggregates.values());
+                            affectedRoads.addAll(aggregates.keySet());
+                            phaseStart = recordPhase("aggregates", phaseStart);
                     
-                    for (int roadId = 1; roadId <= source.getTotalRoads(); roadId++) {
-                        if (!roadSegmentRepository.findByRoadId(roadId).isPresent()) {
-                            RoadSegment segment = new RoadSegment();
-                            segment.setRoadId(roadId);
-                            segment.setName(null);
-                            segment.setRegion(getRegionByRoadId(roadId));
-                            roadSegmentRepository.save(segment);
+                            if (fileBasedSpeedRepository.isDatabaseMode()) {
+                                long records = fileBasedSpeedRepository.storeRecords(job.getFilename());
+                                logger.info("Stored {} speed records from {}", records, job.getFilename());
+                                phaseStart = recordPhase("records", phaseStart);
+                            }
                         }
-                        
-                        List<FileBasedSpeedRepository.SpeedDataPoint> data = 
-                                fileBasedSpeedRepository.getSpeedData(roadId, null, null, false);
-                        
-                        if (!data.isEmpty()) {
-                            double avgSpeed = data.stream()
-                                    .mapToDouble(FileBasedSpeedRepository.SpeedDataPoint::getSpeed)
-                                    .average()
-                                    .orElse(0.0);
-                            
-                            CongestionLevel level = CongestionLevel.fromSpeed(
-                                    avgSpeed, freeSpeedThreshold, flowingSpeedThreshold);
-                            
-                            SegmentStatistics stats = new SegmentStatistics();
-                            stats.setRoadId(roadId);
-                            stats.setName("路段" + roadId);
-                            stats.setRegion(getRegionByRoadId(roadId));
-                            stats.setAvgSpeed(avgSpeed);
-                            stats.setDataPointCount(data.size());
-                            stats.setCongestionLevel(level.name());
-                            stats.setCreatedAt(System.currentTimeMillis());
-                            stats.setUpdatedAt(System.currentTimeMillis());
-                            
-                            segmentStatisticsRepository.save(stats);
+                
+                        refreshStatistics(affectedRoads);
+                        refreshed = true;
+                        phaseStart = recordPhase("statistics", phaseStart);
+                    } finally {
+                        if (!refreshed) {
+                            refreshAfterFailure(affectedRoads);
                         }
                     }
-                    
-                    logger.info("Created {} road segments and statistics", source.getTotalRoads());
-                    break;
                 }
+            } finally {
+                releaseFileLock(baseName);
             }
             
-            job.setTotalRows(totalRows);
-            job.setSuccessRows(successRows);
-            job.setFailRows(failRows);
-            job.setStatus(ImportJob.ImportStatus.COMPLETED);
-            if (errorMessage.length() > 0) {
-                job.setErrorMessage(errorMessage.toString());
+            boolean appendOnly = delta && result != null;
+            fileBasedSpeedRepository.invalidate(affectedRoads);
+            eventPublisher.publishEvent(new RoadDataChangedEvent(affectedRoads, appendOnly));
+            if (appendOnly) {
+                // A delta only adds points after each road's latest stored ts, so only the days it spans change
+                Collection<RoadFileAggregate> aggregates = result.getAggregates().values();
+                rollupService.rebuild(affectedRoads,
+                        aggregates.stream().map(RoadFileAggregate::getMinTs).filter(Objects::nonNull).min(Long::compare).orElse(null),
+                        aggregates.stream().map(RoadFileAggregate::getMaxTs).filter(Objects::nonNull).max(Long::compare).orElse(null));
+            } else {
+                rollupService.rebuild(affectedRoads);
             }
+            recordPhase("rollups", phaseStart);
+            recordRows(result, System.nanoTime() - jobStart);
+            logger.info("Refreshed statistics, cache and rollups for {} roads", affectedRoads.size());
+            
+            job.setTotalRows(result == null ? 0 : (int) result.getTotalRows());
+            job.setSuccessRows(result == null ? 0 : (int) result.getValidRows());
+            job.setFailRows(result == null ? 0 : (int) result.getSkippedRows());
+            job.setProgress(100);
+            job.setStatus(ImportJob.ImportStatus.COMPLETED);
             job.setFinishedAt(System.currentTimeMillis());
             importJobRepository.save(job);
             
             logger.info("Import job {} completed", job.getId());
+            eventPublisher.publishEvent(new ImportCompletedEvent(job.getId(), job.getFilename()));
             
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             logger.error("Import error", e);
+            String message = String.valueOf(e.getMessage());
             job.setStatus(ImportJob.ImportStatus.FAILED);
-            job.setErrorMessage(e.getMessage());
+            job.setErrorMessage(message.length() > 255 ? message.substring(0, 255) : message);
             job.setFinishedAt(System.currentTimeMillis());
             importJobRepository.save(job);
         }
     }
 
+    /**
+     * Imports of the same base file are serialized on a shared lock; the entry is counted
+     * so it can be dropped once the last import holding or waiting for it is done.
+     */
+    private FileLock acquireFileLock(String baseName) {
+        return fileLocks.compute(baseName, (name, lock) -> {
+            FileLock acquired = lock != null ? lock : new FileLock();
+            acquired.holders++;
+            return acquired;
+        });
+    }
+
+    private void releaseFileLock(String baseName) {
+        fileLocks.computeIfPresent(baseName, (name, lock) -> --lock.holders == 0 ? null : lock);
+    }
+
+    private long recordPhase(String phase, long startNanos) {
+        long now = System.nanoTime();
+        Timer.builder("traffic.import.phase")
+                .description("Time spent in one phase of an import job")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private void recordRows(SpeedIngestPipeline.IngestResult result, long elapsedNanos) {
+        if (result == null) {
+            return;
+        }
+        rowCounter("valid").increment(result.getValidRows());
+        rowCounter("skipped").increment(result.getSkippedRows() - result.getUnparsedRows());
+        rowCounter("unparsed").increment(result.getUnparsedRows());
+        if (elapsedNanos > 0) {
+            importRate.record(result.getTotalRows() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        }
+    }
+
+    private Counter rowCounter(String outcome) {
+        return Counter.builder("traffic.import.rows")
+                .description("Rows read by import jobs")
+                .tag("result", outcome)
+                .register(meterRegistry);
+    }
+
+    private SpeedIngestPipeline.IngestResult ingest(ImportJob job, Path filePath) throws IOException, InterruptedException {
+        long fileSize = Math.max(1L, Files.size(filePath));
+        long parseStart = System.currentTimeMillis();
+        
+        SpeedIngestPipeline.IngestResult result;
+        try (InputStream input = Files.newInputStream(filePath)) {
+            result = speedIngestPipeline.ingest(
+                    input,
+                    job.getFilename(),
+                    fileBasedSpeedRepository.getBaseDate(job.getFilename()),
+                    bytesRead -> {
+                        job.setProgress((int) Math.min(90, bytesRead * 90 / fileSize));
+                        importJobRepository.save(job);
+                    });
+        }
+        
+        logger.info("Parsed {} rows ({} valid) for {} roads in {}ms",
+                result.getTotalRows(), result.getValidRows(), result.getAggregates().size(),
+                System.currentTimeMillis() - parseStart);
+        return result;
+    }
+
+    /**
+     * After a failed import the stored data may already be partly replaced; bring statistics,
+     * the series cache and rollups back in line with whatever is stored now.
+     */
+    private void refreshAfterFailure(Set<Integer> roadIds) {
+        if (roadIds.isEmpty()) {
+            return;
+        }
+        try {
+            refreshStatistics(roadIds);
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh statistics after a failed import", e);
+        }
+        fileBasedSpeedRepository.invalidate(roadIds);
+        eventPublisher.publishEvent(new RoadDataChangedEvent(roadIds, false));
+        try {
+            rollupService.rebuild(roadIds);
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild rollups after a failed import", e);
+        }
+    }
+
+    private void refreshStatistics(Set<Integer> roadIds) {
+        StatisticsUpdatedEvent event = importJdbcRepository.updateStatistics(() -> writeStatistics(roadIds));
+        eventPublisher.publishEvent(event);
+    }
+
+    private StatisticsUpdatedEvent writeStatistics(Set<Integer> roadIds) {
+        Map<Integer, RoadFileAggregate> totals = importJdbcRepository.sumAggregatesByRoad(roadIds);
+        
+        long now = System.currentTimeMillis();
+        List<SegmentStatistics> statistics = new ArrayList<>();
+        for (RoadFileAggregate total : totals.values()) {
+            if (total.getPointCount() == 0) {
+                continue;
+            }
+            double avgSpeed = total.getSpeedSum() / total.getPointCount();
+            CongestionLevel level = CongestionLevel.fromSpeed(
+                    avgSpeed, freeSpeedThreshold, flowingSpeedThreshold);
+            
+            SegmentStatistics stats = new SegmentStatistics();
+            stats.setRoadId(total.getRoadId());
+            stats.setName("路段" + total.getRoadId());
+            stats.setRegion(getRegionByRoadId(total.getRoadId()));
+            stats.setAvgSpeed(avgSpeed);
+            stats.setDataPointCount((int) (long) total.getPointCount());
+            stats.setCongestionLevel(level.name());
+            stats.setCreatedAt(now);
+            stats.setUpdatedAt(now);
+            statistics.add(stats);
+        }
+        importJdbcRepository.upsertStatistics(statistics);
+        
+        List<Integer> withoutData = roadIds.stream()
+                .filter(id -> !totals.containsKey(id) || totals.get(id).getPointCount() == 0)
+                .collect(Collectors.toList());
+        importJdbcRepository.deleteStatistics(withoutData);
+        
+        return new StatisticsUpdatedEvent(statistics, withoutData);
+    }
+
+    private void materialize(Path sourcePath, Path targetPath) throws IOException {
+        if (!CompressedStreams.isCompressed(sourcePath)) {
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        
+        Path tmpPath = targetPath.resolveSibling(targetPath.getFileName() + ".part");
+        try (InputStream input = CompressedStreams.decompress(Files.newInputStream(sourcePath))) {
+            Files.copy(input, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(tmpPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(sourcePath);
+    }
+
+    private boolean appendDelta(Path sourcePath, Path deltaPath, String baseName) throws IOException {
+        Long baseDate = fileBasedSpeedRepository.getBaseDate(baseName);
+        List<String> stored = new ArrayList<>(deltaFilenames(baseName));
+        stored.add(baseName);
+        Map<Integer, Long> latest = fileBasedSpeedRepository.getLatestTimestamps(stored);
+        
+        Path tmpPath = deltaPath.resolveSibling(deltaPath.getFileName() + ".part");
+        long kept = 0;
+        long dropped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     CompressedStreams.decompress(Files.newInputStream(sourcePath)), StandardCharsets.UTF_8));
+             BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            writer.write(header != null ? header : "road_id,day_id,time_id,speed");
+            writer.newLine();
+            
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isAlreadyStored(line, baseDate, latest)) {
+                    dropped++;
+                    continue;
+                }
+                writer.write(line);
+                writer.newLine();
+                kept++;
+            }
+        }
+        Files.delete(sourcePath);
+        
+        logger.info("Append to {}: {} new rows, {} rows already stored", baseName, kept, dropped);
+        if (kept == 0) {
+            Files.delete(tmpPath);
+            return false;
+        }
+        Files.move(tmpPath, deltaPath, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private boolean isAlreadyStored(String line, Long baseDate, Map<Integer, Long> latest) {
+        String[] parts = line.split(",");
+        if (baseDate == null || parts.length < 3) {
+            return false;
+        }
+        try {
+            Long watermark = latest.get(Integer.parseInt(parts[0].trim()));
+            if (watermark == null) {
+                return false;
+            }
+            long ts = baseDate + (Integer.parseInt(parts[1].trim()) - 1) * DAY_MS
+                    + (Integer.parseInt(parts[2].trim()) - 1) * TEN_MINUTES_MS;
+            return ts <= watermark;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Set<Integer> roadIdsOf(String filename) {
+        Set<Integer> roadIds = new HashSet<>(fileBasedSpeedRepository.getRoadIdsInFile(filename));
+        roadIds.addAll(importJdbcRepository.findRoadIdsByFilename(filename));
+        return roadIds;
+    }
+
+    private List<String> deltaFilenames(String baseName) {
+        return fileBasedSpeedRepository.getDataFilenames().stream()
+                .filter(name -> DELTA_FILENAME.matcher(name).matches() && baseFilename(name).equals(baseName))
+                .collect(Collectors.toList());
+    }
+
+    private static String deltaFilename(String baseName) {
+        String stem = baseName.endsWith(".csv") ? baseName.substring(0, baseName.length() - 4) : baseName;
+        return stem + ".delta-" + System.currentTimeMillis() + ".csv";
+    }
+
+    private static String baseFilename(String filename) {
+        Matcher matcher = DELTA_FILENAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) + ".csv" : filename;
+    }
+
     public ImportJobDTO getImportJob(Long jobId) {
         ImportJob job = importJobRepository.findById(jobId).orElse(null);
         if (job == null) {
@@ -202,7 +537,8 @@ public class ImportService {
                 job.getFailRows(),
                 job.getErrorMessage(),
                 job.getCreatedAt(),
-                job.getFinishedAt()
+                job.getFinishedAt(),
+                job.getProgress()
         );
     }
     
@@ -223,4 +559,8 @@ public class ImportService {
             return "丰台区";
         }
     }
+
+    private static final class FileLock {
+        private int holders;
+    }
 }
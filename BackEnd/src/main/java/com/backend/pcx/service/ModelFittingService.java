@@ -0,0 +1,194 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.entity.RoadModel;
+import com.backend.pcx.event.RoadDataChangedEvent;
+import com.backend.pcx.predictor.OnlinePredictor;
+import com.backend.pcx.predictor.PredictorRegistry;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.RoadModelRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps per-road parameters of the online predictors in step with the data. Appended
+ * points are folded into the stored parameters; any other change refits the road from
+ * its full series. Fitted parameters are persisted in road_model and installed into the
+ * predictor registry, replacing the road's previous ones.
+ */
+@Service
+public class ModelFittingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelFittingService.class);
+
+    private static final int SAVE_BATCH_ROADS = 100;
+
+    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+    private final RoadModelRepository roadModelRepository;
+    private final PredictorRegistry predictorRegistry;
+
+    @Value("${app.model.enabled:true}")
+    private boolean enabled;
+
+    private ExecutorService fitExecutor;
+
+    public ModelFittingService(FileBasedSpeedRepository fileBasedSpeedRepository,
+                               RoadModelRepository roadModelRepository,
+                               PredictorRegistry predictorRegistry) {
+        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+        this.roadModelRepository = roadModelRepository;
+        this.predictorRegistry = predictorRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        fitExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "model-fit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fitExecutor.shutdownNow();
+    }
+
+    /**
+     * Brings every road with data up to date: stored parameters are reused when the road
+     * only gained points since they were fitted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fitOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        fitExecutor.submit(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                List<Integer> roadIds = new ArrayList<>(fileBasedSpeedRepository.getAllRoadIds());
+                update(roadIds, true);
+                logger.info("Fitted models for {} roads in {}ms", roadIds.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                logger.error("Model fitting on startup failed", e);
+            }
+        });
+    }
+
+    /**
+     * Runs on the import thread before other listeners, so predictions computed after the
+     * prediction cache is cleared already see the new parameters.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onRoadDataChanged(RoadDataChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            update(event.getRoadIds(), event.isAppendOnly());
+        } catch (Exception e) {
+            logger.error("Model fitting failed for {} roads", event.getRoadIds().size(), e);
+        }
+    }
+
+    public synchronized void update(Collection<Integer> roadIds, boolean appendOnly) {
+        List<OnlinePredictor> predictors = predictorRegistry.getOnlinePredictors();
+        List<Integer> ids = new ArrayList<>(roadIds);
+        for (int from = 0; from < ids.size(); from += SAVE_BATCH_ROADS) {
+            List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + SAVE_BATCH_ROADS));
+            Map<String, RoadModel> stored = new HashMap<>();
+            for (RoadModel model : roadModelRepository.findByRoadIdIn(batch)) {
+                stored.put(key(model.getRoadId(), model.getPredictorType()), model);
+            }
+
+            List<RoadModel> changed = new ArrayList<>();
+            List<RoadModel> removed = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            for (Integer roadId : batch) {
+                SpeedSeries series = fileBasedSpeedRepository.readSeries(roadId);
+                for (OnlinePredictor predictor : predictors) {
+                    RoadModel model = stored.get(key(roadId, predictor.getPredictorType()));
+                    if (series.isEmpty()) {
+                        if (model != null) {
+                            removed.add(model);
+                        }
+                        continue;
+                    }
+                    RoadModel fitted = fit(predictor, roadId, series, model, appendOnly, now);
+                    if (fitted == null) {
+                        fitted = model;
+                    } else {
+                        changed.add(fitted);
+                    }
+                    predictorRegistry.install(predictor.getPredictorType(), roadId,
+                            predictor.bind(decode(fitted.getParams()), fitted.getTrainedThrough()));
+                }
+                if (series.isEmpty()) {
+                    predictorRegistry.uninstall(roadId);
+                }
+            }
+            roadModelRepository.deleteAll(removed);
+            roadModelRepository.saveAll(changed);
+        }
+    }
+
+    /**
+     * Returns null when the stored model already covers the series.
+     */
+    private RoadModel fit(OnlinePredictor predictor, Integer roadId, SpeedSeries series,
+                          RoadModel model, boolean appendOnly, long now) {
+        double[] previous = null;
+        SpeedSeries points = series;
+        if (model != null && appendOnly && series.upperBound(model.getTrainedThrough()) == model.getSampleCount()) {
+            points = series.slice(model.getSampleCount(), series.size());
+            if (points.isEmpty()) {
+                return null;
+            }
+            previous = decode(model.getParams());
+        }
+
+        double[] params = predictor.fit(previous, points);
+        RoadModel fitted = model != null ? model : new RoadModel();
+        fitted.setRoadId(roadId);
+        fitted.setPredictorType(predictor.getPredictorType());
+        fitted.setParams(encode(params));
+        fitted.setTrainedThrough(series.getTs(series.size() - 1));
+        fitted.setSampleCount(series.size());
+        fitted.setUpdatedAt(now);
+        return fitted;
+    }
+
+    private static String key(Integer roadId, String predictorType) {
+        return roadId + ":" + predictorType;
+    }
+
+    private static byte[] encode(double[] params) {
+        ByteBuffer buffer = ByteBuffer.allocate(params.length * 8);
+        buffer.asDoubleBuffer().put(params);
+        return buffer.array();
+    }
+
+    private static double[] decode(byte[] bytes) {
+        double[] params = new double[bytes.length / 8];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(params);
+        return params;
+    }
+}
@@ -0,0 +1,152 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.PredictionExportRow;
+import com.backend.pcx.dto.PredictionJobDTO;
+import com.backend.pcx.dto.PredictionPointDTO;
+import com.backend.pcx.repository.PredictionPointRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams prediction history straight from a JPA stream of projected rows to the
+ * response: NDJSON writes one job (with its points) per line, CSV one point per row (a
+ * job without points gets one row with empty point columns).
+ * Only the current job is held in memory, so exports of millions of predictions run in
+ * constant memory.
+ */
+@Service
+public class PredictionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PredictionExportService.class);
+
+    private static final String CSV_HEADER = "job_id,segment_id,road_id,segment_name,predictor_type,base_time," +
+            "horizon_steps,cost_ms,created_at,ts,predicted_speed,congestion_level";
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + name);
+            }
+        }
+    }
+
+    private final PredictionPointRepository predictionPointRepository;
+    private final ObjectMapper objectMapper;
+
+    public PredictionExportService(PredictionPointRepository predictionPointRepository, ObjectMapper objectMapper) {
+        this.predictionPointRepository = predictionPointRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the jobs of a segment (all segments when null) created in [from, to) (either
+     * bound optional) in job id order; returns the number of jobs written.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, Long segmentId, Long from, Long to, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long jobs;
+        try (Stream<PredictionExportRow> rows = predictionPointRepository.streamExportRows(segmentId, from, to)) {
+            jobs = format == Format.CSV ? writeCsv(rows.iterator(), writer) : writeNdjson(rows.iterator(), writer);
+        }
+        writer.flush();
+        logger.info("Exported {} prediction jobs as {} in {}ms", jobs, format, System.currentTimeMillis() - startTime);
+        return jobs;
+    }
+
+    /**
+     * One JSON job per line; also the format of the retention archives. A row without a
+     * point id stands for a job that has no points.
+     */
+    long writeNdjson(Iterator<PredictionExportRow> rows, Writer writer) throws IOException {
+        long jobs = 0;
+        PredictionJobDTO job = null;
+        while (rows.hasNext()) {
+            PredictionExportRow row = rows.next();
+            if (job == null || !job.getId().equals(row.getJobId())) {
+                if (job != null) {
+                    writeLine(job, writer);
+                    jobs++;
+                }
+                job = new PredictionJobDTO(row.getJobId(), row.getSegmentId(), segmentName(row), row.getBaseTime(),
+                        row.getHorizonSteps(), row.getPredictorType(), row.getCostMs(), row.getCreatedAt(),
+                        new ArrayList<>());
+            }
+            if (row.getPointId() != null) {
+                job.getPoints().add(new PredictionPointDTO(
+                        row.getPointId(), row.getTs(), row.getPredictedSpeed(), row.getCongestionLevel()));
+            }
+        }
+        if (job != null) {
+            writeLine(job, writer);
+            jobs++;
+        }
+        return jobs;
+    }
+
+    private void writeLine(PredictionJobDTO job, Writer writer) throws IOException {
+        writer.write(objectMapper.writeValueAsString(job));
+        writer.write('\n');
+    }
+
+    private static String segmentName(PredictionExportRow row) {
+        String segmentName = row.getSegmentName();
+        return segmentName == null || segmentName.isEmpty() ? "Road #" + row.getRoadId() : segmentName;
+    }
+
+    private long writeCsv(Iterator<PredictionExportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long jobs = 0;
+        Long lastJobId = null;
+        StringBuilder line = new StringBuilder(160);
+        while (rows.hasNext()) {
+            PredictionExportRow row = rows.next();
+            if (!row.getJobId().equals(lastJobId)) {
+                lastJobId = row.getJobId();
+                jobs++;
+            }
+            line.setLength(0);
+            line.append(row.getJobId()).append(',')
+                    .append(row.getSegmentId()).append(',')
+                    .append(row.getRoadId()).append(',')
+                    .append(csvField(segmentName(row))).append(',')
+                    .append(row.getPredictorType()).append(',')
+                    .append(row.getBaseTime()).append(',')
+                    .append(row.getHorizonSteps()).append(',')
+                    .append(row.getCostMs() == null ? "" : row.getCostMs()).append(',')
+                    .append(row.getCreatedAt()).append(',')
+                    .append(row.getTs() == null ? "" : row.getTs()).append(',')
+                    .append(row.getPredictedSpeed() == null ? "" : row.getPredictedSpeed()).append(',')
+                    .append(row.getCongestionLevel() == null ? "" : row.getCongestionLevel()).append('\n');
+            writer.append(line);
+        }
+        return jobs;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,297 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.PredictionAccuracyDTO;
+import com.backend.pcx.dto.PredictionExportRow;
+import com.backend.pcx.dto.RetentionStatusDTO;
+import com.backend.pcx.entity.PredictionDailyAccuracy;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.PredictionDailyAccuracyRepository;
+import com.backend.pcx.repository.PredictionRetentionJdbcRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retention for prediction history (off unless app.retention.enabled): jobs older than
+ * app.retention.detail-days are removed with their points in batches, and only their
+ * per-day accuracy (against the observed speeds) is kept in prediction_daily_accuracy.
+ * Batch runs are removed with their last job. With app.retention.archive each batch is
+ * written and flushed to a gzip NDJSON file under app.data-dir/archive (same format as
+ * the NDJSON export) before it is purged, so no job leaves the database unarchived; a
+ * failed purge is retried by the next run, which archives those jobs again (duplicates
+ * share the job id).
+ */
+@Service
+public class PredictionRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PredictionRetentionService.class);
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final DateTimeFormatter ARCHIVE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final PredictionRetentionJdbcRepository retentionJdbcRepository;
+    private final PredictionDailyAccuracyRepository dailyAccuracyRepository;
+    private final PredictionExportService predictionExportService;
+    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+    private final Timer runTimer;
+    private final Counter purgedJobsCounter;
+    private final Counter purgedPointsCounter;
+    private final Counter purgedBatchesCounter;
+
+    @Value("${app.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.retention.detail-days:7}")
+    private int detailDays;
+
+    @Value("${app.retention.interval-ms:3600000}")
+    private long intervalMs;
+
+    @Value("${app.retention.initial-delay-ms:60000}")
+    private long initialDelayMs;
+
+    @Value("${app.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.retention.archive:true}")
+    private boolean archive;
+
+    @Value("${app.data-dir:./data}")
+    private String dataDir;
+
+    @Value("${app.rollup.zone:Asia/Shanghai}")
+    private String zoneName;
+
+    private ZoneId zone;
+    private ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RetentionStatusDTO status;
+
+    public PredictionRetentionService(PredictionRetentionJdbcRepository retentionJdbcRepository,
+                                      PredictionDailyAccuracyRepository dailyAccuracyRepository,
+                                      PredictionExportService predictionExportService,
+                                      FileBasedSpeedRepository fileBasedSpeedRepository,
+                                      MeterRegistry meterRegistry) {
+        this.retentionJdbcRepository = retentionJdbcRepository;
+        this.dailyAccuracyRepository = dailyAccuracyRepository;
+        this.predictionExportService = predictionExportService;
+        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+        this.runTimer = Timer.builder("traffic.retention.run")
+                .description("Duration of prediction retention runs")
+                .register(meterRegistry);
+        this.purgedJobsCounter = Counter.builder("traffic.retention.purged")
+                .description("Prediction rows removed by the retention job")
+                .tag("table", "prediction_job")
+                .register(meterRegistry);
+        this.purgedPointsCounter = Counter.builder("traffic.retention.purged")
+                .description("Prediction rows removed by the retention job")
+                .tag("table", "prediction_point")
+                .register(meterRegistry);
+        this.purgedBatchesCounter = Counter.builder("traffic.retention.purged")
+                .description("Prediction rows removed by the retention job")
+                .tag("table", "prediction_batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        zone = ZoneId.of(zoneName);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "prediction-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(() -> run("SCHEDULED"), initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void runNow() {
+        scheduler.execute(() -> run("MANUAL"));
+    }
+
+    public RetentionStatusDTO getStatus() {
+        RetentionStatusDTO last = status;
+        if (last == null) {
+            return new RetentionStatusDTO(enabled, detailDays, archive, intervalMs, running.get(),
+                    null, null, null, null, null, null, null, null, null);
+        }
+        last.setRunning(running.get());
+        return last;
+    }
+
+    /**
+     * Accuracy summaries of purged jobs per day (by base time) in [fromTs, toTs], optionally
+     * for one predictor.
+     */
+    public List<PredictionAccuracyDTO> getDailyAccuracy(String predictorType, Long fromTs, Long toTs) {
+        long from = fromTs == null ? Long.MIN_VALUE : fromTs;
+        long to = toTs == null ? Long.MAX_VALUE : toTs;
+        List<PredictionDailyAccuracy> days = predictorType == null || predictorType.isEmpty()
+                ? dailyAccuracyRepository.findByDayTsBetweenOrderByDayTsAscPredictorTypeAsc(from, to)
+                : dailyAccuracyRepository.findByPredictorTypeAndDayTsBetweenOrderByDayTsAsc(predictorType, from, to);
+        return days.stream().map(PredictionRetentionService::toDTO).collect(Collectors.toList());
+    }
+
+    private void run(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        long cutoff = startTime - detailDays * DAY_MS;
+        long jobs = 0;
+        long points = 0;
+        long batches = 0;
+        Path archiveFile = null;
+        Writer writer = null;
+        String error = null;
+        try {
+            while (true) {
+                List<Long> jobIds = retentionJdbcRepository.findExpiredJobIds(cutoff, batchSize);
+                if (jobIds.isEmpty()) {
+                    break;
+                }
+                List<PredictionExportRow> rows = retentionJdbcRepository.findRows(jobIds);
+                if (archive) {
+                    if (writer == null) {
+                        archiveFile = archivePath(startTime);
+                        writer = new BufferedWriter(new OutputStreamWriter(
+                                new GZIPOutputStream(Files.newOutputStream(archiveFile), 64 * 1024, true),
+                                StandardCharsets.UTF_8), 64 * 1024);
+                    }
+                    predictionExportService.writeNdjson(rows.iterator(), writer);
+                    writer.flush();
+                }
+                int purgedBatches = retentionJdbcRepository.purge(jobIds, summarize(rows, startTime));
+                long purgedPoints = rows.stream().filter(row -> row.getPointId() != null).count();
+                jobs += jobIds.size();
+                points += purgedPoints;
+                batches += purgedBatches;
+                purgedJobsCounter.increment(jobIds.size());
+                purgedPointsCounter.increment(purgedPoints);
+                purgedBatchesCounter.increment(purgedBatches);
+            }
+        } catch (Exception e) {
+            error = e.getMessage();
+            logger.error("Prediction retention failed after purging {} jobs", jobs, e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close retention archive {}", archiveFile, e);
+                    if (error == null) {
+                        error = "Failed to close archive " + archiveFile + ": " + e.getMessage();
+                    }
+                }
+            }
+            long duration = System.currentTimeMillis() - startTime;
+            runTimer.record(duration, TimeUnit.MILLISECONDS);
+            status = new RetentionStatusDTO(enabled, detailDays, archive, intervalMs, false, trigger, startTime,
+                    duration, cutoff, jobs, points, batches, archiveFile == null ? null : archiveFile.toString(), error);
+            running.set(false);
+        }
+        if (jobs > 0) {
+            logger.info("Prediction retention ({}): purged {} jobs / {} points / {} batches created before {} in {}ms{}",
+                    trigger, jobs, points, batches, Instant.ofEpochMilli(cutoff), System.currentTimeMillis() - startTime,
+                    archiveFile == null ? "" : ", archived to " + archiveFile);
+        }
+    }
+
+    private Path archivePath(long startTime) throws IOException {
+        Path dir = Paths.get(dataDir).resolve("archive");
+        Files.createDirectories(dir);
+        String stamp = ARCHIVE_STAMP.format(Instant.ofEpochMilli(startTime).atZone(zone));
+        return dir.resolve("prediction-jobs-" + stamp + ".ndjson.gz");
+    }
+
+    /**
+     * Per-day (base time) and predictor accuracy of a batch of rows; every job is counted,
+     * and each point is compared with the observed speed at exactly its ts (points without
+     * one only count as points).
+     */
+    private List<PredictionDailyAccuracy> summarize(List<PredictionExportRow> rows, long now) {
+        Map<String, PredictionDailyAccuracy> days = new HashMap<>();
+        Map<Integer, SpeedSeries> series = new HashMap<>();
+        Long lastJobId = null;
+        for (PredictionExportRow row : rows) {
+            long dayTs = Instant.ofEpochMilli(row.getBaseTime()).atZone(zone)
+                    .truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+            PredictionDailyAccuracy day = days.computeIfAbsent(dayTs + "|" + row.getPredictorType(),
+                    k -> new PredictionDailyAccuracy(null, dayTs, row.getPredictorType(), 0L, 0L, 0L, 0.0, 0.0, 0.0, now));
+            if (!row.getJobId().equals(lastJobId)) {
+                lastJobId = row.getJobId();
+                day.setJobCount(day.getJobCount() + 1);
+            }
+            if (row.getPointId() == null) {
+                continue;
+            }
+            day.setPointCount(day.getPointCount() + 1);
+
+            SpeedSeries observed = series.computeIfAbsent(row.getRoadId(), fileBasedSpeedRepository::readSeries);
+            int index = observed.lowerBound(row.getTs());
+            if (index < observed.size() && observed.getTs(index) == row.getTs()) {
+                double actual = observed.getSpeed(index);
+                double error = row.getPredictedSpeed() - actual;
+                day.setEvaluatedCount(day.getEvaluatedCount() + 1);
+                day.setAbsErrorSum(day.getAbsErrorSum() + Math.abs(error));
+                day.setSquaredErrorSum(day.getSquaredErrorSum() + error * error);
+                day.setPctErrorSum(day.getPctErrorSum() + Math.abs(error) / actual);
+            }
+        }
+        return List.copyOf(days.values());
+    }
+
+    private static PredictionAccuracyDTO toDTO(PredictionDailyAccuracy day) {
+        long n = day.getEvaluatedCount();
+        return new PredictionAccuracyDTO(
+                day.getDayTs(),
+                day.getPredictorType(),
+                day.getJobCount(),
+                day.getPointCount(),
+                n,
+                n == 0 ? null : day.getAbsErrorSum() / n,
+                n == 0 ? null : Math.sqrt(day.getSquaredErrorSum() / n),
+                n == 0 ? null : 100 * day.getPctErrorSum() / n);
+    }
+}
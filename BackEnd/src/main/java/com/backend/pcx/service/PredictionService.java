@@ -1,27 +1,48 @@
 package com.backend.pcx.service;
 
+import com.backend.pcx.dto.CursorPage;
 import com.backend.pcx.dto.PredictRequest;
 import com.backend.pcx.dto.PredictionJobDTO;
 import com.backend.pcx.dto.PredictionPointDTO;
 import com.backend.pcx.entity.PredictionJob;
 import com.backend.pcx.entity.PredictionPoint;
 import com.backend.pcx.entity.RoadSegment;
-import com.backend.pcx.predictor.BaselinePredictor;
+import com.backend.pcx.entity.SegmentStatistics;
+import com.backend.pcx.event.RoadDataChangedEvent;
 import com.backend.pcx.predictor.PredictionResult;
+import com.backend.pcx.predictor.PredictorRegistry;
 import com.backend.pcx.predictor.TrafficPredictor;
 import com.backend.pcx.repository.FileBasedSpeedRepository;
 import com.backend.pcx.repository.PredictionJobRepository;
 import com.backend.pcx.repository.PredictionPointRepository;
 import com.backend.pcx.repository.RoadSegmentRepository;
+import com.backend.pcx.repository.SegmentStatisticsRepository;
+import com.backend.pcx.tracing.RequestTracer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,8 +51,11 @@ public class PredictionService {
     private final PredictionJobRepository predictionJobRepository;
     private final PredictionPointRepository predictionPointRepository;
     private final RoadSegmentRepository roadSegmentRepository;
+    private final SegmentStatisticsRepository segmentStatisticsRepository;
     private final FileBasedSpeedRepository fileBasedSpeedRepository;
-    private final BaselinePredictor baselinePredictor;
+    private final PredictorRegistry predictorRegistry;
+    private final RequestTracer requestTracer;
+    private final MeterRegistry meterRegistry;
     
     @Value("${traffic.prediction.free-speed-threshold:40}")
     private Double freeSpeedThreshold;
@@ -41,99 +65,256 @@ public class PredictionService {
     
     @Value("${traffic.prediction.prediction-window-size:6}")
     private Integer predictionWindowSize;
+    
+    @Value("${app.prediction.cache.max-entries:10000}")
+    private long cacheMaxEntries;
+    
+    @Value("${app.prediction.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+    
+    @Value("${app.prediction.dedupe:false}")
+    private boolean dedupe;
+    
+    private Cache<PredictionKey, PredictionJobDTO> predictionCache;
+    private final Map<Integer, AtomicLong> dataGenerations = new ConcurrentHashMap<>();
 
     public PredictionService(PredictionJobRepository predictionJobRepository,
                              PredictionPointRepository predictionPointRepository,
                              RoadSegmentRepository roadSegmentRepository,
+                             SegmentStatisticsRepository segmentStatisticsRepository,
                              FileBasedSpeedRepository fileBasedSpeedRepository,
-                             BaselinePredictor baselinePredictor) {
+                             PredictorRegistry predictorRegistry,
+                             RequestTracer requestTracer,
+                             MeterRegistry meterRegistry) {
         this.predictionJobRepository = predictionJobRepository;
         this.predictionPointRepository = predictionPointRepository;
         this.roadSegmentRepository = roadSegmentRepository;
+        this.segmentStatisticsRepository = segmentStatisticsRepository;
         this.fileBasedSpeedRepository = fileBasedSpeedRepository;
-        this.baselinePredictor = baselinePredictor;
+        this.predictorRegistry = predictorRegistry;
+        this.requestTracer = requestTracer;
+        this.meterRegistry = meterRegistry;
     }
 
+    @PostConstruct
+    public void initCache() {
+        predictionCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+    }
+
+    /**
+     * Identical requests (same road, resolved base time, horizon and predictor) are served
+     * from the memo until it expires or the road's data changes. A computed job enters the
+     * memo only once its transaction commits, so a rollback never leaves a cached id behind,
+     * and only if the road's data has not changed since the request started.
+     */
     @Transactional
     public PredictionJobDTO predict(PredictRequest request) {
-        RoadSegment segment = roadSegmentRepository.findById(request.getSegmentId())
-                .orElseThrow(() -> new IllegalArgumentException("Segment not found"));
+        RoadSegment segment = requestTracer.time("segment", () -> roadSegmentRepository.findById(request.getSegmentId())
+                .orElseThrow(() -> new IllegalArgumentException("Segment not found")));
+        long generation = dataGeneration(segment.getRoadId()).get();
         
-        TrafficPredictor predictor = baselinePredictor;
-        
-        Integer roadId = segment.getRoadId();
+        String predictorType = predictorRegistry.get(request.getPredictorType()).getPredictorType();
+        Long baseTime = requestTracer.time("history", () -> resolveBaseTime(segment.getRoadId(), request.getBaseTime()));
+        PredictionKey key = new PredictionKey(segment.getRoadId(), baseTime, request.getHorizonSteps(), predictorType);
         
-        Long baseTime = request.getBaseTime();
-        if (baseTime == null) {
-            List<FileBasedSpeedRepository.SpeedDataPoint> recentData = 
-                    fileBasedSpeedRepository.getRecentSpeedData(roadId, 1);
-            if (recentData.isEmpty()) {
-                throw new IllegalArgumentException("No data available for this road");
+        PredictionJobDTO cached = predictionCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        PredictionJobDTO result = findDuplicate(segment, key)
+                .orElseGet(() -> persist(forecast(segment, baseTime, request.getHorizonSteps(), predictorType)));
+        cacheAfterCommit(key, result, generation);
+        return result;
+    }
+
+    private void cacheAfterCommit(PredictionKey key, PredictionJobDTO result, long generation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache(key, result, generation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache(key, result, generation);
             }
-            baseTime = recentData.get(recentData.size() - 1).getTs();
+        });
+    }
+
+    /**
+     * Skips results computed before the road's data last changed. The check runs inside
+     * the entry's compute, so it either sees the new generation or is followed by the
+     * invalidation's removal.
+     */
+    private void cache(PredictionKey key, PredictionJobDTO result, long generation) {
+        predictionCache.asMap().compute(key, (k, current) ->
+                dataGeneration(k.roadId()).get() == generation ? result : current);
+    }
+
+    private AtomicLong dataGeneration(Integer roadId) {
+        return dataGenerations.computeIfAbsent(roadId, k -> new AtomicLong());
+    }
+
+    @EventListener
+    public void onRoadDataChanged(RoadDataChangedEvent event) {
+        event.getRoadIds().forEach(roadId -> dataGeneration(roadId).incrementAndGet());
+        predictionCache.asMap().keySet().removeIf(key -> event.getRoadIds().contains(key.roadId()));
+    }
+
+    private PredictionJobDTO persist(Forecast forecast) {
+        return requestTracer.time("persist", () -> {
+            PredictionJob job = predictionJobRepository.save(forecast.getJob());
+            List<PredictionPoint> points = forecast.getPoints();
+            points.forEach(point -> point.setJob(job));
+            predictionPointRepository.saveAll(points);
+            
+            return toDTO(job, points);
+        });
+    }
+
+    /**
+     * With dedupe enabled, reuses a stored job for the same inputs when it was computed
+     * after the road's statistics (and therefore its data) were last refreshed.
+     */
+    private Optional<PredictionJobDTO> findDuplicate(RoadSegment segment, PredictionKey key) {
+        if (!dedupe) {
+            return Optional.empty();
+        }
+        return requestTracer.time("dedupe", () -> findStoredJob(segment, key));
+    }
+
+    private Optional<PredictionJobDTO> findStoredJob(RoadSegment segment, PredictionKey key) {
+        Optional<Long> dataUpdatedAt = segmentStatisticsRepository.findByRoadId(segment.getRoadId())
+                .map(SegmentStatistics::getUpdatedAt);
+        if (dataUpdatedAt.isEmpty()) {
+            return Optional.empty();
+        }
+        return predictionJobRepository
+                .findFirstBySegmentIdAndBaseTimeAndHorizonStepsAndPredictorTypeOrderByCreatedAtDesc(
+                        segment.getId(), key.baseTime(), key.horizonSteps(), key.predictorType())
+                .filter(job -> job.getCreatedAt() >= dataUpdatedAt.get())
+                .map(job -> toDTO(job, predictionPointRepository.findByJobIdOrderByTsAsc(job.getId())));
+    }
+
+    private Long resolveBaseTime(Integer roadId, Long baseTime) {
+        if (baseTime != null) {
+            return baseTime;
+        }
+        List<FileBasedSpeedRepository.SpeedDataPoint> recentData = 
+                fileBasedSpeedRepository.getRecentSpeedData(roadId, 1);
+        if (recentData.isEmpty()) {
+            throw new IllegalArgumentException("No data available for this road");
         }
+        return recentData.get(recentData.size() - 1).getTs();
+    }
+
+    /**
+     * Runs the predictor for one segment without persisting anything; a null requestedBaseTime
+     * means the road's latest observation and a null predictorType the default predictor.
+     */
+    public Forecast forecast(RoadSegment segment, Long requestedBaseTime, Integer horizonSteps, String predictorType) {
+        Integer roadId = segment.getRoadId();
+        TrafficPredictor predictor = predictorRegistry.get(predictorType, roadId);
         
-        Long historicalFrom = baseTime - (predictionWindowSize * 10 * 60 * 1000L);
-        List<FileBasedSpeedRepository.SpeedDataPoint> historicalData = 
-                fileBasedSpeedRepository.getSpeedData(roadId, historicalFrom, baseTime, false);
+        Long baseTime = requestTracer.time("history", () -> resolveBaseTime(roadId, requestedBaseTime));
+        int historySteps = Math.max(predictionWindowSize, predictor.getHistorySteps());
+        Long historicalFrom = baseTime - (historySteps * 10 * 60 * 1000L);
+        List<FileBasedSpeedRepository.SpeedDataPoint> historicalData = requestTracer.time("history",
+                () -> fileBasedSpeedRepository.getSpeedData(roadId, historicalFrom, baseTime, false));
         
         if (historicalData.size() < predictionWindowSize) {
             throw new IllegalArgumentException("Not enough historical data for prediction");
         }
         
-        long startTime = System.currentTimeMillis();
-        List<PredictionResult> results = predictor.predict(
+        long startNanos = System.nanoTime();
+        List<PredictionResult> results = requestTracer.time("model", () -> predictor.predict(
                 segment.getId(),
                 baseTime,
-                request.getHorizonSteps(),
+                horizonSteps,
                 historicalData
-        );
-        long costMs = System.currentTimeMillis() - startTime;
+        ));
+        long costNanos = System.nanoTime() - startNanos;
+        predictorTimer(predictor.getPredictorType()).record(costNanos, TimeUnit.NANOSECONDS);
+        long costMs = TimeUnit.NANOSECONDS.toMillis(costNanos);
         
         PredictionJob job = new PredictionJob();
         job.setSegment(segment);
         job.setBaseTime(baseTime);
-        job.setHorizonSteps(request.getHorizonSteps());
+        job.setHorizonSteps(horizonSteps);
         job.setPredictorType(predictor.getPredictorType());
         job.setCostMs(costMs);
         job.setCreatedAt(System.currentTimeMillis());
-        job = predictionJobRepository.save(job);
         
-        final PredictionJob savedJob = job;
         List<PredictionPoint> points = results.stream().map(result -> {
             PredictionPoint point = new PredictionPoint();
-            point.setJob(savedJob);
             point.setTs(result.getTs());
             point.setPredictedSpeed(result.getPredictedSpeed());
             point.setCongestionLevel(result.getCongestionLevel());
             return point;
         }).collect(Collectors.toList());
         
-        predictionPointRepository.saveAll(points);
-        
-        return toDTO(job, points);
+        return new Forecast(job, points);
+    }
+
+    private Timer predictorTimer(String predictorType) {
+        return Timer.builder("traffic.predictor.latency")
+                .description("Time spent inside a predictor's predict call")
+                .tag("predictor", predictorType)
+                .register(meterRegistry);
+    }
+
+    public Page<PredictionJobDTO> getPredictionJobs(Integer page, Integer size, boolean compact) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toDTOs(predictionJobRepository.findAllByOrderByCreatedAtDescIdDesc(pageable), compact);
     }
 
-    public Page<PredictionJobDTO> getPredictionJobs(Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return predictionJobRepository.findAllByOrderByCreatedAtDesc(pageable)
-                .map(job -> {
-                    List<PredictionPoint> points = predictionPointRepository.findByJobIdOrderByTsAsc(job.getId());
-                    return toDTO(job, points);
-                });
+    public Page<PredictionJobDTO> getPredictionJobsBySegment(Long segmentId, Integer page, Integer size, boolean compact) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toDTOs(predictionJobRepository.findBySegmentIdOrderByCreatedAtDescIdDesc(segmentId, pageable), compact);
     }
 
-    public Page<PredictionJobDTO> getPredictionJobsBySegment(Long segmentId, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return predictionJobRepository.findBySegmentIdOrderByCreatedAtDesc(segmentId, pageable)
-                .map(job -> {
-                    List<PredictionPoint> points = predictionPointRepository.findByJobIdOrderByTsAsc(job.getId());
-                    return toDTO(job, points);
-                });
+    public Page<PredictionJobDTO> getPredictionJobsByBatch(Long batchId, Integer page, Integer size, boolean compact) {
+        return toDTOs(predictionJobRepository.findByBatchIdOrderByIdAsc(batchId, PageRequest.of(page, size)), compact);
+    }
+
+    /**
+     * Newest-first job history by keyset on (createdAt, id): no count query and no skipped
+     * rows, so every page costs the same however deep it is. The cursor is the
+     * "createdAt_id" of the last job of the previous page; null starts from the newest.
+     */
+    public CursorPage<PredictionJobDTO> scrollPredictionJobs(String cursor, Long segmentId, Integer size, boolean compact) {
+        if (size == null || size < 1 || size > CursorPage.MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + CursorPage.MAX_SIZE);
+        }
+        long createdAt = Long.MAX_VALUE;
+        long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = cursor.split("_");
+            try {
+                createdAt = Long.parseLong(parts[0]);
+                id = Long.parseLong(parts[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<PredictionJob> jobs = segmentId == null
+                ? predictionJobRepository.findPageBefore(createdAt, id, limit)
+                : predictionJobRepository.findSegmentPageBefore(segmentId, createdAt, id, limit);
+
+        String nextCursor = null;
+        if (jobs.size() > size) {
+            jobs = jobs.subList(0, size);
+            PredictionJob last = jobs.get(size - 1);
+            nextCursor = last.getCreatedAt() + "_" + last.getId();
+        }
+        return new CursorPage<>(toDTOs(jobs, compact), nextCursor);
     }
 
     public PredictionJobDTO getPredictionJob(Long jobId) {
-        PredictionJob job = predictionJobRepository.findById(jobId).orElse(null);
+        PredictionJob job = predictionJobRepository.findWithSegmentById(jobId).orElse(null);
         if (job == null) {
             return null;
         }
@@ -141,8 +322,34 @@ public class PredictionService {
         return toDTO(job, points);
     }
 
+    private Page<PredictionJobDTO> toDTOs(Page<PredictionJob> jobs, boolean compact) {
+        return new PageImpl<>(toDTOs(jobs.getContent(), compact), jobs.getPageable(), jobs.getTotalElements());
+    }
+
+    /**
+     * The jobs come with their segments (fetch join); the points of all of them are read
+     * with one IN query, or skipped in compact mode, so a page costs a fixed number of
+     * queries whatever its size.
+     */
+    private List<PredictionJobDTO> toDTOs(List<PredictionJob> jobs, boolean compact) {
+        if (compact || jobs.isEmpty()) {
+            return jobs.stream().map(job -> toDTO(job, null)).collect(Collectors.toList());
+        }
+        List<Long> jobIds = jobs.stream().map(PredictionJob::getId).collect(Collectors.toList());
+        Map<Long, List<PredictionPoint>> pointsByJob = predictionPointRepository
+                .findByJobIdInOrderByJobIdAscTsAsc(jobIds).stream()
+                .collect(Collectors.groupingBy(point -> point.getJob().getId()));
+        return jobs.stream()
+                .map(job -> toDTO(job, pointsByJob.getOrDefault(job.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public PredictionJobDTO toDTO(Forecast forecast) {
+        return toDTO(forecast.getJob(), forecast.getPoints());
+    }
+
     private PredictionJobDTO toDTO(PredictionJob job, List<PredictionPoint> points) {
-        List<PredictionPointDTO> pointDTOs = points.stream().map(point ->
+        List<PredictionPointDTO> pointDTOs = points == null ? null : points.stream().map(point ->
                 new PredictionPointDTO(
                         point.getId(),
                         point.getTs(),
@@ -168,4 +375,14 @@ public class PredictionService {
                 pointDTOs
         );
     }
+
+    private record PredictionKey(Integer roadId, Long baseTime, Integer horizonSteps, String predictorType) {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Forecast {
+        private final PredictionJob job;
+        private final List<PredictionPoint> points;
+    }
 }
@@ -1,5 +1,6 @@
 package com.backend.pcx.service;
 
+import com.backend.pcx.dto.CursorPage;
 import com.backend.pcx.dto.RoadSegmentDTO;
 import com.backend.pcx.entity.RoadSegment;
 import com.backend.pcx.entity.RoadAlias;
@@ -44,6 +45,33 @@ public class RoadSegmentService {
         return segments.map(this::toDTO);
     }
 
+    /**
+     * Segments in roadId order by keyset: the cursor is the roadId of the last segment of
+     * the previous page, null for the first page.
+     */
+    public CursorPage<RoadSegmentDTO> scrollSegments(String keyword, String region, String cursor, Integer size) {
+        if (size == null || size < 1 || size > CursorPage.MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + CursorPage.MAX_SIZE);
+        }
+        int afterRoadId = Integer.MIN_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                afterRoadId = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        List<RoadSegment> segments = roadSegmentRepository.searchAfter(
+                afterRoadId, keyword, region, PageRequest.of(0, size + 1));
+
+        String nextCursor = null;
+        if (segments.size() > size) {
+            segments = segments.subList(0, size);
+            nextCursor = String.valueOf(segments.get(size - 1).getRoadId());
+        }
+        return new CursorPage<>(segments.stream().map(this::toDTO).collect(Collectors.toList()), nextCursor);
+    }
+
     public RoadSegmentDTO getSegmentById(Long id) {
         Optional<RoadSegment> segment = roadSegmentRepository.findById(id);
         return segment.map(this::toDTO).orElse(null);
@@ -0,0 +1,299 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.RollupPointDTO;
+import com.backend.pcx.dto.RollupSeriesDTO;
+import com.backend.pcx.dto.SpeedProfileDTO;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.entity.SpeedProfile;
+import com.backend.pcx.entity.SpeedRollup;
+import com.backend.pcx.entity.SpeedRollup.Resolution;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import com.backend.pcx.repository.RollupJdbcRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes per-road hourly/daily speed rollups and a weekday x time-of-day profile,
+ * and serves chart queries at the coarsest resolution that still fits the point budget.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    private static final int SLOT_MINUTES = 24 * 60 / SpeedProfile.SLOTS_PER_DAY;
+    private static final long SLOT_MS = SLOT_MINUTES * 60 * 1000L;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final int REBUILD_BATCH_ROADS = 100;
+
+    private final FileBasedSpeedRepository fileBasedSpeedRepository;
+    private final RollupJdbcRepository rollupJdbcRepository;
+    private final RoadSegmentRepository roadSegmentRepository;
+
+    @Value("${app.rollup.zone:Asia/Shanghai}")
+    private String zoneName;
+
+    @Value("${app.rollup.max-points:1000}")
+    private int defaultMaxPoints;
+
+    private ZoneId zone;
+    private ExecutorService backfillExecutor;
+
+    public RollupService(FileBasedSpeedRepository fileBasedSpeedRepository,
+                         RollupJdbcRepository rollupJdbcRepository,
+                         RoadSegmentRepository roadSegmentRepository) {
+        this.fileBasedSpeedRepository = fileBasedSpeedRepository;
+        this.rollupJdbcRepository = rollupJdbcRepository;
+        this.roadSegmentRepository = roadSegmentRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        zone = ZoneId.of(zoneName);
+        backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rollup-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfillExecutor.submit(() -> {
+            try {
+                if (!rollupJdbcRepository.isEmpty()) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                List<Integer> roadIds = new ArrayList<>(fileBasedSpeedRepository.getAllRoadIds());
+                rebuild(roadIds);
+                logger.info("Rollup backfill finished for {} roads in {}ms", roadIds.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                logger.error("Rollup backfill failed", e);
+            }
+        });
+    }
+
+    public void rebuild(Collection<Integer> roadIds) {
+        rebuild(roadIds, null, null);
+    }
+
+    /**
+     * Recomputes the rollups of the given roads for the days overlapping [fromTs, toTs]
+     * (null bounds are open) and their full weekday profile.
+     */
+    public synchronized void rebuild(Collection<Integer> roadIds, Long fromTs, Long toTs) {
+        long windowStart = fromTs == null ? Long.MIN_VALUE : bucketStart(fromTs, Resolution.DAY);
+        long windowEnd = toTs == null ? Long.MAX_VALUE : nextBucketStart(bucketStart(toTs, Resolution.DAY), Resolution.DAY);
+        long now = System.currentTimeMillis();
+
+        List<Integer> ids = new ArrayList<>(roadIds);
+        for (int from = 0; from < ids.size(); from += REBUILD_BATCH_ROADS) {
+            List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + REBUILD_BATCH_ROADS));
+            List<SpeedRollup> rollups = new ArrayList<>();
+            List<SpeedProfile> profiles = new ArrayList<>();
+            for (Integer roadId : batch) {
+                SpeedSeries series = fileBasedSpeedRepository.readSeries(roadId);
+                SpeedSeries window = series.range(windowStart, windowEnd - 1);
+                rollups.addAll(computeRollups(roadId, window, Resolution.HOUR));
+                rollups.addAll(computeRollups(roadId, window, Resolution.DAY));
+                if (!series.isEmpty()) {
+                    profiles.add(computeProfile(roadId, series, now));
+                }
+            }
+            rollupJdbcRepository.replaceRoads(batch, windowStart, windowEnd, rollups, profiles);
+        }
+    }
+
+    public RollupSeriesDTO getRollupSeries(Long segmentId, Long from, Long to, Long span,
+                                           Resolution resolution, Integer maxPoints) {
+        Optional<RoadSegment> segmentOpt = roadSegmentRepository.findById(segmentId);
+        if (segmentOpt.isEmpty()) {
+            return null;
+        }
+        Integer roadId = segmentOpt.get().getRoadId();
+
+        SpeedSeries series = fileBasedSpeedRepository.readSeries(roadId);
+        if (series.isEmpty()) {
+            return new RollupSeriesDTO(segmentId, roadId, Resolution.RAW, from, to, List.of());
+        }
+
+        long toTs = to != null ? to : series.getTs(series.size() - 1);
+        long fromTs = from != null ? from : (span != null ? toTs - span : series.getTs(0));
+        int budget = maxPoints != null && maxPoints > 0 ? maxPoints : defaultMaxPoints;
+
+        Resolution chosen = resolution;
+        if (chosen == null) {
+            SpeedSeries range = series.range(fromTs, toTs);
+            if (range.size() <= budget) {
+                chosen = Resolution.RAW;
+            } else if ((toTs - fromTs) / HOUR_MS + 1 <= budget) {
+                chosen = Resolution.HOUR;
+            } else {
+                chosen = Resolution.DAY;
+            }
+        }
+
+        List<RollupPointDTO> points;
+        if (chosen == Resolution.RAW) {
+            SpeedSeries range = series.range(fromTs, toTs);
+            points = new ArrayList<>(range.size());
+            for (int i = 0; i < range.size(); i++) {
+                double speed = range.getSpeed(i);
+                points.add(new RollupPointDTO(range.getTs(i), speed, speed, speed, speed, speed, speed, 1));
+            }
+        } else {
+            points = rollupJdbcRepository.findRollups(roadId, chosen, bucketStart(fromTs, chosen), toTs).stream()
+                    .map(r -> new RollupPointDTO(r.getBucketTs(), r.getMinSpeed(), r.getAvgSpeed(), r.getMaxSpeed(),
+                            r.getP10Speed(), r.getP50Speed(), r.getP90Speed(), r.getPointCount()))
+                    .collect(Collectors.toList());
+        }
+
+        return new RollupSeriesDTO(segmentId, roadId, chosen, fromTs, toTs, points);
+    }
+
+    public SpeedProfileDTO getProfile(Long segmentId) {
+        Optional<RoadSegment> segmentOpt = roadSegmentRepository.findById(segmentId);
+        if (segmentOpt.isEmpty()) {
+            return null;
+        }
+        Integer roadId = segmentOpt.get().getRoadId();
+
+        Double[][] avgSpeeds = new Double[SpeedProfile.WEEKDAYS][SpeedProfile.SLOTS_PER_DAY];
+        Integer[][] pointCounts = new Integer[SpeedProfile.WEEKDAYS][SpeedProfile.SLOTS_PER_DAY];
+        SpeedProfile profile = rollupJdbcRepository.findProfile(roadId);
+        DoubleBuffer speeds = profile == null ? null : ByteBuffer.wrap(profile.getAvgSpeeds()).asDoubleBuffer();
+        IntBuffer counts = profile == null ? null : ByteBuffer.wrap(profile.getPointCounts()).asIntBuffer();
+        for (int slot = 0; slot < SpeedProfile.SLOTS; slot++) {
+            int day = slot / SpeedProfile.SLOTS_PER_DAY;
+            int time = slot % SpeedProfile.SLOTS_PER_DAY;
+            int count = counts == null ? 0 : counts.get(slot);
+            avgSpeeds[day][time] = count > 0 ? speeds.get(slot) : null;
+            pointCounts[day][time] = count;
+        }
+        return new SpeedProfileDTO(segmentId, roadId, zone.getId(), SLOT_MINUTES, avgSpeeds, pointCounts);
+    }
+
+    /**
+     * Average speed for each weekday/time-of-day slot, indexed by {@link #profileSlot(long)};
+     * NaN where the road has no observations, null when no profile exists.
+     */
+    public double[] getProfileBaseline(Integer roadId) {
+        SpeedProfile profile = rollupJdbcRepository.findProfile(roadId);
+        if (profile == null) {
+            return null;
+        }
+        double[] baseline = new double[SpeedProfile.SLOTS];
+        ByteBuffer.wrap(profile.getAvgSpeeds()).asDoubleBuffer().get(baseline);
+        return baseline;
+    }
+
+    public int profileSlot(long ts) {
+        long local = ts + zone.getRules().getOffset(Instant.ofEpochMilli(ts)).getTotalSeconds() * 1000L;
+        int weekday = (int) Math.floorMod(Math.floorDiv(local, DAY_MS) + 3, 7L);
+        return weekday * SpeedProfile.SLOTS_PER_DAY + (int) (Math.floorMod(local, DAY_MS) / SLOT_MS);
+    }
+
+    private List<SpeedRollup> computeRollups(Integer roadId, SpeedSeries series, Resolution resolution) {
+        List<SpeedRollup> rollups = new ArrayList<>();
+        double[] values = new double[16];
+        int count = 0;
+        long bucket = 0;
+        long nextBucket = Long.MIN_VALUE;
+
+        for (int i = 0; i <= series.size(); i++) {
+            boolean flush = i == series.size() || series.getTs(i) >= nextBucket;
+            if (flush && count > 0) {
+                rollups.add(summarize(roadId, resolution, bucket, values, count));
+                count = 0;
+            }
+            if (i == series.size()) {
+                break;
+            }
+            if (flush) {
+                bucket = bucketStart(series.getTs(i), resolution);
+                nextBucket = nextBucketStart(bucket, resolution);
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = series.getSpeed(i);
+        }
+        return rollups;
+    }
+
+    private SpeedRollup summarize(Integer roadId, Resolution resolution, long bucket, double[] values, int count) {
+        Arrays.sort(values, 0, count);
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return new SpeedRollup(null, roadId, resolution, bucket,
+                values[0], sum / count, values[count - 1],
+                percentile(values, count, 0.10), percentile(values, count, 0.50), percentile(values, count, 0.90),
+                count);
+    }
+
+    private static double percentile(double[] sorted, int count, double p) {
+        int rank = (int) Math.ceil(p * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    private SpeedProfile computeProfile(Integer roadId, SpeedSeries series, long now) {
+        double[] sums = new double[SpeedProfile.SLOTS];
+        int[] counts = new int[SpeedProfile.SLOTS];
+        for (int i = 0; i < series.size(); i++) {
+            int slot = profileSlot(series.getTs(i));
+            sums[slot] += series.getSpeed(i);
+            counts[slot]++;
+        }
+
+        ByteBuffer speeds = ByteBuffer.allocate(SpeedProfile.SLOTS * 8);
+        ByteBuffer pointCounts = ByteBuffer.allocate(SpeedProfile.SLOTS * 4);
+        for (int slot = 0; slot < SpeedProfile.SLOTS; slot++) {
+            speeds.putDouble(counts[slot] > 0 ? sums[slot] / counts[slot] : Double.NaN);
+            pointCounts.putInt(counts[slot]);
+        }
+        return new SpeedProfile(null, roadId, speeds.array(), pointCounts.array(), now);
+    }
+
+    private long bucketStart(long ts, Resolution resolution) {
+        ChronoUnit unit = resolution == Resolution.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        return Instant.ofEpochMilli(ts).atZone(zone).truncatedTo(unit).toInstant().toEpochMilli();
+    }
+
+    private long nextBucketStart(long bucket, Resolution resolution) {
+        ZonedDateTime start = Instant.ofEpochMilli(bucket).atZone(zone);
+        return (resolution == Resolution.DAY ? start.plusDays(1) : start.plusHours(1)).toInstant().toEpochMilli();
+    }
+}
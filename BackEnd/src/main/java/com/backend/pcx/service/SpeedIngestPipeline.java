@@ -0,0 +1,272 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.entity.RoadFileAggregate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Single-pass CSV ingest: one reader streams the file and fans row batches out to
+ * workers partitioned by road_id, and each worker keeps running per-road aggregates.
+ */
+@Component
+public class SpeedIngestPipeline {
+
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+    private static final int BATCH_ROWS = 2048;
+    private static final int QUEUE_BATCHES = 16;
+    private static final long PROGRESS_INTERVAL_BYTES = 4L * 1024 * 1024;
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final List<String> END_OF_INPUT = new ArrayList<>(0);
+
+    @Value("${app.import.workers:4}")
+    private int workers;
+
+    private ExecutorService workerPool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger workerId = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "ingest-" + workerId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    public IngestResult ingest(InputStream input, String filename, Long baseDate, LongConsumer onBytesRead)
+            throws IOException, InterruptedException {
+        int partitions = Math.max(1, workers);
+        List<BlockingQueue<List<String>>> queues = new ArrayList<>(partitions);
+        List<Future<Partition>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+            queues.add(queue);
+            futures.add(workerPool.submit(() -> aggregate(queue, baseDate)));
+        }
+
+        CountingInputStream counting = new CountingInputStream(input);
+        long totalRows = 0;
+        long unparsedRows = 0;
+        List<List<String>> pending = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            pending.add(new ArrayList<>(BATCH_ROWS));
+        }
+
+        boolean completed = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            long nextProgress = PROGRESS_INTERVAL_BYTES;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                totalRows++;
+
+                int comma = line.indexOf(',');
+                int roadId;
+                try {
+                    roadId = Integer.parseInt((comma < 0 ? line : line.substring(0, comma)).trim());
+                } catch (NumberFormatException e) {
+                    unparsedRows++;
+                    continue;
+                }
+
+                int partition = Math.floorMod(roadId, partitions);
+                List<String> batch = pending.get(partition);
+                batch.add(line);
+                if (batch.size() == BATCH_ROWS) {
+                    send(queues.get(partition), batch, futures.get(partition));
+                    pending.set(partition, new ArrayList<>(BATCH_ROWS));
+                }
+
+                if (counting.count >= nextProgress) {
+                    onBytesRead.accept(counting.count);
+                    nextProgress = counting.count + PROGRESS_INTERVAL_BYTES;
+                }
+            }
+
+            for (int i = 0; i < partitions; i++) {
+                if (!pending.get(i).isEmpty()) {
+                    send(queues.get(i), pending.get(i), futures.get(i));
+                }
+                send(queues.get(i), END_OF_INPUT, futures.get(i));
+            }
+            completed = true;
+        } finally {
+            // A reader or worker failure must not leave the other workers parked on take()
+            if (!completed) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+        onBytesRead.accept(counting.count);
+
+        Map<Integer, RoadFileAggregate> aggregates = new HashMap<>();
+        long validRows = 0;
+        for (Future<Partition> future : futures) {
+            Partition partition;
+            try {
+                partition = future.get();
+            } catch (ExecutionException e) {
+                futures.forEach(other -> other.cancel(true));
+                throw new IOException("Ingest worker failed", e.getCause());
+            }
+            validRows += partition.validRows;
+            for (Map.Entry<Integer, RoadAccumulator> entry : partition.roads.entrySet()) {
+                RoadAccumulator acc = entry.getValue();
+                aggregates.put(entry.getKey(), new RoadFileAggregate(
+                        null, filename, entry.getKey(), acc.sum, acc.count,
+                        acc.count > 0 ? acc.minTs : null, acc.count > 0 ? acc.maxTs : null));
+            }
+        }
+
+        return new IngestResult(aggregates, totalRows, validRows, totalRows - validRows, unparsedRows);
+    }
+
+    /**
+     * Hands a batch to a worker without blocking forever on its bounded queue: if the worker
+     * has stopped (it only returns early by failing) the failure is rethrown instead.
+     */
+    private static void send(BlockingQueue<List<String>> queue, List<String> batch, Future<Partition> worker)
+            throws IOException, InterruptedException {
+        while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (worker.isDone()) {
+                throw new IOException("Ingest worker failed", failureOf(worker));
+            }
+        }
+    }
+
+    private static Throwable failureOf(Future<Partition> worker) throws InterruptedException {
+        try {
+            worker.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+
+    private Partition aggregate(BlockingQueue<List<String>> queue, Long baseDate) throws InterruptedException {
+        Partition partition = new Partition();
+
+        while (true) {
+            List<String> batch = queue.take();
+            if (batch == END_OF_INPUT) {
+                return partition;
+            }
+
+            for (String line : batch) {
+                String[] parts = line.split(",");
+                try {
+                    int roadId = Integer.parseInt(parts[0].trim());
+                    RoadAccumulator acc = partition.roads.computeIfAbsent(roadId, k -> new RoadAccumulator());
+                    if (parts.length < 4 || baseDate == null) continue;
+
+                    int dayId = Integer.parseInt(parts[1].trim());
+                    int timeId = Integer.parseInt(parts[2].trim());
+                    String speedStr = parts[3].trim();
+
+                    if (speedStr.isEmpty() || !speedStr.matches("-?\\d+(\\.\\d+)?")) {
+                        continue;
+                    }
+
+                    double speed = Double.parseDouble(speedStr);
+                    if (speed <= 0) continue;
+
+                    long ts = baseDate + (dayId - 1) * 24L * 60 * 60 * 1000 + (timeId - 1) * TEN_MINUTES_MS;
+                    acc.add(ts, speed);
+                    partition.validRows++;
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static class IngestResult {
+        private final Map<Integer, RoadFileAggregate> aggregates;
+        private final long totalRows;
+        private final long validRows;
+        private final long skippedRows;
+        private final long unparsedRows;
+
+        IngestResult(Map<Integer, RoadFileAggregate> aggregates, long totalRows, long validRows,
+                     long skippedRows, long unparsedRows) {
+            this.aggregates = aggregates;
+            this.totalRows = totalRows;
+            this.validRows = validRows;
+            this.skippedRows = skippedRows;
+            this.unparsedRows = unparsedRows;
+        }
+    }
+
+    private static final class Partition {
+        private final Map<Integer, RoadAccumulator> roads = new HashMap<>();
+        private long validRows;
+    }
+
+    private static final class RoadAccumulator {
+        private double sum;
+        private long count;
+        private long minTs = Long.MAX_VALUE;
+        private long maxTs = Long.MIN_VALUE;
+
+        void add(long ts, double speed) {
+            sum += speed;
+            count++;
+            if (ts < minTs) minTs = ts;
+            if (ts > maxTs) maxTs = ts;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.UploadInitRequest;
+import com.backend.pcx.dto.UploadSessionDTO;
+import com.backend.pcx.entity.UploadSession;
+import com.backend.pcx.repository.UploadSessionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads: the client creates a session, then PUTs sequential byte ranges that
+ * are transferred straight into a part file. A range may be re-sent from any offset up to
+ * the bytes already received, so a dropped connection resumes from {@code receivedBytes}.
+ * A re-sent range that is rejected (checksum mismatch, overflow, broken stream) moves
+ * {@code receivedBytes} back to its offset, since it may have overwritten good bytes.
+ * Sessions that receive nothing for app.upload.expire-ms are failed and their part files
+ * deleted by a periodic sweep.
+ */
+@Service
+public class UploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadService.class);
+    private static final int DIGEST_BUFFER_BYTES = 1024 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ImportService importService;
+
+    @Value("${app.data-dir:./data}")
+    private String dataDir;
+
+    @Value("${app.upload.expire-ms:86400000}")
+    private long expireMs;
+
+    @Value("${app.upload.sweep-interval-ms:3600000}")
+    private long sweepIntervalMs;
+
+    private final Map<String, Object> sessionLocks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    public UploadService(UploadSessionRepository uploadSessionRepository, ImportService importService) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.importService = importService;
+    }
+
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "upload-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweepExpired, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public UploadSessionDTO createSession(UploadInitRequest request) throws IOException {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new IllegalArgumentException("文件名不能为空");
+        }
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new IllegalArgumentException("文件大小必须大于0");
+        }
+        String sha256 = request.getSha256();
+        if (sha256 != null && !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new IllegalArgumentException("sha256 格式错误");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setFilename(Paths.get(request.getFilename()).getFileName().toString());
+        session.setTotalSize(request.getTotalSize());
+        session.setReceivedBytes(0L);
+        session.setSha256(sha256 == null ? null : sha256.toLowerCase());
+        session.setAppend(Boolean.TRUE.equals(request.getAppend()));
+        session.setStatus(UploadSession.UploadStatus.UPLOADING);
+        session.setCreatedAt(System.currentTimeMillis());
+        session.setUpdatedAt(session.getCreatedAt());
+
+        Path partPath = partPath(session.getId());
+        Files.createDirectories(partPath.getParent());
+        Files.deleteIfExists(partPath);
+        Files.createFile(partPath);
+
+        session = uploadSessionRepository.save(session);
+        logger.info("Upload session {} created for {} ({} bytes)",
+                session.getId(), session.getFilename(), session.getTotalSize());
+        return toDTO(session);
+    }
+
+    public UploadSessionDTO getSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId).map(this::toDTO).orElse(null);
+    }
+
+    public UploadSessionDTO writeChunk(String uploadId, long offset, InputStream body, String chunkSha256)
+            throws IOException {
+        synchronized (sessionLocks.computeIfAbsent(uploadId, k -> new Object())) {
+            UploadSession session = uploadSessionRepository.findById(uploadId).orElse(null);
+            if (session == null) {
+                return null;
+            }
+            if (session.getStatus() != UploadSession.UploadStatus.UPLOADING) {
+                throw new IllegalStateException("上传会话已结束: " + session.getStatus());
+            }
+            if (offset < 0 || offset > session.getReceivedBytes()) {
+                throw new IllegalArgumentException("偏移量不连续，已接收 " + session.getReceivedBytes() + " 字节");
+            }
+
+            Path partPath = partPath(uploadId);
+            long remaining = session.getTotalSize() - offset;
+            long written = 0;
+            boolean accepted = false;
+            try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                ReadableByteChannel source = Channels.newChannel(body);
+                while (written < remaining) {
+                    long n = channel.transferFrom(source, offset + written, remaining - written);
+                    if (n <= 0) break;
+                    written += n;
+                }
+                if (written == remaining && body.read() >= 0) {
+                    throw new IllegalArgumentException("分片超出声明的文件大小");
+                }
+                if (chunkSha256 != null && !chunkSha256.equalsIgnoreCase(sha256(channel, offset, written))) {
+                    throw new IllegalArgumentException("分片校验失败，请从偏移量 " + offset + " 重新上传");
+                }
+                accepted = true;
+            } finally {
+                if (!accepted && offset < session.getReceivedBytes()) {
+                    // The rejected re-send may have overwritten bytes that were already good
+                    session.setReceivedBytes(offset);
+                    session.setUpdatedAt(System.currentTimeMillis());
+                    uploadSessionRepository.save(session);
+                }
+            }
+
+            session.setReceivedBytes(Math.max(session.getReceivedBytes(), offset + written));
+            session.setUpdatedAt(System.currentTimeMillis());
+            if (session.getReceivedBytes().equals(session.getTotalSize())) {
+                complete(session, partPath);
+            }
+            return toDTO(uploadSessionRepository.save(session));
+        }
+    }
+
+    private void complete(UploadSession session, Path partPath) throws IOException {
+        if (session.getSha256() != null) {
+            String actual;
+            try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.READ)) {
+                actual = sha256(channel, 0, session.getTotalSize());
+            }
+            if (!session.getSha256().equals(actual)) {
+                logger.warn("Upload {} checksum mismatch: expected {}, got {}", session.getId(), session.getSha256(), actual);
+                session.setStatus(UploadSession.UploadStatus.FAILED);
+                session.setErrorMessage("文件校验和不匹配");
+                Files.deleteIfExists(partPath);
+                sessionLocks.remove(session.getId());
+                return;
+            }
+        }
+
+        session.setJobId(importService.importUploadedFile(partPath, session.getFilename(), session.getAppend()));
+        session.setStatus(UploadSession.UploadStatus.COMPLETED);
+        sessionLocks.remove(session.getId());
+        logger.info("Upload {} complete, import job {}", session.getId(), session.getJobId());
+    }
+
+    /**
+     * Fails sessions still uploading with no chunk for expire-ms and deletes their part files,
+     * plus part files of the same age that no open session owns (e.g. staging files left by
+     * a crash).
+     */
+    void sweepExpired() {
+        long before = System.currentTimeMillis() - expireMs;
+        try {
+            List<UploadSession> expired = uploadSessionRepository.findByStatusAndUpdatedAtLessThan(
+                    UploadSession.UploadStatus.UPLOADING, before);
+            for (UploadSession stale : expired) {
+                expire(stale.getId(), before);
+            }
+
+            Path uploads = Paths.get(dataDir, ".uploads");
+            if (!Files.isDirectory(uploads)) {
+                return;
+            }
+            Set<String> open = uploadSessionRepository.findByStatus(UploadSession.UploadStatus.UPLOADING).stream()
+                    .map(session -> session.getId() + ".part")
+                    .collect(Collectors.toSet());
+            FileTime cutoff = FileTime.fromMillis(before);
+            try (Stream<Path> parts = Files.list(uploads)) {
+                for (Path part : (Iterable<Path>) parts::iterator) {
+                    String name = part.getFileName().toString();
+                    if (name.endsWith(".part") && !open.contains(name)
+                            && Files.getLastModifiedTime(part).compareTo(cutoff) < 0) {
+                        Files.deleteIfExists(part);
+                        logger.info("Deleted orphaned upload part {}", part);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Upload sweep failed", e);
+        }
+    }
+
+    private void expire(String uploadId, long before) throws IOException {
+        synchronized (sessionLocks.computeIfAbsent(uploadId, k -> new Object())) {
+            UploadSession session = uploadSessionRepository.findById(uploadId).orElse(null);
+            if (session != null && session.getStatus() == UploadSession.UploadStatus.UPLOADING
+                    && session.getUpdatedAt() < before) {
+                session.setStatus(UploadSession.UploadStatus.FAILED);
+                session.setErrorMessage("上传会话已过期");
+                session.setUpdatedAt(System.currentTimeMillis());
+                Files.deleteIfExists(partPath(uploadId));
+                uploadSessionRepository.save(session);
+                logger.info("Upload {} expired after {} of {} bytes", uploadId,
+                        session.getReceivedBytes(), session.getTotalSize());
+            }
+            sessionLocks.remove(uploadId);
+        }
+    }
+
+    private Path partPath(String uploadId) {
+        return Paths.get(dataDir, ".uploads", uploadId + ".part");
+    }
+
+    private static String sha256(FileChannel channel, long position, long length) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_BYTES);
+        long end = position + length;
+        while (position < end) {
+            buffer.clear();
+            if (end - position < buffer.capacity()) {
+                buffer.limit((int) (end - position));
+            }
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Unexpected end of upload part");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += n;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        return new UploadSessionDTO(
+                session.getId(),
+                session.getFilename(),
+                session.getTotalSize(),
+                session.getReceivedBytes(),
+                session.getStatus(),
+                session.getJobId(),
+                session.getErrorMessage()
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.WarmupStatusDTO;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("warmup")
+public class WarmupHealthIndicator implements HealthIndicator {
+    
+    private final CacheWarmupService cacheWarmupService;
+
+    public WarmupHealthIndicator(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public Health health() {
+        WarmupStatusDTO status = cacheWarmupService.getStatus();
+        Health.Builder builder = cacheWarmupService.isStartupFinished() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("state", status.getState())
+                .withDetail("trigger", String.valueOf(status.getTrigger()))
+                .withDetail("loadedRoads", status.getLoadedRoads())
+                .withDetail("totalRoads", status.getTotalRoads())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.backend.pcx.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight timing spans. Every span is recorded in the traffic.span timer tagged with
+ * its name; while a request trace is active on the thread (see RequestTracingInterceptor)
+ * it is also added to that trace, which ends up in the response's Server-Timing header.
+ * Spans may nest, and spans with the same name within one request are summed.
+ */
+@Component
+public class RequestTracer {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RequestTracer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Span span(String name) {
+        return new Span(name, System.nanoTime());
+    }
+
+    /**
+     * Runs the work inside a span of the given name and returns its result.
+     */
+    public <T> T time(String name, Supplier<T> work) {
+        Span span = span(name);
+        try {
+            return work.get();
+        } finally {
+            span.close();
+        }
+    }
+
+    public void begin() {
+        CURRENT.set(new Trace(System.nanoTime()));
+    }
+
+    public Trace current() {
+        return CURRENT.get();
+    }
+
+    public Trace end() {
+        Trace trace = CURRENT.get();
+        CURRENT.remove();
+        return trace;
+    }
+
+    private Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> Timer.builder("traffic.span")
+                .description("Time spent in a named span of request or background work")
+                .tag("span", k)
+                .register(meterRegistry));
+    }
+
+    public final class Span implements AutoCloseable {
+        private final String name;
+        private final long start;
+
+        private Span(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - start;
+            timer(name).record(nanos, TimeUnit.NANOSECONDS);
+            Trace trace = CURRENT.get();
+            if (trace != null) {
+                trace.add(name, nanos);
+            }
+        }
+    }
+
+    public static final class Trace {
+        private final long start;
+        private final Map<String, long[]> spans = new LinkedHashMap<>();
+
+        private Trace(long start) {
+            this.start = start;
+        }
+
+        private void add(String name, long nanos) {
+            long[] total = spans.computeIfAbsent(name, k -> new long[2]);
+            total[0] += nanos;
+            total[1]++;
+        }
+
+        public long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        /**
+         * E.g. {@code history;dur=3.12, model;dur=0.41, persist;dur=5.08, total;dur=9.30}.
+         */
+        public String toServerTiming() {
+            StringBuilder header = new StringBuilder();
+            for (Map.Entry<String, long[]> span : spans.entrySet()) {
+                header.append(span.getKey()).append(";dur=").append(millis(span.getValue()[0])).append(", ");
+            }
+            return header.append("total;dur=").append(millis(System.nanoTime() - start)).toString();
+        }
+
+        @Override
+        public String toString() {
+            if (spans.isEmpty()) {
+                return "no spans";
+            }
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<String, long[]> span : spans.entrySet()) {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(span.getKey()).append('=').append(millis(span.getValue()[0])).append("ms");
+                if (span.getValue()[1] > 1) {
+                    text.append('x').append(span.getValue()[1]);
+                }
+            }
+            return text.toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+        }
+    }
+}
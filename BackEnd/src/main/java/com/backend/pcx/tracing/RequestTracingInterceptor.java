@@ -0,0 +1,46 @@
+package com.backend.pcx.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Opens a trace for each API request and logs the requests slower than
+ * app.tracing.slow-request-ms together with their spans.
+ */
+@Component
+public class RequestTracingInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestTracingInterceptor.class);
+
+    private final RequestTracer requestTracer;
+
+    @Value("${app.tracing.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    public RequestTracingInterceptor(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        requestTracer.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTracer.Trace trace = requestTracer.end();
+        if (trace == null || slowRequestMs <= 0) {
+            return;
+        }
+        long elapsedMs = trace.elapsedMs();
+        if (elapsedMs >= slowRequestMs) {
+            logger.warn("Slow request {} {} took {}ms: {}", request.getMethod(), request.getRequestURI(), elapsedMs, trace);
+        }
+    }
+}
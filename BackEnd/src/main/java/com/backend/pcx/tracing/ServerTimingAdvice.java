@@ -0,0 +1,39 @@
+package com.backend.pcx.tracing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's spans as a Server-Timing header just before the body is written,
+ * which is the last point where response headers can still be set.
+ */
+@RestControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    private final RequestTracer requestTracer;
+
+    public ServerTimingAdvice(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTracer.Trace trace = requestTracer.current();
+        if (trace != null) {
+            response.getHeaders().set("Server-Timing", trace.toServerTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,216 @@
+-- Schema as mapped by the entities. H2 adds its own single-column index for each
+-- foreign key; the composite indexes below serve the lookups.
+
+create table road_segment (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    name varchar(255),
+    region varchar(255),
+    primary key (id),
+    constraint uk_segment_road unique (road_id)
+);
+
+create table road_alias (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    alias varchar(255),
+    primary key (id),
+    constraint uk_alias_road unique (road_id)
+);
+
+create table segment_statistics (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    name varchar(255),
+    region varchar(255),
+    avg_speed double precision not null,
+    data_point_count integer,
+    congestion_level varchar(255),
+    created_at bigint not null,
+    updated_at bigint,
+    primary key (id),
+    constraint uk_statistics_road unique (road_id)
+);
+
+create table road_file_aggregate (
+    id bigint generated by default as identity,
+    filename varchar(255) not null,
+    road_id integer not null,
+    speed_sum double precision not null,
+    point_count bigint not null,
+    min_ts bigint,
+    max_ts bigint,
+    primary key (id),
+    constraint uk_file_road unique (filename, road_id)
+);
+
+create table speed_record (
+    id bigint generated by default as identity,
+    segment_id bigint not null,
+    ts bigint not null,
+    speed double precision not null,
+    primary key (id)
+);
+
+create table speed_rollup (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    resolution varchar(8) not null check (resolution in ('RAW', 'HOUR', 'DAY')),
+    bucket_ts bigint not null,
+    min_speed double precision not null,
+    avg_speed double precision not null,
+    max_speed double precision not null,
+    p10_speed double precision not null,
+    p50_speed double precision not null,
+    p90_speed double precision not null,
+    point_count integer not null,
+    primary key (id),
+    constraint uk_rollup_bucket unique (road_id, resolution, bucket_ts)
+);
+
+create table speed_profile (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    avg_speeds varbinary(8064) not null,
+    point_counts varbinary(4032) not null,
+    updated_at bigint not null,
+    primary key (id),
+    constraint uk_profile_road unique (road_id)
+);
+
+create table road_model (
+    id bigint generated by default as identity,
+    road_id integer not null,
+    predictor_type varchar(255) not null,
+    params varbinary(16384) not null,
+    sample_count integer not null,
+    trained_through bigint not null,
+    updated_at bigint not null,
+    primary key (id),
+    constraint uk_model_road_type unique (road_id, predictor_type)
+);
+
+create table import_job (
+    id bigint generated by default as identity,
+    filename varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED')),
+    total_rows integer,
+    success_rows integer,
+    fail_rows integer,
+    progress integer,
+    error_message varchar(255),
+    created_at bigint not null,
+    finished_at bigint,
+    primary key (id)
+);
+
+create table upload_session (
+    id varchar(36) not null,
+    filename varchar(255) not null,
+    append boolean not null,
+    total_size bigint not null,
+    received_bytes bigint not null,
+    sha256 varchar(64),
+    status varchar(255) not null check (status in ('UPLOADING', 'COMPLETED', 'FAILED')),
+    job_id bigint,
+    error_message varchar(255),
+    created_at bigint not null,
+    updated_at bigint,
+    primary key (id)
+);
+
+create table user_setting (
+    id bigint generated by default as identity,
+    setting_key varchar(255) not null,
+    setting_value varchar(255),
+    primary key (id),
+    constraint uk_setting_key unique (setting_key)
+);
+
+create table prediction_batch (
+    id bigint generated by default as identity,
+    scope varchar(255) not null,
+    predictor_type varchar(255),
+    base_time bigint,
+    horizon_steps integer not null,
+    status varchar(255) not null check (status in ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED')),
+    total_segments integer,
+    success_count integer,
+    fail_count integer,
+    progress integer,
+    error_message varchar(255),
+    created_at bigint not null,
+    finished_at bigint,
+    primary key (id)
+);
+
+create table prediction_job (
+    id bigint generated by default as identity,
+    segment_id bigint not null,
+    batch_id bigint,
+    base_time bigint not null,
+    horizon_steps integer not null,
+    predictor_type varchar(255) not null,
+    cost_ms bigint,
+    created_at bigint not null,
+    primary key (id)
+);
+
+create table prediction_point (
+    id bigint generated by default as identity,
+    job_id bigint not null,
+    ts bigint not null,
+    predicted_speed double precision not null,
+    congestion_level varchar(255) not null check (congestion_level in ('FREE', 'FLOWING', 'CONGESTED')),
+    primary key (id)
+);
+
+create table backtest_run (
+    id bigint generated by default as identity,
+    predictor_type varchar(255) not null,
+    region varchar(255),
+    from_ts bigint,
+    to_ts bigint,
+    horizon_steps integer not null,
+    origin_stride integer not null,
+    status varchar(255) not null check (status in ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED')),
+    road_count integer,
+    evaluations bigint,
+    mae double precision,
+    rmse double precision,
+    mape double precision,
+    duration_ms bigint,
+    error_message varchar(255),
+    created_at bigint not null,
+    finished_at bigint,
+    primary key (id)
+);
+
+create table backtest_metric (
+    id bigint generated by default as identity,
+    run_id bigint not null,
+    dimension varchar(255) not null check (dimension in ('ROAD', 'REGION', 'STEP', 'HOUR')),
+    metric_key varchar(255) not null,
+    evaluations bigint not null,
+    mae double precision,
+    rmse double precision,
+    mape double precision,
+    primary key (id)
+);
+
+create index idx_segment_ts on speed_record (segment_id, ts);
+create index idx_prediction_job_segment_created on prediction_job (segment_id, created_at);
+create index idx_prediction_job_lookup on prediction_job (segment_id, base_time, horizon_steps);
+create index idx_prediction_job_batch on prediction_job (batch_id);
+create index idx_prediction_point_job_ts on prediction_point (job_id, ts);
+create index idx_backtest_metric_run on backtest_metric (run_id, dimension);
+create index idx_backtest_run_predictor on backtest_run (predictor_type);
+
+alter table speed_record
+    add constraint fk_speed_record_segment foreign key (segment_id) references road_segment (id);
+
+alter table prediction_job
+    add constraint fk_prediction_job_segment foreign key (segment_id) references road_segment (id);
+
+alter table prediction_point
+    add constraint fk_prediction_point_job foreign key (job_id) references prediction_job (id);
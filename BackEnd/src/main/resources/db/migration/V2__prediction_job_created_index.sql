@@ -0,0 +1,3 @@
+-- Keyset pagination of the job history walks prediction_job newest first; a descending
+-- index lets H2 read the page in index order and stop at the limit instead of sorting.
+create index idx_prediction_job_created on prediction_job (created_at desc, id desc);
@@ -0,0 +1,16 @@
+-- Per-day accuracy of prediction jobs removed by the retention job. Error sums are kept
+-- (not averages) so that later purges of the same day add to the row.
+create table prediction_daily_accuracy (
+    id bigint generated by default as identity,
+    day_ts bigint not null,
+    predictor_type varchar(255) not null,
+    job_count bigint not null,
+    point_count bigint not null,
+    evaluated_count bigint not null,
+    abs_error_sum double precision not null,
+    squared_error_sum double precision not null,
+    pct_error_sum double precision not null,
+    updated_at bigint not null,
+    primary key (id),
+    constraint uk_accuracy_day_predictor unique (day_ts, predictor_type)
+);
@@ -0,0 +1,175 @@
+package com.backend.pcx.predictor;
+
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import com.backend.pcx.repository.SpeedSeries;
+import com.backend.pcx.service.RollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PredictorTests {
+
+    private static final long STEP_MS = 10L * 60 * 1000;
+
+    @Test
+    void levinsonRecoversAnArOneProcess() {
+        double phi = 0.8;
+        double[] r = {1.0, phi, phi * phi, phi * phi * phi};
+
+        double[] coefficients = ArPredictor.levinson(r);
+
+        assertArrayEquals(new double[]{0.0, phi, 0.0, 0.0}, coefficients, 1e-12);
+        assertArrayEquals(new double[4], ArPredictor.levinson(new double[]{0.0, 0.0, 0.0, 0.0}));
+    }
+
+    @Test
+    void arForecastRunsTheRecursionFromTheWindowTail() {
+        double[] window = {50.0, 54.0, 58.0};
+        double[] phi = {0.0, 0.5, 0.25};
+
+        double[] out = ArPredictor.forecast(window, 3, 50.0, phi);
+
+        // deviations 4, 8 -> 0.5 * 8 + 0.25 * 4 = 5 -> 0.5 * 5 + 0.25 * 8 = 4.5 -> 0.5 * 4.5 + 0.25 * 5 = 3.5
+        assertArrayEquals(new double[]{55.0, 54.5, 53.5}, out, 1e-12);
+        double[] flat = new double[20];
+        Arrays.fill(flat, 42.0);
+        assertArrayEquals(new double[]{42.0, 42.0}, ArPredictor.forecast(flat, 2, 6), 1e-12);
+    }
+
+    @Test
+    void arOnlineFitIsTheSameInOneOrSeveralSteps() {
+        ArPredictor predictor = new ArPredictor();
+        ReflectionTestUtils.setField(predictor, "order", 3);
+        long[] ts = new long[200];
+        double[] speed = new double[200];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = i * STEP_MS;
+            speed[i] = 40 + 10 * Math.sin(i / 7.0) + (i % 5);
+        }
+        SpeedSeries all = SpeedSeries.of(ts, speed);
+
+        double[] once = predictor.fit(null, all);
+        double[] twice = predictor.fit(predictor.fit(null, all.slice(0, 120)), all.slice(120, 200));
+
+        assertArrayEquals(once, twice, 1e-9);
+        assertEquals(200, (long) once[0]);
+    }
+
+    @Test
+    void holtWintersRepeatsAnExactSeason() {
+        double[] season = {30.0, 45.0, 60.0, 45.0};
+        double[] window = new double[12];
+        for (int i = 0; i < window.length; i++) {
+            window[i] = season[i % 4];
+        }
+
+        double[] out = HoltWintersPredictor.forecast(window, 6, 4, 0.2, 0.01, 0.3);
+
+        assertArrayEquals(new double[]{30.0, 45.0, 60.0, 45.0, 30.0, 45.0}, out, 1e-9);
+    }
+
+    @Test
+    void holtWintersFallsBackToExponentialSmoothingOnShortWindows() {
+        double[] out = HoltWintersPredictor.forecast(new double[]{40.0, 50.0}, 3, 4, 0.5, 0.01, 0.3);
+
+        assertArrayEquals(new double[]{45.0, 45.0, 45.0}, out, 1e-12);
+    }
+
+    @Test
+    void seasonalNaiveAveragesTheSameSlotOfEarlierPeriods() {
+        double[] window = {10.0, 20.0, 30.0, 14.0, 24.0, 34.0};
+
+        double[] out = SeasonalNaivePredictor.forecast(window, 4, 3, 2, 0);
+
+        assertArrayEquals(new double[]{12.0, 22.0, 32.0, 14.0}, out, 1e-12);
+        assertArrayEquals(new double[]{5.0, 5.0}, SeasonalNaivePredictor.forecast(new double[]{5.0}, 2, 3, 2, 0), 1e-12);
+    }
+
+    @Test
+    void seasonalNaiveSkipsLagsBeforeTheFirstObservation() {
+        // Two observed seasons behind four carried-back copies of the first value
+        double[] window = {10.0, 10.0, 10.0, 10.0, 10.0, 10.0, 10.0, 20.0, 30.0, 14.0, 24.0, 34.0};
+
+        assertArrayEquals(new double[]{12.0, 22.0, 32.0}, SeasonalNaivePredictor.forecast(window, 3, 3, 4, 6), 1e-12);
+    }
+
+    @Test
+    void seasonalNaiveAveragesOnlyTheObservedDaysOfAShortHistory() {
+        RoadSegmentRepository segments = mock(RoadSegmentRepository.class);
+        when(segments.findById(7L)).thenReturn(Optional.empty());
+        SeasonalNaivePredictor predictor = seasonalNaive(segments, mock(RollupService.class));
+
+        // Three whole days at 30, 36 and 42 km/h
+        long baseTime = 1000 * STEP_MS;
+        long[] ts = new long[3 * 144];
+        double[] speed = new double[ts.length];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = baseTime - (ts.length - 1 - i) * STEP_MS;
+            speed[i] = 30.0 + 6 * (i / 144);
+        }
+        List<PredictionResult> results = predictor.predict(7L, baseTime, 2, SpeedSeries.of(ts, speed));
+
+        assertEquals(1008 - ts.length, WindowedPredictor.firstObserved(SpeedSeries.of(ts, speed), baseTime, 1008));
+        assertEquals(36.0, results.get(0).getPredictedSpeed(), 1e-12);
+        assertEquals(36.0, results.get(1).getPredictedSpeed(), 1e-12);
+    }
+
+    @Test
+    void seasonalNaiveUsesTheProfileWhenHistoryIsShorterThanASeason() {
+        RoadSegmentRepository segments = mock(RoadSegmentRepository.class);
+        RollupService rollups = mock(RollupService.class);
+        RoadSegment segment = new RoadSegment();
+        segment.setId(7L);
+        segment.setRoadId(70);
+        when(segments.findById(7L)).thenReturn(Optional.of(segment));
+        double[] baseline = new double[3];
+        baseline[0] = 33.0;
+        baseline[1] = Double.NaN;
+        baseline[2] = 55.0;
+        when(rollups.getProfileBaseline(70)).thenReturn(baseline);
+        when(rollups.profileSlot(anyLong())).thenAnswer(call -> (int) (call.<Long>getArgument(0) / STEP_MS % 3));
+
+        SeasonalNaivePredictor predictor = seasonalNaive(segments, rollups);
+
+        long baseTime = 300 * STEP_MS;
+        List<FileBasedSpeedRepository.SpeedDataPoint> history = SpeedSeries.of(
+                new long[]{baseTime - STEP_MS, baseTime}, new double[]{20.0, 21.0});
+        List<PredictionResult> results = predictor.predict(7L, baseTime, 3, history);
+
+        // Slots of steps 1..3 are 1, 2, 0: no profile value for slot 1 keeps the lag forecast,
+        // which has no observed season and repeats the last value
+        assertEquals(21.0, results.get(0).getPredictedSpeed(), 1e-12);
+        assertEquals(55.0, results.get(1).getPredictedSpeed(), 1e-12);
+        assertEquals(33.0, results.get(2).getPredictedSpeed(), 1e-12);
+    }
+
+    private static SeasonalNaivePredictor seasonalNaive(RoadSegmentRepository segments, RollupService rollups) {
+        SeasonalNaivePredictor predictor = new SeasonalNaivePredictor(segments, rollups);
+        ReflectionTestUtils.setField(predictor, "seasonSteps", 144);
+        ReflectionTestUtils.setField(predictor, "periods", 7);
+        ReflectionTestUtils.setField(predictor, "freeSpeedThreshold", 40.0);
+        ReflectionTestUtils.setField(predictor, "flowingSpeedThreshold", 25.0);
+        return predictor;
+    }
+
+    @Test
+    void windowCarriesValuesOverGaps() {
+        List<FileBasedSpeedRepository.SpeedDataPoint> history = SpeedSeries.of(
+                new long[]{2 * STEP_MS, 4 * STEP_MS}, new double[]{30.0, 50.0});
+
+        double[] window = WindowedPredictor.toWindow(history, 5 * STEP_MS, 5);
+
+        assertArrayEquals(new double[]{30.0, 30.0, 30.0, 50.0, 50.0}, window);
+    }
+}
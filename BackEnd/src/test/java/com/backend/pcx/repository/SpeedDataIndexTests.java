@@ -0,0 +1,107 @@
+package com.backend.pcx.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeedDataIndexTests {
+
+    private static final long BASE_DATE = 1470000000000L;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    @TempDir
+    Path dir;
+
+    private Path csv(String... rows) throws IOException {
+        Path csv = dir.resolve("speeddata_Aug.csv");
+        Files.writeString(csv, "road_id,day_id,time_id,speed\n" + String.join("\n", rows) + "\n");
+        return csv;
+    }
+
+    @Test
+    void buildsSortedBlocksPerRoad() throws IOException {
+        Path csv = csv(
+                "2,1,3,30.5",
+                "1,2,1,40",
+                "2,1,1,10",
+                "2,1,2,-1",
+                "x,1,1,20",
+                "1,1,1,abc",
+                "3,1");
+
+        SpeedDataIndex index = SpeedDataIndex.openOrBuild(csv, dir.resolve(".index/speeddata_Aug.idx"), BASE_DATE);
+
+        assertArrayEquals(new int[]{1, 2, 3}, index.getRoadIds());
+        assertEquals(2, index.getDayCount());
+        assertEquals(1, index.getPointCount(1));
+        assertEquals(2, index.getPointCount(2));
+        assertEquals(0, index.getPointCount(3));
+        assertEquals(0, index.getPointCount(99));
+        assertNull(index.mapBlock(3));
+
+        SpeedSeries road2 = SpeedSeries.fromBlocks(List.of(index.mapBlock(2)));
+        assertEquals(BASE_DATE, road2.getTs(0));
+        assertEquals(10.0, road2.getSpeed(0));
+        assertEquals(BASE_DATE + 2 * TEN_MINUTES_MS, road2.getTs(1));
+        assertEquals(30.5, road2.getSpeed(1));
+
+        SpeedSeries road1 = SpeedSeries.fromBlocks(List.of(index.mapBlock(1)));
+        assertEquals(BASE_DATE + DAY_MS, road1.getTs(0));
+    }
+
+    @Test
+    void reopensAnUpToDateIndexWithoutRebuilding() throws IOException {
+        Path csv = csv("1,1,1,40", "1,1,2,41");
+        Path indexPath = dir.resolve(".index/speeddata_Aug.idx");
+        SpeedDataIndex.openOrBuild(csv, indexPath, BASE_DATE);
+        FileTime built = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(indexPath, built);
+
+        SpeedDataIndex reopened = SpeedDataIndex.openOrBuild(csv, indexPath, BASE_DATE);
+
+        assertEquals(built, Files.getLastModifiedTime(indexPath));
+        assertTrue(reopened.isFresh(csv));
+        assertEquals(2, reopened.getPointCount(1));
+    }
+
+    @Test
+    void rebuildsWhenTheCsvChanges() throws IOException {
+        Path csv = csv("1,1,1,40");
+        Path indexPath = dir.resolve(".index/speeddata_Aug.idx");
+        SpeedDataIndex first = SpeedDataIndex.openOrBuild(csv, indexPath, BASE_DATE);
+
+        Files.writeString(csv, "road_id,day_id,time_id,speed\n1,1,1,40\n1,1,2,41\n5,1,1,20\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        assertFalse(first.isFresh(csv));
+
+        SpeedDataIndex rebuilt = SpeedDataIndex.openOrBuild(csv, indexPath, BASE_DATE);
+        assertTrue(rebuilt.isFresh(csv));
+        assertArrayEquals(new int[]{1, 5}, rebuilt.getRoadIds());
+        assertEquals(2, rebuilt.getPointCount(1));
+    }
+
+    @Test
+    void rebuildsACorruptIndex() throws IOException {
+        Path csv = csv("1,1,1,40");
+        Path indexPath = dir.resolve(".index/speeddata_Aug.idx");
+        Files.createDirectories(indexPath.getParent());
+        Files.write(indexPath, new byte[]{1, 2, 3});
+
+        SpeedDataIndex index = SpeedDataIndex.openOrBuild(csv, indexPath, BASE_DATE);
+
+        assertEquals(1, index.getPointCount(1));
+        assertEquals(40.0, SpeedSeries.fromBlocks(List.of(index.mapBlock(1))).getSpeed(0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.backend.pcx.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeedSeriesTests {
+
+    private static ByteBuffer block(long[] ts, double[] speed) {
+        ByteBuffer block = ByteBuffer.allocate(ts.length * 16);
+        block.asLongBuffer().put(ts);
+        block.position(ts.length * 8);
+        block.asDoubleBuffer().put(speed);
+        block.rewind();
+        return block;
+    }
+
+    @Test
+    void chainsDisjointBlocksInTimeOrder() {
+        SpeedSeries series = SpeedSeries.fromBlocks(List.of(
+                block(new long[]{40, 50}, new double[]{4.0, 5.0}),
+                block(new long[]{10, 20, 30}, new double[]{1.0, 2.0, 3.0})));
+
+        assertEquals(5, series.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals((i + 1) * 10L, series.getTs(i));
+            assertEquals(i + 1.0, series.getSpeed(i));
+        }
+    }
+
+    @Test
+    void locatesPointsAcrossManyChunks() {
+        List<ByteBuffer> blocks = new ArrayList<>();
+        for (int c = 0; c < 25; c++) {
+            int n = c % 3 + 1;
+            long[] ts = new long[n];
+            double[] speed = new double[n];
+            for (int i = 0; i < n; i++) {
+                ts[i] = c * 100L + i;
+                speed[i] = c + i / 10.0;
+            }
+            blocks.add(block(ts, speed));
+        }
+        SpeedSeries series = SpeedSeries.fromBlocks(blocks);
+
+        int index = 0;
+        for (int c = 0; c < 25; c++) {
+            for (int i = 0; i < c % 3 + 1; i++, index++) {
+                assertEquals(c * 100L + i, series.getTs(index));
+                assertEquals(c + i / 10.0, series.getSpeed(index));
+            }
+        }
+        assertEquals(index, series.size());
+
+        SpeedSeries range = series.range(1250L, 1500L);
+        assertEquals(1300L, range.getTs(0));
+        assertEquals(1500L, range.getTs(range.size() - 1));
+    }
+
+    @Test
+    void mergesOverlappingBlocks() {
+        SpeedSeries series = SpeedSeries.fromBlocks(List.of(
+                block(new long[]{10, 30}, new double[]{1.0, 3.0}),
+                block(new long[]{20, 40}, new double[]{2.0, 4.0})));
+
+        assertEquals(List.of(10L, 20L, 30L, 40L), series.stream().map(FileBasedSpeedRepository.SpeedDataPoint::getTs).toList());
+    }
+
+    @Test
+    void rangeIsInclusiveAndSpansChunks() {
+        SpeedSeries series = SpeedSeries.fromBlocks(List.of(
+                block(new long[]{10, 20, 30}, new double[]{1.0, 2.0, 3.0}),
+                block(new long[]{40, 50}, new double[]{4.0, 5.0})));
+
+        SpeedSeries range = series.range(20L, 40L);
+        assertEquals(3, range.size());
+        assertEquals(20L, range.getTs(0));
+        assertEquals(40L, range.getTs(2));
+
+        assertEquals(2, series.range(35L, null).size());
+        assertEquals(2, series.range(null, 25L).size());
+        assertTrue(series.range(31L, 39L).isEmpty());
+        assertTrue(series.range(60L, 10L).isEmpty());
+        assertSame(series, series.range(null, null));
+
+        SpeedSeries nested = range.range(30L, 30L);
+        assertEquals(1, nested.size());
+        assertEquals(3.0, nested.getSpeed(0));
+    }
+}
@@ -0,0 +1,84 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.BacktestMetricDTO;
+import com.backend.pcx.dto.BacktestRequest;
+import com.backend.pcx.dto.BacktestRunDTO;
+import com.backend.pcx.entity.BacktestRun.RunStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A one-step season makes the seasonal-naive predictor a persistence forecast, so every
+ * metric of the run can be worked out by hand.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:backtest-tests;DB_CLOSE_DELAY=-1",
+        "traffic.prediction.season-steps=1",
+        "traffic.prediction.seasonal-naive.periods=1"
+})
+class BacktestServiceTests extends ServiceTestSupport {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Test
+    void scoresPersistenceForecastsPerRoadAndStep() throws Exception {
+        // Road 1 rises by 10 every slot; road 2 has no observation in slot 3
+        importAndWait("speeddata_Aug.csv", false, "1,1,1,10", "1,1,2,20", "1,1,3,30", "1,1,4,40", "1,1,5,50", "1,1,6,60",
+                "2,1,1,10", "2,1,2,20", "2,1,4,40");
+
+        BacktestRunDTO run = runAndWait(new BacktestRequest("SEASONAL_NAIVE", 2, 1, null, null, null));
+
+        // Road 1: five 1-step errors of 10 and four 2-step errors of 20. Road 2: origin 0
+        // scores step 1 (20 vs 10), origin 1 only step 2 (40 vs 20), origin 2 is unobserved.
+        assertEquals(2, run.getRoadCount());
+        assertEquals(11, run.getEvaluations());
+        assertEquals(160.0 / 11, run.getMae(), 1e-9);
+        assertEquals(Math.sqrt((6 * 100.0 + 5 * 400.0) / 11), run.getRmse(), 1e-9);
+        double percent = 10.0 / 20 + 10.0 / 30 + 10.0 / 40 + 10.0 / 50 + 10.0 / 60
+                + 20.0 / 30 + 20.0 / 40 + 20.0 / 50 + 20.0 / 60
+                + 10.0 / 20 + 20.0 / 40;
+        assertEquals(100 * percent / 11, run.getMape(), 1e-9);
+
+        List<BacktestMetricDTO> steps = run.getStepMetrics();
+        assertEquals(2, steps.size());
+        assertEquals("1", steps.get(0).getKey());
+        assertEquals(6, steps.get(0).getEvaluations());
+        assertEquals(10.0, steps.get(0).getMae(), 1e-9);
+        assertEquals(5, steps.get(1).getEvaluations());
+        assertEquals(20.0, steps.get(1).getMae(), 1e-9);
+        assertEquals(24, run.getHourMetrics().size());
+        assertEquals(11, run.getHourMetrics().stream().mapToLong(BacktestMetricDTO::getEvaluations).sum());
+
+        List<BacktestMetricDTO> roads = backtestService.getRoadMetrics(run.getId(), 0, 10).getContent();
+        assertEquals(List.of("2", "1"), roads.stream().map(BacktestMetricDTO::getKey).toList());
+        assertEquals(15.0, roads.get(0).getMae(), 1e-9);
+        assertEquals(130.0 / 9, roads.get(1).getMae(), 1e-9);
+    }
+
+    @Test
+    void rejectsHorizonsOutsideTheSupportedRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> backtestService.submit(new BacktestRequest("SEASONAL_NAIVE", 0, 1, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> backtestService.submit(new BacktestRequest("SEASONAL_NAIVE", 145, 1, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> backtestService.submit(new BacktestRequest("SEASONAL_NAIVE", 2, 0, null, null, null)));
+    }
+
+    private BacktestRunDTO runAndWait(BacktestRequest request) throws InterruptedException {
+        Long runId = backtestService.submit(request).getId();
+        return await("Backtest " + runId, () -> {
+            BacktestRunDTO run = backtestService.getRun(runId);
+            assertNotEquals(RunStatus.FAILED, run.getStatus(), run.getErrorMessage());
+            return run.getStatus() == RunStatus.COMPLETED ? run : null;
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.CongestedSegment;
+import com.backend.pcx.dto.CongestionLevelDistribution;
+import com.backend.pcx.dto.CongestionTransition;
+import com.backend.pcx.dto.DashboardSummary;
+import com.backend.pcx.dto.RegionCongestion;
+import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.entity.SegmentStatistics;
+import com.backend.pcx.event.DashboardChangedEvent;
+import com.backend.pcx.event.StatisticsUpdatedEvent;
+import com.backend.pcx.repository.SegmentStatisticsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The incrementally maintained snapshot has to match one rebuilt from scratch over the
+ * same statistics, including regions that empty out and roads that change level.
+ */
+class DashboardServiceTests {
+
+    @Test
+    void incrementalUpdatesMatchAFullReload() {
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        DashboardService dashboard = dashboard(List.of(
+                stats(1, "A", 50, CongestionLevel.FREE),
+                stats(2, "A", 30, CongestionLevel.FLOWING),
+                stats(3, "B", 20, CongestionLevel.CONGESTED),
+                stats(4, "B", 45, CongestionLevel.FREE),
+                stats(5, "C", 10, CongestionLevel.CONGESTED),
+                stats(6, "C", 35, CongestionLevel.FLOWING)), eventPublisher);
+        DashboardService.Snapshot before = dashboard.getSnapshot();
+
+        // Road 2 becomes congested, road 4 keeps its level, road 7 is new and region C goes away
+        dashboard.onStatisticsUpdated(new StatisticsUpdatedEvent(List.of(
+                stats(2, "A", 15, CongestionLevel.CONGESTED),
+                stats(4, "B", 44, CongestionLevel.FREE),
+                stats(7, "D", 60, CongestionLevel.FREE)), List.of(5, 6)));
+
+        DashboardSummary expected = dashboard(List.of(
+                stats(1, "A", 50, CongestionLevel.FREE),
+                stats(2, "A", 15, CongestionLevel.CONGESTED),
+                stats(3, "B", 20, CongestionLevel.CONGESTED),
+                stats(4, "B", 44, CongestionLevel.FREE),
+                stats(7, "D", 60, CongestionLevel.FREE)), mock(ApplicationEventPublisher.class)).getSummary();
+        DashboardSummary summary = dashboard.getSummary();
+        assertEquals(37.8, summary.getTodayAvgSpeed(), 1e-9);
+        assertEquals(expected.getTodayAvgSpeed(), summary.getTodayAvgSpeed(), 1e-9);
+        assertEquals(2, summary.getCongestedSegments());
+        assertEquals(List.of(2, 3, 4, 1, 7), summary.getTopCongestedSegments().stream()
+                .map(CongestedSegment::getRoadId).toList());
+        assertEquals(expected.getTopCongestedSegments(), summary.getTopCongestedSegments());
+        assertEquals(expected.getMostCongestedSegment(), summary.getMostCongestedSegment());
+        assertEquals(new HashSet<>(List.of(
+                        new RegionCongestion("A", 1, 0, 1),
+                        new RegionCongestion("B", 1, 0, 1),
+                        new RegionCongestion("D", 1, 0, 0))),
+                new HashSet<>(summary.getRegionCongestions()));
+        assertEquals(new CongestionLevelDistribution(3, 0, 2), summary.getCongestionLevelDistribution());
+
+        ArgumentCaptor<DashboardChangedEvent> event = ArgumentCaptor.forClass(DashboardChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertSame(before, event.getValue().getPrevious());
+        assertSame(dashboard.getSnapshot(), event.getValue().getCurrent());
+        assertNotEquals(before.getEtag(), dashboard.getSnapshot().getEtag());
+        assertEquals(List.of(
+                new CongestionTransition(5, "Road #5", "C", 10.0, CongestionLevel.CONGESTED, null),
+                new CongestionTransition(6, "Road #6", "C", 35.0, CongestionLevel.FLOWING, null),
+                new CongestionTransition(2, "Road #2", "A", 15.0, CongestionLevel.FLOWING, CongestionLevel.CONGESTED),
+                new CongestionTransition(7, "Road #7", "D", 60.0, null, CongestionLevel.FREE)),
+                event.getValue().getTransitions());
+    }
+
+    private static DashboardService dashboard(List<SegmentStatistics> statistics, ApplicationEventPublisher eventPublisher) {
+        SegmentStatisticsRepository repository = mock(SegmentStatisticsRepository.class);
+        when(repository.findAll()).thenReturn(statistics);
+        DashboardService dashboard = new DashboardService(repository, eventPublisher, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dashboard, "freeSpeedThreshold", 40.0);
+        ReflectionTestUtils.setField(dashboard, "flowingSpeedThreshold", 25.0);
+        dashboard.reload();
+        return dashboard;
+    }
+
+    private static SegmentStatistics stats(int roadId, String region, double avgSpeed, CongestionLevel level) {
+        return new SegmentStatistics(null, roadId, "Road #" + roadId, region, avgSpeed, 144, level.name(), 0L, 0L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.ImportJobDTO;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.SegmentStatisticsRepository;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Append (delta) and replace imports against a scratch data directory; the steps build on
+ * each other, so they run in order.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:import-tests;DB_CLOSE_DELAY=-1")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ImportServiceTests extends ServiceTestSupport {
+
+    private static final String BASE = "speeddata_Aug.csv";
+
+    @Autowired
+    private FileBasedSpeedRepository fileBasedSpeedRepository;
+
+    @Autowired
+    private SegmentStatisticsRepository segmentStatisticsRepository;
+
+    @Test
+    @Order(1)
+    void importsTheBaseFile() throws Exception {
+        ImportJobDTO job = importAndWait(BASE, false,
+                "1,1,1,40", "1,1,2,42", "1,1,3,44",
+                "2,1,1,20", "2,1,2,22");
+
+        assertEquals(BASE, job.getFilename());
+        assertEquals(5, job.getSuccessRows());
+        assertEquals(3, series(1).size());
+        assertEquals(42.0, segmentStatisticsRepository.findByRoadId(1).orElseThrow().getAvgSpeed(), 1e-9);
+    }
+
+    @Test
+    @Order(2)
+    void appendKeepsOnlyRowsAfterTheStoredData() throws Exception {
+        ImportJobDTO job = importAndWait(BASE, true,
+                "1,1,2,42", "1,1,3,44", "1,1,4,46", "1,1,5,48",
+                "2,1,1,20", "2,1,2,22");
+
+        assertTrue(job.getFilename().matches("speeddata_Aug\\.delta-\\d+\\.csv"), job.getFilename());
+        assertTrue(Files.exists(dataDir.resolve(job.getFilename())));
+        assertEquals(2, job.getSuccessRows());
+
+        List<FileBasedSpeedRepository.SpeedDataPoint> road1 = series(1);
+        assertEquals(5, road1.size());
+        assertEquals(BASE_DATE + 4 * TEN_MINUTES_MS, road1.get(4).getTs());
+        assertEquals(2, series(2).size());
+        assertEquals(44.0, segmentStatisticsRepository.findByRoadId(1).orElseThrow().getAvgSpeed(), 1e-9);
+    }
+
+    @Test
+    @Order(3)
+    void appendWithNothingNewKeepsTheBaseFilename() throws Exception {
+        List<String> before = fileBasedSpeedRepository.getDataFilenames();
+
+        ImportJobDTO job = importAndWait(BASE, true, "1,1,1,40", "2,1,2,22");
+
+        assertEquals(BASE, job.getFilename());
+        assertEquals(before, fileBasedSpeedRepository.getDataFilenames());
+        assertEquals(5, series(1).size());
+    }
+
+    @Test
+    @Order(4)
+    void replaceDropsDeltasAndRoadsNoLongerPresent() throws Exception {
+        ImportJobDTO job = importAndWait(BASE, false, "1,1,1,30", "1,1,2,34");
+
+        assertEquals(BASE, job.getFilename());
+        assertEquals(List.of(BASE), fileBasedSpeedRepository.getDataFilenames());
+        assertEquals(2, series(1).size());
+        assertTrue(series(2).isEmpty());
+        assertEquals(32.0, segmentStatisticsRepository.findByRoadId(1).orElseThrow().getAvgSpeed(), 1e-9);
+        assertFalse(segmentStatisticsRepository.findByRoadId(2).isPresent());
+    }
+
+    private List<FileBasedSpeedRepository.SpeedDataPoint> series(int roadId) {
+        return fileBasedSpeedRepository.getSpeedData(roadId, null, null, false);
+    }
+}
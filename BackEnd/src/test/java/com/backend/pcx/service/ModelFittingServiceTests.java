@@ -0,0 +1,80 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.entity.RoadModel;
+import com.backend.pcx.repository.RoadModelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parameters folded in from appended points have to match a refit over the full series,
+ * for every online predictor. A short season and AR order keep the series small while
+ * still running past the Holt-Winters seeding season.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:model-tests;DB_CLOSE_DELAY=-1",
+        "traffic.prediction.season-steps=4",
+        "traffic.prediction.ar.order=3"
+})
+class ModelFittingServiceTests extends ServiceTestSupport {
+
+    private static final int ROAD_ID = 9;
+
+    @Autowired
+    private ModelFittingService modelFittingService;
+
+    @Autowired
+    private RoadModelRepository roadModelRepository;
+
+    @Test
+    void onlineFitMatchesAFullRefit() throws Exception {
+        importAndWait("speeddata_Aug.csv", false, rows(1, 30));
+        modelFittingService.update(List.of(ROAD_ID), false);
+        importAndWait("speeddata_Aug.csv", true, rows(2, 45));
+
+        modelFittingService.update(List.of(ROAD_ID), true);
+        Map<String, RoadModel> online = models();
+        modelFittingService.update(List.of(ROAD_ID), false);
+        Map<String, RoadModel> refit = models();
+
+        assertEquals(List.of("AR", "HOLT_WINTERS"), new ArrayList<>(online.keySet()));
+        for (String predictorType : online.keySet()) {
+            RoadModel model = online.get(predictorType);
+            assertEquals(24, model.getSampleCount(), predictorType);
+            assertEquals(refit.get(predictorType).getTrainedThrough(), model.getTrainedThrough(), predictorType);
+            assertArrayEquals(decode(refit.get(predictorType).getParams()), decode(model.getParams()), 1e-9, predictorType);
+        }
+    }
+
+    /**
+     * Twelve ten-minute slots of one day with a repeating four-slot shape on top of the base speed.
+     */
+    private static String[] rows(int day, int base) {
+        String[] rows = new String[12];
+        for (int slot = 1; slot <= rows.length; slot++) {
+            rows[slot - 1] = ROAD_ID + "," + day + "," + slot + "," + (base + slot % 4 * 3 + slot / 5);
+        }
+        return rows;
+    }
+
+    private Map<String, RoadModel> models() {
+        Map<String, RoadModel> models = new TreeMap<>();
+        roadModelRepository.findByRoadIdIn(List.of(ROAD_ID)).forEach(model -> models.put(model.getPredictorType(), model));
+        return models;
+    }
+
+    private static double[] decode(byte[] bytes) {
+        double[] params = new double[bytes.length / 8];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(params);
+        return params;
+    }
+}
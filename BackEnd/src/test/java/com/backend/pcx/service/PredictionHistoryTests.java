@@ -0,0 +1,178 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.CursorPage;
+import com.backend.pcx.dto.PredictionJobDTO;
+import com.backend.pcx.dto.RoadSegmentDTO;
+import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.entity.PredictionJob;
+import com.backend.pcx.entity.PredictionPoint;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.repository.PredictionJobRepository;
+import com.backend.pcx.repository.PredictionPointRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset scrolling over prediction jobs and segments, and the streamed history export.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:history-tests;DB_CLOSE_DELAY=-1")
+class PredictionHistoryTests extends ServiceTestSupport {
+
+    @Autowired
+    private RoadSegmentRepository roadSegmentRepository;
+
+    @Autowired
+    private PredictionJobRepository predictionJobRepository;
+
+    @Autowired
+    private PredictionPointRepository predictionPointRepository;
+
+    @Autowired
+    private PredictionService predictionService;
+
+    @Autowired
+    private RoadSegmentService roadSegmentService;
+
+    @Autowired
+    private PredictionExportService predictionExportService;
+
+    private static RoadSegment east;
+    private static RoadSegment west;
+    private static final List<PredictionJob> jobs = new ArrayList<>();
+
+    /**
+     * Seven jobs on two segments where groups of them share a createdAt, so the id has to
+     * break the ties; every job but the last has two points. Stored once for the class.
+     */
+    @BeforeEach
+    void setUp() {
+        if (!jobs.isEmpty()) {
+            return;
+        }
+        east = roadSegmentRepository.save(new RoadSegment(null, 30, "East, inner ring", "A"));
+        west = roadSegmentRepository.save(new RoadSegment(null, 10, null, "A"));
+        roadSegmentRepository.save(new RoadSegment(null, 20, "North", "B"));
+
+        long[] createdAt = {1000, 1000, 1000, 2000, 2000, 3000, 3000};
+        for (int i = 0; i < createdAt.length; i++) {
+            RoadSegment segment = i % 2 == 0 ? east : west;
+            PredictionJob job = predictionJobRepository.save(
+                    new PredictionJob(null, segment, 5000L + i, 2, "BASELINE", 3L, createdAt[i], null));
+            jobs.add(job);
+            if (i < createdAt.length - 1) {
+                predictionPointRepository.save(new PredictionPoint(null, job, 5000L + i + 600_000, 41.5, CongestionLevel.FREE));
+                predictionPointRepository.save(new PredictionPoint(null, job, 5000L + i + 1_200_000, 20.0, CongestionLevel.CONGESTED));
+            }
+        }
+    }
+
+    @Test
+    void scrollsJobsNewestFirstWithoutGapsOrDuplicates() {
+        List<Long> expected = jobs.stream()
+                .sorted(Comparator.comparing(PredictionJob::getCreatedAt).thenComparing(PredictionJob::getId).reversed())
+                .map(PredictionJob::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<PredictionJobDTO> page = predictionService.scrollPredictionJobs(cursor, null, 3, true);
+            page.getContent().forEach(job -> seen.add(job.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void scrollsTheJobsOfOneSegmentWithTheirPoints() {
+        CursorPage<PredictionJobDTO> first = predictionService.scrollPredictionJobs(null, east.getId(), 2, false);
+        CursorPage<PredictionJobDTO> second = predictionService.scrollPredictionJobs(first.getNextCursor(), east.getId(), 2, false);
+
+        assertEquals(List.of(jobs.get(6).getId(), jobs.get(4).getId()),
+                first.getContent().stream().map(PredictionJobDTO::getId).toList());
+        assertEquals(List.of(jobs.get(2).getId(), jobs.get(0).getId()),
+                second.getContent().stream().map(PredictionJobDTO::getId).toList());
+        assertNull(second.getNextCursor());
+        assertTrue(first.getContent().get(0).getPoints().isEmpty());
+        assertEquals(2, first.getContent().get(1).getPoints().size());
+    }
+
+    @Test
+    void rejectsBadSizesAndCursors() {
+        assertThrows(IllegalArgumentException.class, () -> predictionService.scrollPredictionJobs(null, null, 0, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> predictionService.scrollPredictionJobs(null, null, CursorPage.MAX_SIZE + 1, true));
+        assertThrows(IllegalArgumentException.class, () -> predictionService.scrollPredictionJobs("1000", null, 10, true));
+        assertThrows(IllegalArgumentException.class, () -> predictionService.scrollPredictionJobs("x_1", null, 10, true));
+        assertThrows(IllegalArgumentException.class, () -> roadSegmentService.scrollSegments(null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> roadSegmentService.scrollSegments(null, null, "ten", 10));
+    }
+
+    @Test
+    void scrollsSegmentsByRoadId() {
+        CursorPage<RoadSegmentDTO> first = roadSegmentService.scrollSegments(null, null, null, 2);
+        CursorPage<RoadSegmentDTO> second = roadSegmentService.scrollSegments(null, null, first.getNextCursor(), 2);
+
+        assertEquals(List.of(10, 20), first.getContent().stream().map(RoadSegmentDTO::getRoadId).toList());
+        assertEquals("20", first.getNextCursor());
+        assertEquals(List.of(30), second.getContent().stream().map(RoadSegmentDTO::getRoadId).toList());
+        assertNull(second.getNextCursor());
+        assertEquals(List.of(10, 30), roadSegmentService.scrollSegments(null, "A", null, 10).getContent().stream()
+                .map(RoadSegmentDTO::getRoadId).toList());
+    }
+
+    @Test
+    void exportsNdjsonOneJobPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = predictionExportService.export(PredictionExportService.Format.NDJSON, null, 1000L, 3000L, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, written);
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":" + jobs.get(0).getId() + ","), lines[0]);
+        assertTrue(lines[1].contains("\"segmentName\":\"Road #10\""), lines[1]);
+        assertEquals(2, lines[4].split("\"predictedSpeed\"").length - 1);
+
+        out.reset();
+        assertEquals(7, predictionExportService.export(PredictionExportService.Format.NDJSON, null, null, null, out));
+        String last = out.toString(StandardCharsets.UTF_8).lines().reduce((a, b) -> b).orElseThrow();
+        assertTrue(last.contains("\"id\":" + jobs.get(6).getId() + ",") && last.contains("\"points\":[]"), last);
+    }
+
+    @Test
+    void exportsCsvOnePointPerRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = predictionExportService.export(PredictionExportService.Format.CSV, east.getId(), null, null, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, written);
+        assertEquals(1 + 3 * 2 + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("job_id,segment_id,road_id,segment_name,"));
+        PredictionJob job = jobs.get(0);
+        assertEquals(job.getId() + "," + east.getId() + ",30,\"East, inner ring\",BASELINE,5000,2,3,1000,605000,41.5,FREE",
+                lines.get(1));
+        PredictionJob withoutPoints = jobs.get(6);
+        assertEquals(withoutPoints.getId() + "," + east.getId() + ",30,\"East, inner ring\",BASELINE,5006,2,3,3000,,,",
+                lines.get(7));
+    }
+}
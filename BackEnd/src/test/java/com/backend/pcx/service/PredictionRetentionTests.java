@@ -0,0 +1,113 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.PredictionAccuracyDTO;
+import com.backend.pcx.dto.RetentionStatusDTO;
+import com.backend.pcx.entity.CongestionLevel;
+import com.backend.pcx.entity.PredictionBatch;
+import com.backend.pcx.entity.PredictionJob;
+import com.backend.pcx.entity.PredictionPoint;
+import com.backend.pcx.entity.RoadSegment;
+import com.backend.pcx.repository.PredictionBatchRepository;
+import com.backend.pcx.repository.PredictionJobRepository;
+import com.backend.pcx.repository.PredictionPointRepository;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One retention run over a finished batch of two old jobs (one without points) and a
+ * recent job that has to survive; a batch size of one makes the batch row go with the
+ * second purge round.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retention-tests;DB_CLOSE_DELAY=-1",
+        "app.retention.detail-days=1",
+        "app.retention.batch-size=1"
+})
+class PredictionRetentionTests extends ServiceTestSupport {
+
+    @Autowired
+    private PredictionRetentionService retentionService;
+
+    @Autowired
+    private RoadSegmentRepository roadSegmentRepository;
+
+    @Autowired
+    private PredictionBatchRepository predictionBatchRepository;
+
+    @Autowired
+    private PredictionJobRepository predictionJobRepository;
+
+    @Autowired
+    private PredictionPointRepository predictionPointRepository;
+
+    @Test
+    void purgesArchivesAndSummarizesExpiredJobs() throws Exception {
+        importAndWait("speeddata_Aug.csv", false, "1,1,1,30", "1,1,2,40", "1,1,3,50");
+        RoadSegment segment = roadSegmentRepository.findByRoadId(1).orElseThrow();
+        long now = System.currentTimeMillis();
+
+        PredictionBatch batch = predictionBatchRepository.save(new PredictionBatch(null, "ALL",
+                PredictionBatch.BatchStatus.COMPLETED, BASE_DATE, 3, "BASELINE", 1, 1, 0, 100, null, 1000L, 2000L));
+        PredictionJob scored = predictionJobRepository.save(
+                new PredictionJob(null, segment, BASE_DATE, 3, "BASELINE", 2L, 1000L, batch.getId()));
+        predictionPointRepository.save(new PredictionPoint(null, scored, BASE_DATE + TEN_MINUTES_MS, 44.0, CongestionLevel.FREE));
+        predictionPointRepository.save(new PredictionPoint(null, scored, BASE_DATE + 2 * TEN_MINUTES_MS, 45.0, CongestionLevel.FREE));
+        predictionPointRepository.save(new PredictionPoint(null, scored, BASE_DATE + 3 * TEN_MINUTES_MS, 30.0, CongestionLevel.FLOWING));
+        predictionJobRepository.save(new PredictionJob(null, segment, BASE_DATE, 3, "BASELINE", 2L, 1000L, batch.getId()));
+        PredictionJob recent = predictionJobRepository.save(
+                new PredictionJob(null, segment, BASE_DATE, 3, "BASELINE", 2L, now, null));
+
+        RetentionStatusDTO status = runAndWait();
+
+        assertNull(status.getLastError());
+        assertEquals(2, status.getPurgedJobs());
+        assertEquals(3, status.getPurgedPoints());
+        assertEquals(1, status.getPurgedBatches());
+        assertEquals(List.of(recent.getId()), predictionJobRepository.findAll().stream().map(PredictionJob::getId).toList());
+        assertEquals(0, predictionPointRepository.count());
+        assertFalse(predictionBatchRepository.existsById(batch.getId()));
+
+        List<String> archived;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(Path.of(status.getArchiveFile()))), StandardCharsets.UTF_8))) {
+            archived = reader.lines().toList();
+        }
+        assertEquals(2, archived.size());
+        assertTrue(archived.stream().anyMatch(line -> line.contains("\"points\":[]")), archived.toString());
+
+        // The last point has no observation; the others are 4 above 40 and 5 below 50
+        List<PredictionAccuracyDTO> days = retentionService.getDailyAccuracy(null, null, null);
+        assertEquals(1, days.size());
+        PredictionAccuracyDTO day = days.get(0);
+        assertEquals("BASELINE", day.getPredictorType());
+        assertEquals(2, day.getJobCount());
+        assertEquals(3, day.getPointCount());
+        assertEquals(2, day.getEvaluatedCount());
+        assertEquals(4.5, day.getMae(), 1e-9);
+        assertEquals(Math.sqrt((16 + 25) / 2.0), day.getRmse(), 1e-9);
+        assertEquals(10.0, day.getMape(), 1e-9);
+    }
+
+    private RetentionStatusDTO runAndWait() throws InterruptedException {
+        retentionService.runNow();
+        return await("Retention run", () -> {
+            RetentionStatusDTO status = retentionService.getStatus();
+            return status.getLastRunAt() != null && !status.getRunning() ? status : null;
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.PredictRequest;
+import com.backend.pcx.dto.PredictionJobDTO;
+import com.backend.pcx.event.RoadDataChangedEvent;
+import com.backend.pcx.repository.RoadSegmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The prediction memo: hits for identical requests, and no entries that outlive a
+ * rollback or a change of the road's data.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:prediction-tests;DB_CLOSE_DELAY=-1")
+class PredictionServiceTests extends ServiceTestSupport {
+
+    private static final int ROAD_ID = 5;
+
+    @Autowired
+    private PredictionService predictionService;
+
+    @Autowired
+    private RoadSegmentRepository roadSegmentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PredictRequest request;
+
+    @BeforeEach
+    void importHistory() throws Exception {
+        if (roadSegmentRepository.findByRoadId(ROAD_ID).isEmpty()) {
+            importAndWait("speeddata_Aug.csv", false,
+                    "5,1,1,40", "5,1,2,41", "5,1,3,42", "5,1,4,43", "5,1,5,44", "5,1,6,45", "5,1,7,46", "5,1,8,47");
+        }
+        Long segmentId = roadSegmentRepository.findByRoadId(ROAD_ID).orElseThrow().getId();
+        request = new PredictRequest(segmentId, null, 3, "BASELINE");
+    }
+
+    @Test
+    void servesIdenticalRequestsFromTheMemoUntilTheDataChanges() {
+        PredictionJobDTO first = predictionService.predict(request);
+
+        assertEquals(first.getId(), predictionService.predict(request).getId());
+        assertEquals(BASE_DATE + 7 * TEN_MINUTES_MS, first.getBaseTime());
+
+        eventPublisher.publishEvent(new RoadDataChangedEvent(Set.of(ROAD_ID), true));
+        PredictionJobDTO recomputed = predictionService.predict(request);
+        assertNotEquals(first.getId(), recomputed.getId());
+        assertEquals(recomputed.getId(), predictionService.predict(request).getId());
+    }
+
+    @Test
+    void doesNotMemoizeAResultComputedBeforeTheDataChanged() {
+        eventPublisher.publishEvent(new RoadDataChangedEvent(Set.of(ROAD_ID), true));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // The import's invalidation lands while the prediction's transaction is still open
+        PredictionJobDTO stale = transaction.execute(status -> {
+            PredictionJobDTO job = predictionService.predict(request);
+            eventPublisher.publishEvent(new RoadDataChangedEvent(Set.of(ROAD_ID), true));
+            return job;
+        });
+
+        PredictionJobDTO fresh = predictionService.predict(request);
+        assertNotEquals(stale.getId(), fresh.getId());
+        assertEquals(fresh.getId(), predictionService.predict(request).getId());
+    }
+
+    @Test
+    void doesNotMemoizeARolledBackJob() {
+        eventPublisher.publishEvent(new RoadDataChangedEvent(Set.of(ROAD_ID), true));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        PredictionJobDTO rolledBack = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return predictionService.predict(request);
+        });
+
+        assertNotEquals(rolledBack.getId(), predictionService.predict(request).getId());
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.ImportJobDTO;
+import com.backend.pcx.entity.ImportJob;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Base for service tests that run the whole application against a scratch data
+ * directory with the background forecast, model and warmup jobs off. Each subclass names
+ * its own in-memory database with {@code @TestPropertySource}, so classes don't share rows.
+ * The context needs {@link #dataDir} when it starts, so subclasses keep the default
+ * per-method lifecycle (the static temp dir is not set yet for a per-class instance).
+ */
+@SpringBootTest(properties = {
+        "app.forecast.enabled=false",
+        "app.model.enabled=false",
+        "app.cache.warmup.enabled=false"
+})
+abstract class ServiceTestSupport {
+
+    static final long BASE_DATE = 1470000000000L;
+    static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+
+    private static final long TIMEOUT_MS = 30_000;
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("app.data-dir", () -> dataDir.toString());
+    }
+
+    @Autowired
+    ImportService importService;
+
+    /**
+     * Imports the rows (road_id,day_id,time_id,speed) as the given file and waits for the
+     * job to complete.
+     */
+    ImportJobDTO importAndWait(String filename, boolean append, String... rows) throws IOException, InterruptedException {
+        Path upload = Files.createTempFile(dataDir, "upload", ".part");
+        Files.writeString(upload, "road_id,day_id,time_id,speed\n" + String.join("\n", rows) + "\n");
+
+        Long jobId = importService.importUploadedFile(upload, filename, append);
+        return await("Import job " + jobId, () -> {
+            ImportJobDTO job = importService.getImportJob(jobId);
+            assertNotEquals(ImportJob.ImportStatus.FAILED, job.getStatus(), job.getErrorMessage());
+            return job.getStatus() == ImportJob.ImportStatus.COMPLETED ? job : null;
+        });
+    }
+
+    /**
+     * Polls until the probe returns a value.
+     */
+    static <T> T await(String what, Supplier<T> probe) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            T value = probe.get();
+            if (value != null) {
+                return value;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError(what + " did not finish");
+    }
+}
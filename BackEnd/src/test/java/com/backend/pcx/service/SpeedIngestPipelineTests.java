@@ -0,0 +1,126 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.entity.RoadFileAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SpeedIngestPipelineTests {
+
+    private static final long BASE_DATE = 1470000000000L;
+    private static final long TEN_MINUTES_MS = 10 * 60 * 1000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private SpeedIngestPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new SpeedIngestPipeline();
+        ReflectionTestUtils.setField(pipeline, "workers", 3);
+        pipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    /**
+     * Ten roads, 5 days x 144 slots each; road r has speed r + slot / 1000.0 except that
+     * every 100th slot is blank.
+     */
+    private static byte[] csv() {
+        StringBuilder csv = new StringBuilder("road_id,day_id,time_id,speed\n");
+        for (int day = 1; day <= 5; day++) {
+            for (int time = 1; time <= 144; time++) {
+                for (int road = 1; road <= 10; road++) {
+                    int slot = (day - 1) * 144 + time;
+                    csv.append(road).append(',').append(day).append(',').append(time).append(',');
+                    if (slot % 100 != 0) {
+                        csv.append(road + slot / 1000.0);
+                    }
+                    csv.append('\n');
+                }
+            }
+        }
+        csv.append("bad,1,1,10\n");
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void aggregatesEveryRoadAcrossPartitions() throws Exception {
+        byte[] data = csv();
+        AtomicLong lastProgress = new AtomicLong();
+
+        SpeedIngestPipeline.IngestResult result = pipeline.ingest(
+                new ByteArrayInputStream(data), "speeddata_Aug.csv", BASE_DATE, lastProgress::set);
+
+        assertEquals(7201, result.getTotalRows());
+        assertEquals(1, result.getUnparsedRows());
+        assertEquals(7 * 10 + 1, result.getSkippedRows());
+        assertEquals(7130, result.getValidRows());
+        assertEquals(data.length, lastProgress.get());
+        assertEquals(10, result.getAggregates().size());
+
+        for (int road = 1; road <= 10; road++) {
+            double sum = 0;
+            for (int slot = 1; slot <= 720; slot++) {
+                if (slot % 100 != 0) {
+                    sum += road + slot / 1000.0;
+                }
+            }
+            RoadFileAggregate aggregate = result.getAggregates().get(road);
+            assertEquals("speeddata_Aug.csv", aggregate.getFilename());
+            assertEquals(713, aggregate.getPointCount());
+            assertEquals(sum, aggregate.getSpeedSum(), 1e-6);
+            assertEquals(BASE_DATE, aggregate.getMinTs());
+            assertEquals(BASE_DATE + 4 * DAY_MS + 143 * TEN_MINUTES_MS, aggregate.getMaxTs());
+        }
+    }
+
+    @Test
+    void failsInsteadOfHangingWhenTheInputBreaks() {
+        byte[] data = csv();
+        InputStream broken = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position >= data.length / 2) {
+                    throw new IOException("connection reset");
+                }
+                return data[position++] & 0xff;
+            }
+        };
+
+        IOException error = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IOException.class,
+                () -> pipeline.ingest(broken, "speeddata_Aug.csv", BASE_DATE, bytes -> { })));
+        assertEquals("connection reset", error.getMessage());
+
+        // The cancelled workers must not keep the pool busy for the next import
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertEquals(7130, pipeline.ingest(
+                new ByteArrayInputStream(data), "speeddata_Aug.csv", BASE_DATE, bytes -> { }).getValidRows()));
+    }
+
+    @Test
+    void countsRowsButNoPointsWithoutABaseDate() throws Exception {
+        SpeedIngestPipeline.IngestResult result = pipeline.ingest(
+                new ByteArrayInputStream(csv()), "speeddata_unknown.csv", null, bytes -> { });
+
+        assertEquals(0, result.getValidRows());
+        assertEquals(10, result.getAggregates().size());
+        assertEquals(0, result.getAggregates().get(1).getPointCount());
+    }
+}
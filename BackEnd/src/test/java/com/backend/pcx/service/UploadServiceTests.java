@@ -0,0 +1,156 @@
+package com.backend.pcx.service;
+
+import com.backend.pcx.dto.ImportJobDTO;
+import com.backend.pcx.dto.UploadInitRequest;
+import com.backend.pcx.dto.UploadSessionDTO;
+import com.backend.pcx.entity.ImportJob;
+import com.backend.pcx.entity.UploadSession;
+import com.backend.pcx.repository.FileBasedSpeedRepository;
+import com.backend.pcx.repository.UploadSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:upload-tests;DB_CLOSE_DELAY=-1")
+class UploadServiceTests extends ServiceTestSupport {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final byte[] CSV = "road_id,day_id,time_id,speed\n7,1,1,40\n7,1,2,41\n7,1,3,42\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private FileBasedSpeedRepository fileBasedSpeedRepository;
+
+    @Test
+    void rejectsOffsetsOutsideTheReceivedRange() throws Exception {
+        String id = create(null).getUploadId();
+        uploadService.writeChunk(id, 0, body(0, 10), null);
+
+        assertThrows(IllegalArgumentException.class, () -> uploadService.writeChunk(id, 11, body(11, 20), null));
+        assertThrows(IllegalArgumentException.class, () -> uploadService.writeChunk(id, -1, body(0, 10), null));
+        assertEquals(10, uploadService.getSession(id).getReceivedBytes());
+    }
+
+    @Test
+    void rejectsChunksPastTheDeclaredSize() throws Exception {
+        String id = create(null).getUploadId();
+        byte[] tooLong = Arrays.copyOf(CSV, CSV.length + 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadService.writeChunk(id, 0, new ByteArrayInputStream(tooLong), null));
+        assertEquals(0, uploadService.getSession(id).getReceivedBytes());
+        assertEquals(UploadSession.UploadStatus.UPLOADING, uploadService.getSession(id).getStatus());
+    }
+
+    @Test
+    void aBadResendRewindsSoTheResumedFileIsIntact() throws Exception {
+        String id = create(null).getUploadId();
+        UploadSessionDTO session = uploadService.writeChunk(id, 0, body(0, 40), sha256(0, 40));
+        assertEquals(40, session.getReceivedBytes());
+
+        // Re-send of [30, 40) whose bytes got corrupted on the way
+        byte[] corrupted = Arrays.copyOfRange(CSV, 30, 40);
+        corrupted[0] ^= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadService.writeChunk(id, 30, new ByteArrayInputStream(corrupted), sha256(30, 40)));
+        assertEquals(30, uploadService.getSession(id).getReceivedBytes());
+
+        session = uploadService.writeChunk(id, 30, body(30, CSV.length), sha256(30, CSV.length));
+        assertEquals(UploadSession.UploadStatus.COMPLETED, session.getStatus());
+        awaitImport(session.getJobId());
+        assertArrayEquals(new double[]{40, 41, 42}, fileBasedSpeedRepository.getSpeedData(7, null, null, false).stream()
+                .mapToDouble(FileBasedSpeedRepository.SpeedDataPoint::getSpeed).toArray());
+    }
+
+    @Test
+    void resumesFromTheReceivedBytesAndChecksTheWholeFile() throws Exception {
+        String id = create(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CSV))).getUploadId();
+        uploadService.writeChunk(id, 0, body(0, 25), null);
+
+        UploadSessionDTO session = uploadService.writeChunk(id, uploadService.getSession(id).getReceivedBytes(),
+                body(25, CSV.length), null);
+
+        assertEquals(UploadSession.UploadStatus.COMPLETED, session.getStatus());
+        awaitImport(session.getJobId());
+    }
+
+    @Test
+    void failsAWholeFileChecksumMismatch() throws Exception {
+        String id = create("0".repeat(64)).getUploadId();
+
+        UploadSessionDTO session = uploadService.writeChunk(id, 0, body(0, CSV.length), null);
+
+        assertEquals(UploadSession.UploadStatus.FAILED, session.getStatus());
+        assertFalse(Files.exists(part(id)));
+        assertThrows(IllegalStateException.class, () -> uploadService.writeChunk(id, 0, body(0, 1), null));
+    }
+
+    @Test
+    void sweepsExpiredSessionsAndOrphanedParts() throws Exception {
+        String stale = create(null).getUploadId();
+        uploadService.writeChunk(stale, 0, body(0, 10), null);
+        UploadSession staleSession = uploadSessionRepository.findById(stale).orElseThrow();
+        staleSession.setUpdatedAt(System.currentTimeMillis() - 2 * DAY_MS);
+        uploadSessionRepository.save(staleSession);
+        String fresh = create(null).getUploadId();
+        Path orphan = Files.createFile(part("orphan"));
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - 2 * DAY_MS));
+        Files.setLastModifiedTime(part(fresh), FileTime.fromMillis(System.currentTimeMillis() - 2 * DAY_MS));
+
+        uploadService.sweepExpired();
+
+        UploadSessionDTO expired = uploadService.getSession(stale);
+        assertEquals(UploadSession.UploadStatus.FAILED, expired.getStatus());
+        assertEquals("上传会话已过期", expired.getErrorMessage());
+        assertFalse(Files.exists(part(stale)));
+        assertFalse(Files.exists(orphan));
+        assertEquals(UploadSession.UploadStatus.UPLOADING, uploadService.getSession(fresh).getStatus());
+        assertTrue(Files.exists(part(fresh)));
+    }
+
+    private UploadSessionDTO create(String sha256) throws Exception {
+        return uploadService.createSession(new UploadInitRequest("speeddata_Aug.csv", (long) CSV.length, sha256, false));
+    }
+
+    private static ByteArrayInputStream body(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(CSV, from, to));
+    }
+
+    private static String sha256(int from, int to) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Arrays.copyOfRange(CSV, from, to)));
+    }
+
+    private static Path part(String uploadId) {
+        return dataDir.resolve(".uploads").resolve(uploadId + ".part");
+    }
+
+    private void awaitImport(Long jobId) throws InterruptedException {
+        ImportJobDTO job = await("Import job " + jobId, () -> {
+            ImportJobDTO current = importService.getImportJob(jobId);
+            return current.getStatus() == ImportJob.ImportStatus.PENDING
+                    || current.getStatus() == ImportJob.ImportStatus.PROCESSING ? null : current;
+        });
+        assertEquals(ImportJob.ImportStatus.COMPLETED, job.getStatus(), job.getErrorMessage());
+    }
+}
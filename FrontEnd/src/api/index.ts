@@ -2,9 +2,18 @@ import request from '@/utils/request'
 import type {
   RoadSegment,
   SpeedRecord,
+  RollupSeries,
+  RollupResolution,
   ImportJob,
+  UploadSession,
   PredictionJob,
   PredictRequest,
+  PredictorInfo,
+  BatchPredictRequest,
+  PredictionBatch,
+  BacktestRequest,
+  BacktestRun,
+  BacktestMetric,
   DashboardSummary,
   DataSource,
   Page
@@ -12,7 +21,9 @@ import type {
 
 export const api = {
   dashboard: {
-    getSummary: () => request.get<DashboardSummary>('/dashboard/summary')
+    getSummary: () => request.get<DashboardSummary>('/dashboard/summary'),
+    
+    subscribe: () => new EventSource('/api/dashboard/stream')
   },
   
   segments: {
@@ -26,19 +37,40 @@ export const api = {
   
   speeds: {
     getList: (params: { segmentId: number; from?: number; to?: number }) =>
-      request.get<SpeedRecord[]>('/speeds', { params })
+      request.get<SpeedRecord[]>('/speeds', { params }),
+    
+    getRollup: (params: {
+      segmentId: number
+      from?: number
+      to?: number
+      span?: number
+      resolution?: RollupResolution
+      maxPoints?: number
+    }) => request.get<RollupSeries>('/speeds/rollup', { params })
   },
   
   import: {
     upload: (file: File, onProgress?: (percent: number) => void) =>
       request.upload<number>('/import/speed-csv', file, onProgress),
     
-    uploadBatch: (files: File[]) => {
+    uploadBatch: (files: File[], append = false) => {
       const formData = new FormData()
       files.forEach(file => formData.append('files', file))
-      return request.post<number[]>('/import/speed-csv-batch', formData)
+      return request.post<number[]>('/import/speed-csv-batch', formData, { params: { append } })
     },
     
+    createUpload: (data: { filename: string; totalSize: number; sha256?: string; append?: boolean }) =>
+      request.post<UploadSession>('/import/uploads', data),
+    
+    getUpload: (uploadId: string) => request.get<UploadSession>(`/import/uploads/${uploadId}`),
+    
+    uploadChunk: (uploadId: string, offset: number, chunk: ArrayBuffer, sha256: string) =>
+      request.put<UploadSession>(`/import/uploads/${uploadId}`, chunk, {
+        params: { offset },
+        headers: { 'Content-Type': 'application/octet-stream', 'X-Chunk-SHA256': sha256 },
+        timeout: 0
+      }),
+    
     getJob: (jobId: number) => request.get<ImportJob>(`/import/${jobId}`),
     
     getDataSources: () => request.get<DataSource[]>('/import/data-sources'),
@@ -49,13 +81,34 @@ export const api = {
   predict: {
     create: (data: PredictRequest) => request.post<PredictionJob>('/predict', data),
     
-    getJobs: (params: { page?: number; size?: number }) =>
+    getPredictors: () => request.get<PredictorInfo[]>('/predict/predictors'),
+    
+    getJobs: (params: { page?: number; size?: number; compact?: boolean }) =>
       request.get<Page<PredictionJob>>('/predict/jobs', { params }),
     
     getJob: (jobId: number) => request.get<PredictionJob>(`/predict/jobs/${jobId}`),
     
-    getJobsBySegment: (segmentId: number, params: { page?: number; size?: number }) =>
-      request.get<Page<PredictionJob>>(`/predict/jobs/segment/${segmentId}`, { params })
+    getJobsBySegment: (segmentId: number, params: { page?: number; size?: number; compact?: boolean }) =>
+      request.get<Page<PredictionJob>>(`/predict/jobs/segment/${segmentId}`, { params }),
+    
+    createBatch: (data: BatchPredictRequest) => request.post<PredictionBatch>('/predict/batch', data),
+    
+    getBatch: (batchId: number) => request.get<PredictionBatch>(`/predict/batch/${batchId}`),
+    
+    getBatchJobs: (batchId: number, params: { page?: number; size?: number; compact?: boolean }) =>
+      request.get<Page<PredictionJob>>(`/predict/batch/${batchId}/jobs`, { params })
+  },
+  
+  backtest: {
+    create: (data: BacktestRequest) => request.post<BacktestRun>('/backtest', data),
+    
+    getRuns: (params: { predictorType?: string; page?: number; size?: number }) =>
+      request.get<Page<BacktestRun>>('/backtest', { params }),
+    
+    getRun: (runId: number) => request.get<BacktestRun>(`/backtest/${runId}`),
+    
+    getRoadMetrics: (runId: number, params: { page?: number; size?: number }) =>
+      request.get<Page<BacktestMetric>>(`/backtest/${runId}/roads`, { params })
   }
 }
 
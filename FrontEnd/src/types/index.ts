@@ -25,6 +25,28 @@ export interface SpeedRecord {
   speed: number
 }
 
+export type RollupResolution = 'RAW' | 'HOUR' | 'DAY'
+
+export interface RollupPoint {
+  ts: number
+  minSpeed: number
+  avgSpeed: number
+  maxSpeed: number
+  p10Speed: number
+  p50Speed: number
+  p90Speed: number
+  pointCount: number
+}
+
+export interface RollupSeries {
+  segmentId: number
+  roadId: number
+  resolution: RollupResolution
+  from: number
+  to: number
+  points: RollupPoint[]
+}
+
 export interface ImportJob {
   id: number
   filename: string
@@ -35,6 +57,17 @@ export interface ImportJob {
   errorMessage: string
   createdAt: number
   finishedAt: number
+  progress: number
+}
+
+export interface UploadSession {
+  uploadId: string
+  filename: string
+  totalSize: number
+  receivedBytes: number
+  status: 'UPLOADING' | 'COMPLETED' | 'FAILED'
+  jobId: number | null
+  errorMessage: string | null
 }
 
 export interface PredictionPoint {
@@ -53,7 +86,7 @@ export interface PredictionJob {
   predictorType: string
   costMs: number
   createdAt: number
-  points: PredictionPoint[]
+  points?: PredictionPoint[]
 }
 
 export interface CongestedSegment {
@@ -87,6 +120,20 @@ export interface DashboardSummary {
   congestionLevelDistribution: CongestionLevelDistribution
 }
 
+export interface CongestionTransition {
+  roadId: number
+  name: string
+  region: string
+  avgSpeed: number
+  fromLevel: CongestionLevel | null
+  toLevel: CongestionLevel | null
+}
+
+export interface DashboardDelta extends Partial<DashboardSummary> {
+  version: number
+  transitions?: CongestionTransition[]
+}
+
 export interface DataSource {
   filename: string
   month: string
@@ -106,4 +153,78 @@ export interface PredictRequest {
   segmentId: number
   baseTime: number | null
   horizonSteps: number
+  predictorType?: string
+}
+
+export interface PredictorInfo {
+  type: string
+  historySteps: number
+  defaultPredictor: boolean
+  online: boolean
+  fittedRoads: number
+}
+
+export interface BacktestRequest {
+  predictorType?: string
+  horizonSteps?: number
+  originStride?: number
+  fromTs?: number
+  toTs?: number
+  region?: string
+}
+
+export interface BacktestMetric {
+  key: string
+  evaluations: number
+  mae: number | null
+  rmse: number | null
+  mape: number | null
+}
+
+export interface BacktestRun {
+  id: number
+  predictorType: string
+  status: 'PENDING' | 'PROCESSING' | 'COMPLETED' | 'FAILED'
+  horizonSteps: number
+  originStride: number
+  fromTs?: number
+  toTs?: number
+  region?: string
+  roadCount?: number
+  evaluations?: number
+  mae?: number
+  rmse?: number
+  mape?: number
+  durationMs?: number
+  errorMessage?: string
+  createdAt: number
+  finishedAt?: number
+  stepMetrics?: BacktestMetric[]
+  hourMetrics?: BacktestMetric[]
+  regionMetrics?: BacktestMetric[]
+}
+
+export interface BatchPredictRequest {
+  all?: boolean
+  region?: string
+  segmentIds?: number[]
+  baseTime?: number | null
+  horizonSteps?: number
+  predictorType?: string
+}
+
+export interface PredictionBatch {
+  id: number
+  scope: string
+  status: 'PENDING' | 'PROCESSING' | 'COMPLETED' | 'FAILED'
+  baseTime: number | null
+  horizonSteps: number
+  predictorType: string
+  totalSegments: number
+  successCount: number
+  failCount: number
+  progress: number
+  errorMessage: string | null
+  createdAt: number
+  finishedAt: number | null
 }